@@ -23,10 +23,12 @@ import InventoryIcon from '@mui/icons-material/Inventory';
 
 
 const drawerWidth = 240;
+const PAGE_SIZE = 100;
 
 function RestockRequestsPage() {
     const { themeMode, toggleTheme } = useContext(ThemeContext);
     const [purchaseOrders, setPurchaseOrders] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
     const [loading, setLoading] = useState(true);
     const navigate = useNavigate();
     const role = localStorage.getItem('role');
@@ -35,11 +37,13 @@ function RestockRequestsPage() {
         fetchPOs();
     }, []);
 
+    // Summary rows (no full product), newest first, one page at a time
     const fetchPOs = async () => {
         setLoading(true);
         try {
-            const response = await api.get('/pos');
-            setPurchaseOrders(response.data);
+            const response = await api.get('/pos/summary', { params: { size: PAGE_SIZE } });
+            setPurchaseOrders(response.data.items);
+            setNextCursor(response.data.nextCursor);
         } catch (err) {
             console.error("Failed to fetch Purchase Orders", err);
              if (err.response && (err.response.status === 401 || err.response.status === 403)) {
@@ -50,6 +54,16 @@ function RestockRequestsPage() {
         }
     };
 
+    const loadMore = async () => {
+        try {
+            const response = await api.get('/pos/summary', { params: { size: PAGE_SIZE, cursor: nextCursor } });
+            setPurchaseOrders(prev => [...prev, ...response.data.items]);
+            setNextCursor(response.data.nextCursor);
+        } catch (err) {
+            console.error("Failed to fetch more Purchase Orders", err);
+        }
+    };
+
     const handleLogout = () => {
         localStorage.removeItem('token');
         localStorage.removeItem('role');
@@ -81,6 +95,24 @@ function RestockRequestsPage() {
         }
     };
 
+    // --- Bulk actions: every loaded PO in the right status, in one request ---
+    const handleBulk = async (action, statuses, label) => {
+        const ids = purchaseOrders.filter(po => statuses.includes(po.status)).map(po => po.id);
+        if (ids.length === 0) {
+            alert(`No purchase orders to ${label}.`);
+            return;
+        }
+        try {
+            const response = await api.put(`/pos/bulk/${action}`, { ids });
+            const skipped = ids.length - response.data.processed;
+            alert(`${response.data.processed} purchase orders updated` + (skipped > 0 ? `, ${skipped} skipped.` : '.'));
+            fetchPOs();
+        } catch (err) {
+            console.error(`Failed to ${label} POs:`, err);
+            alert(`Failed to ${label} purchase orders.`);
+        }
+    };
+
     // Helper for status chip color and icon
     const getStatusChip = (status) => {
         let chipColor = 'default';
@@ -193,9 +225,17 @@ function RestockRequestsPage() {
                 <Typography variant="h4" sx={{ mb: 1, fontWeight: 'bold', display: 'flex', alignItems: 'center', gap: 1 }}>
                    <ShoppingCartCheckoutIcon fontSize="large" color="warning" /> Restock Requests
                 </Typography>
-                <Typography variant="body1" color="text.secondary" sx={{ mb: 4 }}>
+                <Typography variant="body1" color="text.secondary" sx={{ mb: 2 }}>
                     Manage and process Purchase Orders generated by the forecast system.
                 </Typography>
+                <Box sx={{ display: 'flex', gap: 2, mb: 3 }}>
+                    <Button variant="contained" color="secondary" onClick={() => handleBulk('approve', ['PENDING'], 'approve')}>
+                        Approve All Pending
+                    </Button>
+                    <Button variant="contained" color="success" onClick={() => handleBulk('receive', ['APPROVED', 'ORDERED'], 'receive')}>
+                        Receive All In Transit
+                    </Button>
+                </Box>
 
                 {loading ? (
                     <Box sx={{ display: 'flex', justifyContent: 'center', mt: 5 }}><CircularProgress /></Box>
@@ -218,8 +258,8 @@ function RestockRequestsPage() {
                                     {purchaseOrders.map((po) => (
                                         <TableRow key={po.id} hover>
                                             <TableCell>{po.id}</TableCell>
-                                            <TableCell sx={{ fontWeight: 'medium' }}>{po.product.productName}</TableCell>
-                                            <TableCell>{po.product.supplier}</TableCell>
+                                            <TableCell sx={{ fontWeight: 'medium' }}>{po.productName}</TableCell>
+                                            <TableCell>{po.supplier}</TableCell>
                                             <TableCell align="right" sx={{ fontWeight: 'bold' }}>{po.quantity}</TableCell>
                                             <TableCell>{formatDate(po.createdAt)}</TableCell>
                                             <TableCell align="center">
@@ -255,6 +295,11 @@ function RestockRequestsPage() {
                                 </TableBody>
                             </Table>
                         </TableContainer>
+                        {nextCursor && (
+                            <Box sx={{ display: 'flex', justifyContent: 'center', p: 2 }}>
+                                <Button variant="outlined" onClick={loadMore}>Load more</Button>
+                            </Box>
+                        )}
                     </Paper>
                 )}
             </Box>
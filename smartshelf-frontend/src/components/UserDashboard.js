@@ -116,15 +116,14 @@ function UserDashboard() {
     setLoading(true);
     setError('');
     try {
-      const salePromises = cart.map((item) => {
-        return api.post('/sales', {
+      // The whole cart is sold in one request (all-or-nothing)
+      await api.post('/sales/batch', {
+        items: cart.map((item) => ({
           productId: item.id,
           quantitySold: item.quantity,
-        });
+        })),
       });
 
-      await Promise.all(salePromises);
-
       setCart([]);
       setIsCartOpen(false);
       fetchProducts(filters);
@@ -132,7 +131,9 @@ function UserDashboard() {
 
     } catch (err) {
       console.error("Checkout error:", err);
-      if (err.response && err.response.data) {
+      if (err.response && err.response.data && err.response.data.message) {
+        setError(err.response.data.message);
+      } else if (err.response && typeof err.response.data === 'string') {
         setError(err.response.data);
       } else {
         setError("Checkout failed. Please try again.");
@@ -0,0 +1,43 @@
+package com.smartshelf.smartshelf.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Forecasting settings (prefix "smartshelf.forecast").
+ *
+ * smartshelf.forecast.default-model=auto
+ * smartshelf.forecast.category-models.Electronics=holt-winters
+ * smartshelf.forecast.product-models.42=croston
+ */
+@ConfigurationProperties(prefix = "smartshelf.forecast")
+public class ForecastProperties {
+
+    // Model used when neither the product nor its category has one configured
+    private String defaultModel = "auto";
+
+    // Model name per product category
+    private Map<String, String> categoryModels = new HashMap<>();
+
+    // Model name per product id (wins over the category)
+    private Map<Long, String> productModels = new HashMap<>();
+
+    // Worker threads for the forecasting pool (0 = number of CPU cores)
+    private int parallelism = 0;
+
+    // Products per fork-join leaf task
+    private int partitionSize = 512;
+
+    public String getDefaultModel() { return defaultModel; }
+    public void setDefaultModel(String defaultModel) { this.defaultModel = defaultModel; }
+    public Map<String, String> getCategoryModels() { return categoryModels; }
+    public void setCategoryModels(Map<String, String> categoryModels) { this.categoryModels = categoryModels; }
+    public Map<Long, String> getProductModels() { return productModels; }
+    public void setProductModels(Map<Long, String> productModels) { this.productModels = productModels; }
+    public int getParallelism() { return parallelism; }
+    public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+    public int getPartitionSize() { return partitionSize; }
+    public void setPartitionSize(int partitionSize) { this.partitionSize = partitionSize; }
+}
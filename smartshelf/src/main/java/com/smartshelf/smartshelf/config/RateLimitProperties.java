@@ -0,0 +1,59 @@
+package com.smartshelf.smartshelf.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Request rate limits (prefix "smartshelf.rate-limit"), one token bucket per route and caller.
+ *
+ * smartshelf.rate-limit.routes.sales.method=POST
+ * smartshelf.rate-limit.routes.sales.paths=/api/sales,/api/sales/batch
+ * smartshelf.rate-limit.routes.sales.capacity=30
+ * smartshelf.rate-limit.routes.sales.refill-per-second=10
+ */
+@ConfigurationProperties(prefix = "smartshelf.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // A bucket that has been full again for this long is dropped (it would be recreated full anyway)
+    private long idleEvictSeconds = 600;
+
+    // Route name -> limit; the first route matching a request applies
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    public static class Route {
+
+        // HTTP method, or null for any
+        private String method;
+
+        // Ant-style patterns, e.g. /api/pos or /api/sales/**
+        private List<String> paths = new ArrayList<>();
+
+        // Burst size: requests a caller can make at once
+        private int capacity = 10;
+
+        // Sustained rate once the burst is used up
+        private double refillPerSecond = 1.0;
+
+        public String getMethod() { return method; }
+        public void setMethod(String method) { this.method = method; }
+        public List<String> getPaths() { return paths; }
+        public void setPaths(List<String> paths) { this.paths = paths; }
+        public int getCapacity() { return capacity; }
+        public void setCapacity(int capacity) { this.capacity = capacity; }
+        public double getRefillPerSecond() { return refillPerSecond; }
+        public void setRefillPerSecond(double refillPerSecond) { this.refillPerSecond = refillPerSecond; }
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public long getIdleEvictSeconds() { return idleEvictSeconds; }
+    public void setIdleEvictSeconds(long idleEvictSeconds) { this.idleEvictSeconds = idleEvictSeconds; }
+    public Map<String, Route> getRoutes() { return routes; }
+    public void setRoutes(Map<String, Route> routes) { this.routes = routes; }
+}
@@ -0,0 +1,45 @@
+package com.smartshelf.smartshelf.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Auto-restock settings (prefix "smartshelf.restock").
+ *
+ * A product is reordered when stock + open PO quantity falls below
+ * reorderPointWeeks x predicted weekly demand + safetyStock, and the order
+ * tops it up to targetWeeks x predicted weekly demand + safetyStock.
+ */
+@ConfigurationProperties(prefix = "smartshelf.restock")
+public class RestockProperties {
+
+    // Turns the scheduled run off; POST /api/pos/auto-restock still works
+    private boolean enabled = true;
+
+    // When the scheduled run fires
+    private String cron = "0 5/15 * * * *";
+
+    // Reorder point, in weeks of predicted demand
+    private double reorderPointWeeks = 1.0;
+
+    // Order-up-to level, in weeks of predicted demand (the manual PO form suggests 3)
+    private double targetWeeks = 3.0;
+
+    // Extra units always kept on hand, on top of the forecast
+    private int safetyStock = 0;
+
+    // Smallest PO the engine will create
+    private int minOrderQuantity = 10;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public String getCron() { return cron; }
+    public void setCron(String cron) { this.cron = cron; }
+    public double getReorderPointWeeks() { return reorderPointWeeks; }
+    public void setReorderPointWeeks(double reorderPointWeeks) { this.reorderPointWeeks = reorderPointWeeks; }
+    public double getTargetWeeks() { return targetWeeks; }
+    public void setTargetWeeks(double targetWeeks) { this.targetWeeks = targetWeeks; }
+    public int getSafetyStock() { return safetyStock; }
+    public void setSafetyStock(int safetyStock) { this.safetyStock = safetyStock; }
+    public int getMinOrderQuantity() { return minOrderQuantity; }
+    public void setMinOrderQuantity(int minOrderQuantity) { this.minOrderQuantity = minOrderQuantity; }
+}
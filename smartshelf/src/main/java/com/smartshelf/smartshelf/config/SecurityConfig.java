@@ -1,24 +1,23 @@
 package com.smartshelf.smartshelf.config;
 
 import com.smartshelf.smartshelf.repository.UserRepository;
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import com.smartshelf.smartshelf.service.JwtTokenService;
+import com.smartshelf.smartshelf.service.RateLimiter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -30,7 +29,6 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import javax.crypto.SecretKey;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
@@ -38,14 +36,10 @@ import java.util.List;
 @Configuration
 public class SecurityConfig {
 
+    // Cost from smartshelf.auth.bcrypt-strength; PasswordHashingService rehashes older hashes on login
     @Bean
-    public SecretKey jwtSecretKey() {
-        return Keys.secretKeyFor(io.jsonwebtoken.SignatureAlgorithm.HS512);
-    }
-
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${smartshelf.auth.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
@@ -78,37 +72,26 @@ public class SecurityConfig {
     }
 
     // --- JWT FILTER CLASS ---
+    // The principal and authorities come from the token's signed claims (no users table lookup)
     public class JwtTokenFilter extends OncePerRequestFilter {
-        private final UserDetailsService userDetailsService;
-        private final SecretKey jwtSecretKey;
+        private final JwtTokenService jwtTokenService;
 
-        public JwtTokenFilter(UserDetailsService userDetailsService, SecretKey jwtSecretKey) {
-            this.userDetailsService = userDetailsService;
-            this.jwtSecretKey = jwtSecretKey;
+        public JwtTokenFilter(JwtTokenService jwtTokenService) {
+            this.jwtTokenService = jwtTokenService;
         }
 
         @Override
         protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
                 throws ServletException, IOException {
-            try {
-                String header = request.getHeader("Authorization");
-                if (header == null || !header.startsWith("Bearer ")) {
-                    filterChain.doFilter(request, response);
-                    return;
-                }
-                String token = header.substring(7);
-                Claims claims = Jwts.parserBuilder()
-                        .setSigningKey(jwtSecretKey)
-                        .build()
-                        .parseClaimsJws(token)
-                        .getBody();
-
-                String email = claims.getSubject();
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+            String header = request.getHeader("Authorization");
+            if (header == null || !header.startsWith("Bearer ")) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            Authentication authentication = jwtTokenService.authenticate(header.substring(7));
+            if (authentication != null) {
                 SecurityContextHolder.getContext().setAuthentication(authentication);
-            } catch (Exception e) {
+            } else {
                 SecurityContextHolder.clearContext();
             }
             filterChain.doFilter(request, response);
@@ -116,13 +99,13 @@ public class SecurityConfig {
     }
 
     @Bean
-    public JwtTokenFilter authenticationJwtTokenFilter(UserDetailsService userDetailsService, SecretKey jwtSecretKey) {
-        return new JwtTokenFilter(userDetailsService, jwtSecretKey);
+    public JwtTokenFilter authenticationJwtTokenFilter(JwtTokenService jwtTokenService) {
+        return new JwtTokenFilter(jwtTokenService);
     }
 
     // --- MAIN SECURITY FILTER CHAIN ---
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http, JwtTokenFilter jwtTokenFilter) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, JwtTokenFilter jwtTokenFilter, RateLimiter rateLimiter) throws Exception {
         http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(AbstractHttpConfigurer::disable)
@@ -134,12 +117,12 @@ public class SecurityConfig {
 
                         // Product Rules
                         .requestMatchers(HttpMethod.GET, "/api/products", "/api/products/**").authenticated()
-                        .requestMatchers(HttpMethod.POST, "/api/products").hasAnyAuthority("STORE_MANAGER", "ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/products", "/api/products/import").hasAnyAuthority("STORE_MANAGER", "ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/api/products/**").hasAnyAuthority("STORE_MANAGER", "ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/products/**").hasAnyAuthority("STORE_MANAGER", "ADMIN")
 
                         // Sales Rules
-                        .requestMatchers(HttpMethod.POST, "/api/sales").hasAnyAuthority("USER", "STORE_MANAGER", "ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/sales", "/api/sales/batch").hasAnyAuthority("USER", "STORE_MANAGER", "ADMIN")
                         .requestMatchers(HttpMethod.GET, "/api/sales/**").hasAnyAuthority("STORE_MANAGER", "ADMIN")
 
                         // --- Forecast Rules ---
@@ -151,14 +134,23 @@ public class SecurityConfig {
                         // Keep the rest of the PO rules protected
                         .requestMatchers("/api/pos/**").hasAnyAuthority("STORE_MANAGER", "ADMIN")
 
+                        // --- Reports: rebuilding the rollup tables is an admin operation ---
+                        .requestMatchers(HttpMethod.POST, "/api/reports/rollups/rebuild").hasAuthority("ADMIN")
+
                         // --- User Management (ADMIN ONLY) ---
                         .requestMatchers("/api/users/**").hasAuthority("ADMIN")
 
+                        // --- Actuator: health for load balancers, the rest (metrics...) for admins ---
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasAuthority("ADMIN")
+
                         // Default Rule
                         .anyRequest().authenticated()
                 );
 
         http.addFilterBefore(jwtTokenFilter, UsernamePasswordAuthenticationFilter.class);
+        // Not a bean: a Filter bean would also be registered with the servlet container, ahead of the JWT check
+        http.addFilterAfter(new RateLimitFilter(rateLimiter), JwtTokenFilter.class);
 
         return http.build();
     }
@@ -6,91 +6,105 @@ import com.smartshelf.smartshelf.dto.RegisterRequest;
 import com.smartshelf.smartshelf.model.Role;
 import com.smartshelf.smartshelf.model.User;
 import com.smartshelf.smartshelf.repository.UserRepository;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import com.smartshelf.smartshelf.service.JwtTokenService;
+import com.smartshelf.smartshelf.service.PasswordHashingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
-import javax.crypto.SecretKey;
-import java.util.Date;
 import java.util.Map;
 import java.util.Optional; // Import Optional
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "http://localhost:3000")
 public class AuthController {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
-    private final AuthenticationManager authenticationManager;
-    private final SecretKey jwtSecretKey;
-    private final long jwtExpirationMs = 86400000;
+    private final PasswordHashingService passwordHashing;
+    private final JwtTokenService jwtTokenService;
+    private final Executor executor;
 
     @Autowired
     public AuthController(UserRepository userRepository,
-                          PasswordEncoder passwordEncoder,
-                          AuthenticationManager authenticationManager,
-                          SecretKey jwtSecretKey) {
+                          PasswordHashingService passwordHashing,
+                          JwtTokenService jwtTokenService,
+                          @Qualifier("applicationTaskExecutor") Executor executor) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
-        this.authenticationManager = authenticationManager;
-        this.jwtSecretKey = jwtSecretKey;
+        this.passwordHashing = passwordHashing;
+        this.jwtTokenService = jwtTokenService;
+        this.executor = executor;
     }
 
+    // All three endpoints hash on PasswordHashingService's pool: the request thread is freed
+    // while BCrypt runs, and a full queue is answered with 429 straight away. What follows the
+    // hash (saving the user, issuing the token) runs on the application task executor, so the
+    // few hash threads only ever hash.
+
     // --- NEW: Direct Password Reset Endpoint ---
     @PostMapping("/reset-password-direct")
-    public ResponseEntity<?> resetPasswordDirect(@RequestBody Map<String, String> request) {
+    public CompletableFuture<ResponseEntity<?>> resetPasswordDirect(@RequestBody Map<String, String> request) {
         String email = request.get("email");
         String oldPassword = request.get("oldPassword");
         String newPassword = request.get("newPassword");
 
         if (newPassword == null || newPassword.isEmpty() || newPassword.length() < 6) {
-            return ResponseEntity.badRequest().body("New password must be at least 6 characters long.");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("New password must be at least 6 characters long."));
         }
 
         Optional<User> userOpt = userRepository.findByEmail(email);
 
         if (userOpt.isEmpty()) {
-            return ResponseEntity.badRequest().body("Invalid email or password."); // Vague error for security
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Invalid email or password.")); // Vague error for security
         }
 
         User user = userOpt.get();
 
-        // 1. Verify the old password against the database hash
-        if (!passwordEncoder.matches(oldPassword, user.getPassword())) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid email or old password.");
+        try {
+            // 1. Verify the old password against the database hash
+            return passwordHashing.verify(oldPassword, user.getPassword())
+                    .thenComposeAsync(verification -> {
+                        if (!verification.matches()) {
+                            return CompletableFuture.completedFuture(
+                                    ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid email or old password."));
+                        }
+                        // 2. Hash and update the new password
+                        return passwordHashing.encode(newPassword).<ResponseEntity<?>>thenApplyAsync(hash -> {
+                            user.setPassword(hash);
+                            userRepository.save(user);
+                            return ResponseEntity.ok("Password updated successfully! You can now log in with your new password.");
+                        }, executor);
+                    }, executor)
+                    .exceptionally(AuthController::failed);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(busy());
         }
-
-        // 2. Hash and update the new password
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userRepository.save(user);
-
-        return ResponseEntity.ok("Password updated successfully! You can now log in with your new password.");
     }
     // --- END NEW ENDPOINT ---
 
 
     // --- UPDATED REGISTRATION ENDPOINT ---
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@RequestBody RegisterRequest registerRequest) {
+    public CompletableFuture<ResponseEntity<?>> registerUser(@RequestBody RegisterRequest registerRequest) {
 
         if (userRepository.findByEmail(registerRequest.getEmail()).isPresent()) {
-            return ResponseEntity.badRequest().body("Error: Email is already in use!");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Error: Email is already in use!"));
         }
 
         User user = new User();
         user.setFullName(registerRequest.getFullName());
         user.setEmail(registerRequest.getEmail());
-        user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
         user.setContact(registerRequest.getContact());
         user.setLocation(registerRequest.getLocation());
 
@@ -101,35 +115,62 @@ public class AuthController {
             user.setRole(Role.USER);
         }
 
-        userRepository.save(user);
-
-        return ResponseEntity.ok("User registered successfully!");
+        try {
+            return passwordHashing.encode(registerRequest.getPassword())
+                    .<ResponseEntity<?>>thenApplyAsync(hash -> {
+                        user.setPassword(hash);
+                        userRepository.save(user);
+                        return ResponseEntity.ok("User registered successfully!");
+                    }, executor)
+                    .exceptionally(AuthController::failed);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(busy());
+        }
     }
 
-    // --- LOGIN ENDPOINT (Unchanged) ---
+    // --- LOGIN ENDPOINT ---
+    // Unknown email and wrong password get the same answer (and take as long)
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@RequestBody LoginRequest loginRequest) {
+        Optional<User> userOpt = userRepository.findByEmail(loginRequest.getEmail());
         try {
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword())
-            );
-
-            User user = userRepository.findByEmail(loginRequest.getEmail())
-                    .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-
-            String token = Jwts.builder()
-                    .setSubject(user.getEmail())
-                    .setIssuedAt(new Date())
-                    .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                    .signWith(jwtSecretKey, SignatureAlgorithm.HS512)
-                    .compact();
-
-            return ResponseEntity.ok(new LoginResponse(user.getEmail(), token, user.getRole().name()));
-
-        } catch (BadCredentialsException e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Error: Invalid credentials");
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: " + e.getMessage());
+            return passwordHashing.verify(loginRequest.getPassword(), userOpt.map(User::getPassword).orElse(null))
+                    .<ResponseEntity<?>>thenApplyAsync(verification -> {
+                        if (!verification.matches()) {
+                            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Error: Invalid credentials");
+                        }
+                        User user = userOpt.get();
+                        // Made with an older work factor: store it again at the current one
+                        if (verification.rehash() != null) {
+                            user.setPassword(verification.rehash());
+                            userRepository.save(user);
+                        }
+
+                        // The role goes into the token, so later requests don't need to look the user up
+                        String token = jwtTokenService.issue(user);
+
+                        return ResponseEntity.ok(new LoginResponse(user.getEmail(), token, user.getRole().name()));
+                    }, executor)
+                    .exceptionally(AuthController::failed);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(busy());
+        }
+    }
+
+    private static ResponseEntity<?> busy() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Error: Too many sign-ins right now, please try again in a moment.");
+    }
+
+    // The second hash of a password reset can also find the queue full. Anything else is
+    // logged here and answered without its message, which may describe the database.
+    private static ResponseEntity<?> failed(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RejectedExecutionException) {
+            return busy();
         }
+        log.error("Authentication request failed", cause);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: Something went wrong, please try again.");
     }
-}
\ No newline at end of file
+}
@@ -1,60 +1,90 @@
 package com.smartshelf.smartshelf.controller;
 
-import com.smartshelf.smartshelf.service.ForecastService;
+import com.smartshelf.smartshelf.dto.ForecastDTO;
+import com.smartshelf.smartshelf.dto.PageResponse;
+import com.smartshelf.smartshelf.service.ForecastSnapshotService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/forecast")
 public class ForecastController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     @Autowired
-    private ForecastService forecastService;
-
-    public static class ForecastDTO {
-        public Long productId;
-        public String productName;
-        public int currentStock;
-        public double predictedDemand;
-        public String status;
-
-        public ForecastDTO(Long productId, String productName, int currentStock, double predictedDemand, String status) {
-            this.productId = productId;
-            this.productName = productName;
-            this.currentStock = currentStock;
-            this.predictedDemand = predictedDemand;
-            this.status = status;
+    private ForecastSnapshotService forecastSnapshotService;
+
+    /**
+     * Served from the latest materialized snapshot: no forecasting happens on this request.
+     * The run id and generation time are sent as headers so the body stays a plain list.
+     * Optional status (e.g. "RESTOCK NEEDED") and category filters narrow the list.
+     */
+    @GetMapping
+    public ResponseEntity<List<ForecastDTO>> getForecast(@RequestParam(required = false) String status,
+                                                         @RequestParam(required = false) String category) {
+        ForecastSnapshotService.Snapshot snapshot = forecastSnapshotService.getLatest();
+        return ResponseEntity.ok()
+                .header("X-Forecast-Run-Id", String.valueOf(snapshot.runId()))
+                .header("X-Forecast-Generated-At", snapshot.generatedAt().toString())
+                .body(snapshot.filter(normalizeStatus(status), blankToNull(category)));
+    }
+
+    // Same filters, one page at a time (page is 0-based, size capped at 500)
+    @GetMapping("/page")
+    public ResponseEntity<PageResponse<ForecastDTO>> getForecastPage(@RequestParam(required = false) String status,
+                                                                     @RequestParam(required = false) String category,
+                                                                     @RequestParam(defaultValue = "0") int page,
+                                                                     @RequestParam(defaultValue = "50") int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
         }
+        ForecastSnapshotService.Snapshot snapshot = forecastSnapshotService.getLatest();
+        return ResponseEntity.ok()
+                .header("X-Forecast-Run-Id", String.valueOf(snapshot.runId()))
+                .body(PageResponse.of(snapshot.filter(normalizeStatus(status), blankToNull(category)), page, size));
     }
 
-    @GetMapping
-    public List<ForecastDTO> getForecast() {
-        // NOTICE: We are calling generateForecast(), NOT predictDemandForAllProducts()
-        List<ForecastService.ForecastResult> serviceResults = forecastService.generateForecast();
-
-        return serviceResults.stream()
-                .map(result -> new ForecastDTO(
-                        result.product.getId(),
-                        result.product.getProductName(),
-                        result.product.getQuantity(),
-                        result.predictedSalesNextWeek,
-                        mapRecommendationToStatus(result.recommendation)
-                ))
-                .collect(Collectors.toList());
+    // Forecast for a single SKU: a map lookup in the latest snapshot
+    @GetMapping("/{productId:\\d+}")
+    public ResponseEntity<ForecastDTO> getProductForecast(@PathVariable Long productId) {
+        return forecastSnapshotService.forecastFor(productId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Recomputes the forecast now instead of waiting for the next scheduled run
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, Object>> refresh() {
+        ForecastSnapshotService.Snapshot snapshot = forecastSnapshotService.refresh();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("runId", snapshot.runId());
+        body.put("generatedAt", snapshot.generatedAt());
+        body.put("durationMs", snapshot.durationMs());
+        body.put("products", snapshot.rows().size());
+        return ResponseEntity.ok(body);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
     }
 
-    private String mapRecommendationToStatus(String recommendation) {
-        if (recommendation.startsWith("RESTOCK")) {
-            return "RESTOCK NEEDED";
-        } else if (recommendation.startsWith("OVERSTOCKED")) {
-            return "OVERSTOCKED";
-        } else {
-            return "SUFFICIENT";
+    // Accepts "RESTOCK NEEDED", "restock_needed", "Restock-Needed"...
+    private static String normalizeStatus(String status) {
+        if (status == null || status.isBlank()) {
+            return null;
         }
+        return status.trim().replace('_', ' ').replace('-', ' ').toUpperCase(Locale.ROOT);
     }
-}
\ No newline at end of file
+}
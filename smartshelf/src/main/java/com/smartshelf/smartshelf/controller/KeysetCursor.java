@@ -0,0 +1,71 @@
+package com.smartshelf.smartshelf.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Opaque continuation tokens for keyset pagination.
+ *
+ * A token is the base64url form of the sort key of the last row on the previous page,
+ * either "t:epochSecond:nano:id" (time-ordered listings) or "i:id" (id-ordered listings).
+ * Clients must treat it as opaque; a malformed token is an IllegalArgumentException.
+ */
+final class KeysetCursor {
+
+    static final int DEFAULT_SIZE = 50;
+    static final int MAX_SIZE = 500;
+
+    // Sort key of a time-ordered row
+    record TimeKey(Instant time, long id) {}
+
+    private KeysetCursor() {}
+
+    static String encode(Instant time, long id) {
+        return encode("t:" + time.getEpochSecond() + ":" + time.getNano() + ":" + id);
+    }
+
+    static String encode(long id) {
+        return encode("i:" + id);
+    }
+
+    static TimeKey decodeTime(String cursor) {
+        String[] parts = decode(cursor, "t", 4);
+        try {
+            return new TimeKey(Instant.ofEpochSecond(Long.parseLong(parts[1]), Long.parseLong(parts[2])), Long.parseLong(parts[3]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Error: Invalid cursor!");
+        }
+    }
+
+    static long decodeId(String cursor) {
+        String[] parts = decode(cursor, "i", 2);
+        try {
+            return Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Error: Invalid cursor!");
+        }
+    }
+
+    static void checkSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Error: Page size must be between 1 and " + MAX_SIZE + "!");
+        }
+    }
+
+    private static String encode(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decode(String cursor, String kind, int partCount) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length == partCount && parts[0].equals(kind)) {
+                return parts;
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through
+        }
+        throw new IllegalArgumentException("Error: Invalid cursor!");
+    }
+}
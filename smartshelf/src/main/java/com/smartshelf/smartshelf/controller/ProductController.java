@@ -1,30 +1,86 @@
 package com.smartshelf.smartshelf.controller;
 
+import com.smartshelf.smartshelf.dto.CursorPage;
+import com.smartshelf.smartshelf.dto.PageResponse;
+import com.smartshelf.smartshelf.dto.ProductImportResult;
+import com.smartshelf.smartshelf.dto.ProductChangesResponse;
 import com.smartshelf.smartshelf.model.Product;
 import com.smartshelf.smartshelf.repository.ProductRepository;
+import com.smartshelf.smartshelf.service.ProductCache;
+import com.smartshelf.smartshelf.service.ProductChangeService;
+import com.smartshelf.smartshelf.service.ProductImportService;
+import com.smartshelf.smartshelf.service.ProductSearchIndex;
+import com.smartshelf.smartshelf.service.StockRiskIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
     private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ProductSearchIndex searchIndex;
+    private final ProductChangeService changeService;
+    private final ProductImportService importService;
+    private final StockRiskIndex stockRiskIndex;
+
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    // The index keeps offset + size hits while ranking, so deep pages are refused
+    private static final int MAX_SEARCH_RESULTS = 10_000;
+    private static final int MAX_CHANGES = 1000;
+    private static final int MAX_AT_RISK = 100;
 
     @Autowired
-    public ProductController(ProductRepository productRepository) {
+    public ProductController(ProductRepository productRepository, ProductCache productCache,
+                             ProductSearchIndex searchIndex, ProductChangeService changeService,
+                             ProductImportService importService, StockRiskIndex stockRiskIndex) {
         this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.searchIndex = searchIndex;
+        this.changeService = changeService;
+        this.importService = importService;
+        this.stockRiskIndex = stockRiskIndex;
     }
 
-    // --- CREATE (Unchanged) ---
-    // This method already works because it saves the entire `product` object,
-    // which will include the new `imageUrl` field from the request.
+    // --- CREATE ---
+    // Saves the entire `product` object (including `imageUrl`) with a new change version
     @PostMapping
     public Product createProduct(@RequestBody Product product) {
-        return productRepository.save(product);
+        Product saved = changeService.create(product);
+        searchIndex.put(saved);
+        stockRiskIndex.put(saved);
+        return saved;
+    }
+
+    // --- BULK IMPORT ---
+    // Streams a CSV (text/csv, with a header line) or JSON (array or one object per line) upload.
+    // Rows with an id update that product; the result lists every rejected row.
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ResponseEntity<?> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                            InputStream body) throws IOException {
+        ProductImportService.Format format = contentType.toLowerCase().contains("csv")
+                ? ProductImportService.Format.CSV
+                : ProductImportService.Format.JSON;
+        try {
+            ProductImportResult result = importService.importProducts(body, format);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     // --- UPDATED READ (Get All) ---
@@ -39,40 +95,134 @@ public class ProductController {
         return productRepository.findWithFilters(category, supplier, maxStock);
     }
 
+    // --- READ (One page at a time) ---
+    // Same filters as above, keyset-paginated by id so deep pages cost the same as the first
+    @GetMapping("/page")
+    public ResponseEntity<?> getProductPage(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String supplier,
+            @RequestParam(required = false) Integer maxStock,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String cursor
+    ) {
+        try {
+            KeysetCursor.checkSize(size);
+            long afterId = cursor == null || cursor.isBlank() ? 0 : KeysetCursor.decodeId(cursor);
+            // One extra row tells us whether there is a next page
+            List<Product> rows = productRepository.findPageWithFilters(afterId, category, supplier, maxStock, Limit.of(size + 1));
+
+            String next = null;
+            if (rows.size() > size) {
+                rows = rows.subList(0, size);
+                next = KeysetCursor.encode(rows.get(size - 1).getId());
+            }
+            return ResponseEntity.ok(new CursorPage<>(rows, next));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // --- DELTA SYNC ---
+    // Products created/edited/restocked/sold and ids deleted since the client's last version.
+    // Start with since=0 (the whole catalogue), then send back the returned version.
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit
+    ) {
+        if (limit < 1 || limit > MAX_CHANGES) {
+            return ResponseEntity.badRequest().body("Error: Limit must be between 1 and " + MAX_CHANGES + "!");
+        }
+        try {
+            ProductChangesResponse changes = changeService.changesSince(since, limit);
+            return ResponseEntity.ok(changes);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    // --- SEARCH (name, category and supplier; prefix and typo tolerant) ---
+    // Ranked in memory by ProductSearchIndex; only the products on the requested page are loaded
+    @GetMapping("/search")
+    public ResponseEntity<?> searchProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        if (page < 0 || size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("Error: Page must be >= 0 and size between 1 and " + MAX_SEARCH_PAGE_SIZE + "!");
+        }
+        long offset = (long) page * size;
+        if (offset + size > MAX_SEARCH_RESULTS) {
+            return ResponseEntity.badRequest().body("Error: Search results stop at " + MAX_SEARCH_RESULTS + ", refine the query!");
+        }
+        ProductSearchIndex.Result result = searchIndex.search(q, (int) offset, size);
+
+        Map<Long, Product> byId = new HashMap<>();
+        for (Product product : productRepository.findAllById(result.hits().stream().map(ProductSearchIndex.Hit::productId).toList())) {
+            byId.put(product.getId(), product);
+        }
+        List<Product> content = result.hits().stream()
+                .map(hit -> byId.get(hit.productId()))
+                .filter(product -> product != null) // deleted between the search and the load
+                .toList();
+        return ResponseEntity.ok(new PageResponse<>(content, page, size, result.total()));
+    }
+
+    // --- AT RISK (which products run out first) ---
+    // Fewest days of cover first, from StockRiskIndex; withinDays keeps only those running out by then
+    @GetMapping("/at-risk")
+    public ResponseEntity<?> getAtRiskProducts(
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) Double withinDays
+    ) {
+        if (limit < 1 || limit > MAX_AT_RISK) {
+            return ResponseEntity.badRequest().body("Error: Limit must be between 1 and " + MAX_AT_RISK + "!");
+        }
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (StockRiskIndex.AtRisk entry : stockRiskIndex.atRisk(limit, withinDays)) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("productId", entry.productId());
+            data.put("productName", productCache.findById(entry.productId()).map(Product::getProductName).orElse(null));
+            data.put("stock", entry.stock());
+            data.put("dailyDemand", Math.round(entry.dailyDemand() * 100.0) / 100.0);
+            data.put("daysOfCover", Math.round(entry.daysOfCover() * 10.0) / 10.0);
+            data.put("stockOutDate", entry.stockOutDate());
+            result.add(data);
+        }
+        return ResponseEntity.ok(result);
+    }
+
     // --- READ (Get One by ID) (Unchanged) ---
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        return productRepository.findById(id)
+        return productCache.findById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    // --- UPDATE (THIS IS THE UPDATED METHOD) ---
+    // --- UPDATE ---
+    // Name, category, quantity, price, supplier and imageUrl are copied onto the stored product
     @PutMapping("/{id}")
     public ResponseEntity<Product> updateProduct(@PathVariable Long id, @RequestBody Product productDetails) {
-        return productRepository.findById(id)
-                .map(product -> {
-                    product.setProductName(productDetails.getProductName());
-                    product.setCategory(productDetails.getCategory());
-                    product.setQuantity(productDetails.getQuantity());
-                    product.setPrice(productDetails.getPrice());
-                    product.setSupplier(productDetails.getSupplier());
-
-                    // --- THIS IS THE NEW LINE ---
-                    product.setImageUrl(productDetails.getImageUrl());
-
-                    Product updatedProduct = productRepository.save(product);
+        return changeService.update(id, productDetails)
+                .map(updatedProduct -> {
+                    productCache.invalidate(id);
+                    searchIndex.put(updatedProduct);
+                    stockRiskIndex.put(updatedProduct);
                     return ResponseEntity.ok(updatedProduct);
                 }).orElse(ResponseEntity.notFound().build());
     }
 
-    // --- DELETE (Unchanged) ---
+    // --- DELETE (leaves a tombstone for /changes) ---
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteProduct(@PathVariable Long id) {
-        return productRepository.findById(id)
-                .map(product -> {
-                    productRepository.delete(product);
-                    return ResponseEntity.ok().build();
-                }).orElse(ResponseEntity.notFound().build());
+        if (!changeService.delete(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        productCache.invalidate(id);
+        searchIndex.remove(id);
+        stockRiskIndex.remove(id);
+        return ResponseEntity.ok().build();
     }
 }
\ No newline at end of file
@@ -1,9 +1,18 @@
 package com.smartshelf.smartshelf.controller;
 
+import com.smartshelf.smartshelf.dto.BulkPurchaseOrderRequest;
+import com.smartshelf.smartshelf.dto.BulkPurchaseOrderResponse;
+import com.smartshelf.smartshelf.dto.CursorPage;
+import com.smartshelf.smartshelf.dto.PurchaseOrderSummary;
+import com.smartshelf.smartshelf.model.OrderStatus;
 import com.smartshelf.smartshelf.model.Product;
 import com.smartshelf.smartshelf.model.PurchaseOrder;
-import com.smartshelf.smartshelf.repository.ProductRepository;
 import com.smartshelf.smartshelf.repository.PurchaseOrderRepository;
+import com.smartshelf.smartshelf.service.AutoRestockService;
+import com.smartshelf.smartshelf.service.InventoryService;
+import com.smartshelf.smartshelf.service.ProductCache;
+import com.smartshelf.smartshelf.service.PurchaseOrderBulkService;
+import org.springframework.data.domain.Limit;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -12,6 +21,7 @@ import org.springframework.web.bind.annotation.*;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 // --- CRITICAL FIX: IMPORT THE NEW DTO from the DTO package ---
 import com.smartshelf.smartshelf.dto.PurchaseOrderRequest; // This is the single, correct reference
@@ -29,7 +39,16 @@ public class PurchaseOrderController {
     private PurchaseOrderRepository poRepository;
 
     @Autowired
-    private ProductRepository productRepository;
+    private ProductCache productCache;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private AutoRestockService autoRestockService;
+
+    @Autowired
+    private PurchaseOrderBulkService bulkService;
 
     // 1. Get all Purchase Orders
     @GetMapping
@@ -37,10 +56,71 @@ public class PurchaseOrderController {
         return poRepository.findAllByOrderByCreatedAtDesc();
     }
 
+    // 1b. Get Purchase Orders one page at a time, newest first (keyset pagination on createdAt, id)
+    @GetMapping("/page")
+    public ResponseEntity<?> getPurchaseOrderPage(@RequestParam(defaultValue = "50") int size,
+                                                  @RequestParam(required = false) String cursor) {
+        try {
+            KeysetCursor.checkSize(size);
+            Limit limit = Limit.of(size + 1); // one extra row tells us whether there is a next page
+            List<PurchaseOrder> rows;
+            if (cursor == null || cursor.isBlank()) {
+                rows = poRepository.findPage(limit);
+            } else {
+                KeysetCursor.TimeKey after = KeysetCursor.decodeTime(cursor);
+                rows = poRepository.findPageAfter(after.time(), after.id(), limit);
+            }
+
+            String next = null;
+            if (rows.size() > size) {
+                rows = rows.subList(0, size);
+                PurchaseOrder last = rows.get(size - 1);
+                next = KeysetCursor.encode(last.getCreatedAt(), last.getId());
+            }
+            return ResponseEntity.ok(new CursorPage<>(rows, next));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // 1c. Lightweight PO list for RestockRequestsPage: summary rows (no product graph), newest first,
+    //     optionally only one status, keyset-paginated like /page
+    @GetMapping("/summary")
+    public ResponseEntity<?> getPurchaseOrderSummaries(@RequestParam(required = false) String status,
+                                                       @RequestParam(defaultValue = "50") int size,
+                                                       @RequestParam(required = false) String cursor) {
+        try {
+            KeysetCursor.checkSize(size);
+            OrderStatus wanted = parseStatus(status);
+            Limit limit = Limit.of(size + 1);
+            KeysetCursor.TimeKey after = cursor == null || cursor.isBlank() ? null : KeysetCursor.decodeTime(cursor);
+            List<PurchaseOrderSummary> rows;
+            if (wanted == null) {
+                rows = after == null
+                        ? poRepository.findSummaryPage(limit)
+                        : poRepository.findSummaryPageAfter(after.time(), after.id(), limit);
+            } else {
+                rows = after == null
+                        ? poRepository.findSummaryPageByStatus(wanted, limit)
+                        : poRepository.findSummaryPageByStatusAfter(wanted, after.time(), after.id(), limit);
+            }
+
+            String next = null;
+            if (rows.size() > size) {
+                rows = rows.subList(0, size);
+                PurchaseOrderSummary last = rows.get(size - 1);
+                next = KeysetCursor.encode(last.createdAt, last.id);
+            }
+            return ResponseEntity.ok(new CursorPage<>(rows, next));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     // 2. Create a new PENDING Purchase Order
     @PostMapping
     public ResponseEntity<PurchaseOrder> createPurchaseOrder(@RequestBody PurchaseOrderRequest poRequest) {
-        Optional<Product> productOpt = productRepository.findById(poRequest.productId);
+        Optional<Product> productOpt = productCache.findById(poRequest.productId);
 
         // Return 400 Bad Request if product ID is invalid
         if (productOpt.isEmpty()) {
@@ -95,14 +175,50 @@ public class PurchaseOrderController {
         }
 
         // --- CRITICAL: UPDATE THE INVENTORY ---
-        Product product = po.getProduct();
-        int newQuantity = product.getQuantity() + po.getQuantity();
-        product.setQuantity(newQuantity);
-        productRepository.save(product);
-        // --- INVENTORY UPDATED ---
+        // Guarded status flip and atomic "quantity = quantity + ?", in one transaction.
+        // Empty if another request received (or changed) the order since we read it.
+        return inventoryService.receive(po)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
 
-        po.setStatus(RECEIVED);
-        PurchaseOrder updatedPO = poRepository.save(po);
-        return ResponseEntity.ok(updatedPO);
+    // 4b. Approve many PENDING orders at once: {"ids": [1, 2, 3]}. Returns an outcome per id.
+    @PutMapping("/bulk/approve")
+    public ResponseEntity<?> approvePurchaseOrders(@RequestBody BulkPurchaseOrderRequest request) {
+        return bulk(() -> bulkService.approveAll(request.getIds()));
+    }
+
+    // 4c. Receive many APPROVED/ORDERED orders at once (e.g. a whole delivery), stock included
+    @PutMapping("/bulk/receive")
+    public ResponseEntity<?> receivePurchaseOrders(@RequestBody BulkPurchaseOrderRequest request) {
+        return bulk(() -> bulkService.receiveAll(request.getIds()));
+    }
+
+    // 5. Run the auto-restock engine now: creates PENDING POs for everything below its reorder point
+    @PostMapping("/auto-restock")
+    public ResponseEntity<AutoRestockService.RunResult> runAutoRestock() {
+        return ResponseEntity.ok(autoRestockService.run());
+    }
+
+    // 400 for a bad id list, 409 if some POs changed while the request ran (nothing is applied then)
+    private static ResponseEntity<?> bulk(Supplier<BulkPurchaseOrderResponse> action) {
+        try {
+            return ResponseEntity.ok(action.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    private static OrderStatus parseStatus(String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        try {
+            return OrderStatus.valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Error: Unknown status!");
+        }
     }
-}
\ No newline at end of file
+}
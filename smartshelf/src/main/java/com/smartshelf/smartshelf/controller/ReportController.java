@@ -1,18 +1,23 @@
 package com.smartshelf.smartshelf.controller;
 
-import com.smartshelf.smartshelf.model.Sales;
-import com.smartshelf.smartshelf.model.PurchaseOrder;
-import com.smartshelf.smartshelf.model.OrderStatus;
-import com.smartshelf.smartshelf.repository.SalesRepository;
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.repository.ProductRepository;
 import com.smartshelf.smartshelf.repository.PurchaseOrderRepository;
+import com.smartshelf.smartshelf.repository.PurchaseSupplierMonthlyRollupRepository;
+import com.smartshelf.smartshelf.repository.SalesCategoryMonthlyRollupRepository;
+import com.smartshelf.smartshelf.repository.SalesDailyRollupRepository;
+import com.smartshelf.smartshelf.service.SalesRollupService;
+import com.smartshelf.smartshelf.service.TopProductsTracker;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.http.ResponseEntity;
 
-import java.time.Instant;
-import java.time.ZoneId;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -22,10 +27,22 @@ import java.util.stream.Collectors;
 public class ReportController {
 
     @Autowired
-    private SalesRepository salesRepository;
+    private SalesDailyRollupRepository dailyRollupRepository;
 
     @Autowired
-    private PurchaseOrderRepository poRepository;
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SalesCategoryMonthlyRollupRepository categoryRollupRepository;
+
+    @Autowired
+    private PurchaseSupplierMonthlyRollupRepository supplierRollupRepository;
+
+    @Autowired
+    private SalesRollupService rollupService;
+
+    @Autowired
+    private TopProductsTracker topProductsTracker;
 
     // Formatter to group sales/purchases by month (e.g., Nov 2025)
     private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("MMM yyyy");
@@ -37,103 +54,128 @@ public class ReportController {
         public Map<String, Double> supplierPurchaseCosts;
     }
 
+    /**
+     * Served from the rollup tables (see SalesRollupService), so a page view sums a few
+     * hundred pre-aggregated rows instead of every sale and purchase order ever recorded.
+     * New sales show up once the catch-up job has run.
+     */
     @GetMapping("/analytics")
     public ResponseEntity<AnalyticsDTO> getAnalyticsData() {
         AnalyticsDTO dto = new AnalyticsDTO();
 
-        // Fetch all necessary data
-        List<Sales> allSales = salesRepository.findAll();
-        List<PurchaseOrder> receivedPOs = poRepository.findAll().stream()
-                .filter(po -> po.getStatus() == OrderStatus.RECEIVED) // Only count completed/received orders
-                .collect(Collectors.toList());
-
-        // 1. Monthly Sales vs. Purchases (Bar Chart Data)
-        Map<String, Double> monthlySales = aggregateSalesByMonth(allSales);
-        Map<String, Double> monthlyPurchases = aggregatePurchasesByMonth(receivedPOs);
+        // 1. Monthly Sales vs. Purchases (Bar Chart Data). Only RECEIVED POs count as purchases.
+        Map<YearMonth, Double> monthlySales = new TreeMap<>();
+        for (SalesCategoryMonthlyRollupRepository.MonthTotalView row : categoryRollupRepository.sumRevenueByMonth()) {
+            monthlySales.put(YearMonth.from(row.getMonthStart()), row.getTotal());
+        }
+        Map<YearMonth, Double> monthlyPurchases = new TreeMap<>();
+        for (SalesCategoryMonthlyRollupRepository.MonthTotalView row : supplierRollupRepository.sumCostByMonth()) {
+            monthlyPurchases.put(YearMonth.from(row.getMonthStart()), row.getTotal());
+        }
         dto.monthlySalesVsPurchases = createCombinedMonthlyData(monthlySales, monthlyPurchases);
 
         // 2. Top Selling Products (Pie Chart Data)
-        dto.topProductsByRevenue = aggregateTopProducts(allSales, 5);
+        dto.topProductsByRevenue = aggregateTopProducts(5);
 
         // 3. Supplier Performance Costs (Used on Supplier Management Page)
-        dto.supplierPurchaseCosts = aggregateSupplierCosts(receivedPOs);
+        dto.supplierPurchaseCosts = aggregateSupplierCosts();
 
         return ResponseEntity.ok(dto);
     }
 
     /**
-     * Aggregates total purchase cost (Product Price * Quantity) for all RECEIVED POs, grouped by supplier name.
+     * Best sellers for a window (day, week, month or all) by revenue or units.
+     * Each entry carries maxError: the value may overstate the true total by at most that much
+     * (it is 0 unless more products sold in the window than the tracker keeps counters for).
      */
-    private Map<String, Double> aggregateSupplierCosts(List<PurchaseOrder> receivedPOs) {
-        return receivedPOs.stream()
-                .collect(Collectors.groupingBy(
-                        po -> po.getProduct().getSupplier(), // Group by the supplier name stored in the Product
-                        Collectors.summingDouble(po -> {
-                            // Use a fallback to 0 if price or quantity is unexpectedly null/zero, although fields are non-nullable
-                            double price = po.getProduct() != null ? po.getProduct().getPrice() : 0.0;
-                            int quantity = po.getQuantity();
-                            return price * quantity;
-                        })
-                ))
-                .entrySet().stream()
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        entry -> Math.round(entry.getValue() * 100.0) / 100.0 // Round to two decimal places
-                ));
+    @GetMapping("/top-products")
+    public ResponseEntity<?> getTopProducts(@RequestParam(defaultValue = "all") String window,
+                                            @RequestParam(defaultValue = "revenue") String metric,
+                                            @RequestParam(defaultValue = "10") int limit) {
+        TopProductsTracker.Window w;
+        TopProductsTracker.Metric m;
+        try {
+            w = TopProductsTracker.Window.valueOf(window.toUpperCase());
+            m = TopProductsTracker.Metric.valueOf(metric.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Error: Unknown window or metric!"));
+        }
+        if (limit < 1 || limit > topProductsTracker.getMaxN()) {
+            return ResponseEntity.badRequest().body(Map.of("message",
+                    "Error: Limit must be between 1 and " + topProductsTracker.getMaxN() + "!"));
+        }
+
+        List<TopProductsTracker.TopEntry> top = topProductsTracker.top(w, m, limit);
+        Map<Long, String> names = productNames(top);
+        List<Map<String, Object>> result = new ArrayList<>(top.size());
+        for (TopProductsTracker.TopEntry entry : top) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("productId", entry.productId());
+            data.put("name", names.get(entry.productId()));
+            data.put("value", round2(entry.value()));
+            data.put("maxError", round2(entry.maxError()));
+            result.add(data);
+        }
+        return ResponseEntity.ok(result);
     }
 
-    private Map<String, Double> aggregateSalesByMonth(List<Sales> sales) {
-        return sales.stream()
-                .collect(Collectors.groupingBy(
-                        sale -> MONTH_FORMATTER.format(sale.getSaleDate().atZone(ZoneId.systemDefault())),
-                        // FIX 1: Access price via sale.getProduct().getPrice()
-                        Collectors.summingDouble(sale -> sale.getProduct().getPrice() * sale.getQuantitySold())
-                ));
+    // Recomputes the rollup tables from the full sales and purchase order history
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Map<String, String>> rebuildRollups() {
+        rollupService.rebuild();
+        return ResponseEntity.ok(Map.of("message", "Analytics rollups rebuilt."));
     }
 
-    private Map<String, Double> aggregatePurchasesByMonth(List<PurchaseOrder> receivedPOs) {
-        return receivedPOs.stream()
-                .collect(Collectors.groupingBy(
-                        po -> MONTH_FORMATTER.format(po.getCreatedAt().atZone(ZoneId.systemDefault())),
-                        Collectors.summingDouble(po -> po.getProduct().getPrice() * po.getQuantity()) // Estimate Purchase cost
+    /**
+     * Total purchase cost (Product Price * Quantity) for all RECEIVED POs, grouped by supplier name.
+     */
+    private Map<String, Double> aggregateSupplierCosts() {
+        return supplierRollupRepository.sumCostBySupplier().stream()
+                .collect(Collectors.toMap(
+                        PurchaseOrderRepository.SupplierCostView::getSupplier,
+                        row -> round2(row.getCost()) // Round to two decimal places
                 ));
     }
 
-    private List<Map<String, Object>> createCombinedMonthlyData(Map<String, Double> sales, Map<String, Double> purchases) {
-        Set<String> allMonths = new HashSet<>();
+    // Months come out in chronological order (both maps are sorted by YearMonth)
+    private List<Map<String, Object>> createCombinedMonthlyData(Map<YearMonth, Double> sales, Map<YearMonth, Double> purchases) {
+        SortedSet<YearMonth> allMonths = new TreeSet<>();
         allMonths.addAll(sales.keySet());
         allMonths.addAll(purchases.keySet());
 
-        // This sorting is crude (string comparison) but better than random ordering
         return allMonths.stream()
                 .map(month -> {
                     Map<String, Object> data = new HashMap<>();
-                    data.put("month", month);
-                    data.put("SalesRevenue", Math.round(sales.getOrDefault(month, 0.0) * 100.0) / 100.0);
-                    data.put("PurchaseCost", Math.round(purchases.getOrDefault(month, 0.0) * 100.0) / 100.0);
+                    data.put("month", MONTH_FORMATTER.format(month));
+                    data.put("SalesRevenue", round2(sales.getOrDefault(month, 0.0)));
+                    data.put("PurchaseCost", round2(purchases.getOrDefault(month, 0.0)));
                     return data;
                 })
-                .sorted((a, b) -> ((String) a.get("month")).compareTo((String) b.get("month")))
                 .collect(Collectors.toList());
     }
 
-    private List<Map<String, Object>> aggregateTopProducts(List<Sales> sales, int limit) {
-        Map<String, Double> productRevenue = sales.stream()
-                .collect(Collectors.groupingBy(
-                        sale -> sale.getProduct().getProductName(),
-                        // FIX 2: Access price via sale.getProduct().getPrice()
-                        Collectors.summingDouble(sale -> sale.getProduct().getPrice() * sale.getQuantitySold())
-                ));
-
-        return productRevenue.entrySet().stream()
-                .sorted(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder()))
-                .limit(limit)
-                .map(entry -> {
+    private List<Map<String, Object>> aggregateTopProducts(int limit) {
+        // Sorted and limited in SQL: only `limit` rows come back
+        return dailyRollupRepository.sumRevenueByProduct(PageRequest.of(0, limit)).stream()
+                .map(row -> {
                     Map<String, Object> data = new HashMap<>();
-                    data.put("name", entry.getKey());
-                    data.put("value", Math.round(entry.getValue() * 100.0) / 100.0);
+                    data.put("name", row.getProductName());
+                    data.put("value", round2(row.getRevenue()));
                     return data;
                 })
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    private Map<Long, String> productNames(List<TopProductsTracker.TopEntry> top) {
+        List<Long> ids = top.stream().map(TopProductsTracker.TopEntry::productId).toList();
+        Map<Long, String> names = new HashMap<>();
+        for (Product product : productRepository.findAllById(ids)) {
+            names.put(product.getId(), product.getProductName());
+        }
+        return names;
+    }
+
+    private static double round2(Double value) {
+        return value == null ? 0.0 : Math.round(value * 100.0) / 100.0;
+    }
+}
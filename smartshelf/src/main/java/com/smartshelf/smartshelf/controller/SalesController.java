@@ -1,33 +1,54 @@
 package com.smartshelf.smartshelf.controller;
 
+import com.smartshelf.smartshelf.dto.BatchSalesRequest;
+import com.smartshelf.smartshelf.dto.BatchSalesResponse;
+import com.smartshelf.smartshelf.dto.CursorPage;
 import com.smartshelf.smartshelf.dto.SalesRequest;
 import com.smartshelf.smartshelf.dto.SalesResponse;
-import com.smartshelf.smartshelf.model.Product;
 import com.smartshelf.smartshelf.model.Sales;
-import com.smartshelf.smartshelf.repository.ProductRepository;
 import com.smartshelf.smartshelf.repository.SalesRepository;
+import com.smartshelf.smartshelf.service.SalesExportService;
+import com.smartshelf.smartshelf.service.SalesJournalService;
+import com.smartshelf.smartshelf.service.SalesService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDate; // <<< ADDED
 import java.time.ZoneId; // <<< ADDED
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/sales")
 public class SalesController {
 
+    // Bounds used when the report page is requested without a date range
+    private static final Instant REPORT_MIN = Instant.EPOCH;
+    private static final Instant REPORT_MAX = Instant.parse("9999-01-01T00:00:00Z");
+
     private final SalesRepository salesRepository;
-    private final ProductRepository productRepository;
+    private final SalesService salesService;
+    private final Optional<SalesJournalService> salesJournalService; // present only in journal ingest mode
+    private final SalesExportService salesExportService;
 
     @Autowired
-    public SalesController(SalesRepository salesRepository, ProductRepository productRepository) {
+    public SalesController(SalesRepository salesRepository,
+                           SalesService salesService,
+                           Optional<SalesJournalService> salesJournalService,
+                           SalesExportService salesExportService) {
         this.salesRepository = salesRepository;
-        this.productRepository = productRepository;
+        this.salesService = salesService;
+        this.salesJournalService = salesJournalService;
+        this.salesExportService = salesExportService;
     }
 
     /**
@@ -35,33 +56,33 @@ public class SalesController {
      */
     @PostMapping
     public ResponseEntity<?> recordSale(@RequestBody SalesRequest salesRequest) {
+        try {
+            // Write-behind mode: stock is taken now, the sales row is journaled and inserted later
+            if (salesJournalService.isPresent()) {
+                SalesResponse accepted = salesJournalService.get()
+                        .recordSale(salesRequest.getProductId(), salesRequest.getQuantitySold());
+                return ResponseEntity.accepted().body(accepted);
+            }
 
-        // 1. Find the product
-        Product product = productRepository.findById(salesRequest.getProductId())
-                .orElse(null);
-
-        if (product == null) {
-            return ResponseEntity.badRequest().body("Error: Product not found!");
+            // Stock check + decrement + sales insert happen atomically in the service
+            Sales savedSale = salesService.recordSale(salesRequest.getProductId(), salesRequest.getQuantitySold());
+            return ResponseEntity.ok(savedSale);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
+    }
 
-        // 2. Check if there is enough stock
-        if (product.getQuantity() < salesRequest.getQuantitySold()) {
-            return ResponseEntity.badRequest().body("Error: Not enough stock!");
+    /**
+     * Records a whole cart in one request and one transaction (all-or-nothing).
+     * Returns 400 with the per-line results if any line is rejected.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchSalesResponse> recordBatchSale(@RequestBody BatchSalesRequest batchRequest) {
+        BatchSalesResponse result = salesService.recordBatch(batchRequest.getItems());
+        if (!result.isSuccess()) {
+            return ResponseEntity.badRequest().body(result);
         }
-
-        // 3. Update the product's quantity
-        int newQuantity = product.getQuantity() - salesRequest.getQuantitySold();
-        product.setQuantity(newQuantity);
-        productRepository.save(product); // Save the updated product
-
-        // 4. Create and save the new sales record
-        Sales newSale = new Sales();
-        newSale.setProduct(product);
-        newSale.setQuantitySold(salesRequest.getQuantitySold());
-        newSale.setSaleDate(Instant.now()); // Ensure sale date is recorded
-
-        Sales savedSale = salesRepository.save(newSale);
-        return ResponseEntity.ok(savedSale);
+        return ResponseEntity.ok(result);
     }
 
     /**
@@ -91,4 +112,77 @@ public class SalesController {
                     .collect(Collectors.toList());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * The sales report one page at a time, newest first (keyset pagination on saleDate, id).
+     * Every page costs the same no matter how deep the client has paged.
+     */
+    @GetMapping("/report/page")
+    public ResponseEntity<?> getSalesReportPage(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String cursor
+    ) {
+        try {
+            KeysetCursor.checkSize(size);
+            Instant start = startDate == null ? REPORT_MIN : startDate.atStartOfDay(ZoneId.systemDefault()).toInstant();
+            Instant end = endDate == null ? REPORT_MAX : endDate.atStartOfDay(ZoneId.systemDefault()).plusDays(1).minusNanos(1).toInstant();
+
+            // One extra row tells us whether there is a next page
+            Limit limit = Limit.of(size + 1);
+            List<Sales> rows;
+            if (cursor == null || cursor.isBlank()) {
+                rows = salesRepository.findReportPage(start, end, limit);
+            } else {
+                KeysetCursor.TimeKey after = KeysetCursor.decodeTime(cursor);
+                rows = salesRepository.findReportPageAfter(start, after.time(), after.id(), limit);
+            }
+
+            String next = null;
+            if (rows.size() > size) {
+                rows = rows.subList(0, size);
+                Sales last = rows.get(size - 1);
+                next = KeysetCursor.encode(last.getSaleDate(), last.getId());
+            }
+            List<SalesResponse> items = rows.stream().map(SalesResponse::new).collect(Collectors.toList());
+            return ResponseEntity.ok(new CursorPage<>(items, next));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Streams the sales report as CSV (default) or NDJSON, straight from a database cursor.
+     * Same optional date range as /report, but memory use doesn't depend on how many rows match.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportSales(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) {
+        SalesExportService.Format exportFormat;
+        MediaType mediaType;
+        if (format.equalsIgnoreCase("csv")) {
+            exportFormat = SalesExportService.Format.CSV;
+            mediaType = new MediaType("text", "csv", StandardCharsets.UTF_8);
+        } else if (format.equalsIgnoreCase("ndjson")) {
+            exportFormat = SalesExportService.Format.NDJSON;
+            mediaType = MediaType.APPLICATION_NDJSON;
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Same day boundaries as getSalesReport
+        Instant start = startDate == null ? null : startDate.atStartOfDay(ZoneId.systemDefault()).toInstant();
+        Instant end = endDate == null ? null : endDate.atStartOfDay(ZoneId.systemDefault()).plusDays(1).minusNanos(1).toInstant();
+
+        StreamingResponseBody body = out -> salesExportService.export(start, end, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"sales-report." + format.toLowerCase() + "\"")
+                .body(body);
+    }
+}
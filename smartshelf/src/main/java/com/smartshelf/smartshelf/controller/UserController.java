@@ -3,6 +3,7 @@ package com.smartshelf.smartshelf.controller;
 import com.smartshelf.smartshelf.model.Role;
 import com.smartshelf.smartshelf.model.User;
 import com.smartshelf.smartshelf.repository.UserRepository;
+import com.smartshelf.smartshelf.service.TokenRevocationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,6 +17,9 @@ public class UserController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TokenRevocationService revocationService;
+
     // Get all users (for Admin dashboard)
     @GetMapping
     public List<User> getAllUsers() {
@@ -28,6 +32,7 @@ public class UserController {
         return userRepository.findById(id).map(user -> {
             user.setRole(Role.STORE_MANAGER);
             userRepository.save(user);
+            revocationService.revoke(user); // Their current token still says USER
             return ResponseEntity.ok("User promoted to STORE_MANAGER successfully.");
         }).orElse(ResponseEntity.notFound().build());
     }
@@ -38,6 +43,7 @@ public class UserController {
         return userRepository.findById(id).map(user -> {
             user.setRole(Role.USER);
             userRepository.save(user);
+            revocationService.revoke(user); // Their current token still says STORE_MANAGER
             return ResponseEntity.ok("User demoted to USER successfully.");
         }).orElse(ResponseEntity.notFound().build());
     }
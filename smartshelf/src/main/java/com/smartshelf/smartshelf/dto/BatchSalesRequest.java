@@ -0,0 +1,19 @@
+package com.smartshelf.smartshelf.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A whole shopping cart submitted at checkout: one SalesRequest per cart line.
+public class BatchSalesRequest {
+    private List<SalesRequest> items = new ArrayList<>();
+
+    // --- Getters and Setters ---
+
+    public List<SalesRequest> getItems() {
+        return items;
+    }
+
+    public void setItems(List<SalesRequest> items) {
+        this.items = items;
+    }
+}
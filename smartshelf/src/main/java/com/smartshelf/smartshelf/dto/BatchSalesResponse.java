@@ -0,0 +1,67 @@
+package com.smartshelf.smartshelf.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a batch checkout. The batch is all-or-nothing:
+ * if any line fails, success is false and nothing was written.
+ */
+public class BatchSalesResponse {
+    private boolean success;
+    private String message;
+    private List<LineResult> lines = new ArrayList<>();
+
+    // Outcome of a single cart line
+    public static class LineResult {
+        private Long productId;
+        private int quantitySold;
+        private String status; // OK, PRODUCT_NOT_FOUND, INSUFFICIENT_STOCK, INVALID_QUANTITY
+        private Integer remainingStock;
+
+        public LineResult() {}
+
+        public LineResult(Long productId, int quantitySold, String status, Integer remainingStock) {
+            this.productId = productId;
+            this.quantitySold = quantitySold;
+            this.status = status;
+            this.remainingStock = remainingStock;
+        }
+
+        public Long getProductId() { return productId; }
+        public int getQuantitySold() { return quantitySold; }
+        public String getStatus() { return status; }
+        public Integer getRemainingStock() { return remainingStock; }
+
+        public void setProductId(Long productId) { this.productId = productId; }
+        public void setQuantitySold(int quantitySold) { this.quantitySold = quantitySold; }
+        public void setStatus(String status) { this.status = status; }
+        public void setRemainingStock(Integer remainingStock) { this.remainingStock = remainingStock; }
+    }
+
+    // --- Getters and Setters ---
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public List<LineResult> getLines() {
+        return lines;
+    }
+
+    public void setLines(List<LineResult> lines) {
+        this.lines = lines;
+    }
+}
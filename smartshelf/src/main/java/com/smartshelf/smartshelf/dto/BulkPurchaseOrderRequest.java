@@ -0,0 +1,19 @@
+package com.smartshelf.smartshelf.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// The purchase orders to approve or receive in one go (e.g. every line on a delivery).
+public class BulkPurchaseOrderRequest {
+    private List<Long> ids = new ArrayList<>();
+
+    // --- Getters and Setters ---
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+}
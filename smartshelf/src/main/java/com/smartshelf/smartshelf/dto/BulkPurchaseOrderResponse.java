@@ -0,0 +1,56 @@
+package com.smartshelf.smartshelf.dto;
+
+import com.smartshelf.smartshelf.model.OrderStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a bulk approve or receive. Every PO that could make the transition did
+ * (all in one transaction); the others are listed with the reason they were skipped.
+ */
+public class BulkPurchaseOrderResponse {
+    private int processed;
+    private List<Outcome> results = new ArrayList<>();
+
+    // Outcome for a single PO id, in request order
+    public static class Outcome {
+        private Long id;
+        private String result; // OK, NOT_FOUND, INVALID_STATUS, DUPLICATE
+        private OrderStatus status; // status after the request (null if not found)
+
+        public Outcome() {}
+
+        public Outcome(Long id, String result, OrderStatus status) {
+            this.id = id;
+            this.result = result;
+            this.status = status;
+        }
+
+        public Long getId() { return id; }
+        public String getResult() { return result; }
+        public OrderStatus getStatus() { return status; }
+
+        public void setId(Long id) { this.id = id; }
+        public void setResult(String result) { this.result = result; }
+        public void setStatus(OrderStatus status) { this.status = status; }
+    }
+
+    // --- Getters and Setters ---
+
+    public int getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(int processed) {
+        this.processed = processed;
+    }
+
+    public List<Outcome> getResults() {
+        return results;
+    }
+
+    public void setResults(List<Outcome> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,17 @@
+package com.smartshelf.smartshelf.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. Pass nextCursor back as ?cursor= to get the
+ * following page; it is null on the last page.
+ */
+public class CursorPage<T> {
+    public List<T> items;
+    public String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,22 @@
+package com.smartshelf.smartshelf.dto;
+
+/**
+ * One row of the forecast dashboard, as stored in the latest forecast snapshot.
+ */
+public class ForecastDTO {
+    public Long productId;
+    public String productName;
+    public String category;
+    public int currentStock;
+    public double predictedDemand;
+    public String status;
+
+    public ForecastDTO(Long productId, String productName, String category, int currentStock, double predictedDemand, String status) {
+        this.productId = productId;
+        this.productName = productName;
+        this.category = category;
+        this.currentStock = currentStock;
+        this.predictedDemand = predictedDemand;
+        this.status = status;
+    }
+}
@@ -0,0 +1,29 @@
+package com.smartshelf.smartshelf.dto;
+
+import java.util.List;
+
+/**
+ * One page of a larger result, with enough totals for the client to render pagination.
+ */
+public class PageResponse<T> {
+    public List<T> content;
+    public int page;
+    public int size;
+    public long totalElements;
+    public int totalPages;
+
+    public PageResponse(List<T> content, int page, int size, long totalElements) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.totalPages = size == 0 ? 0 : (int) ((totalElements + size - 1) / size);
+    }
+
+    // Slices an already filtered, ordered list
+    public static <T> PageResponse<T> of(List<T> all, int page, int size) {
+        int from = (int) Math.min((long) page * size, all.size());
+        int to = Math.min(from + size, all.size());
+        return new PageResponse<>(all.subList(from, to), page, size, all.size());
+    }
+}
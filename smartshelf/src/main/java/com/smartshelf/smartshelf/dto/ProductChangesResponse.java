@@ -0,0 +1,24 @@
+package com.smartshelf.smartshelf.dto;
+
+import com.smartshelf.smartshelf.model.Product;
+
+import java.util.List;
+
+/**
+ * What changed in the catalogue since the client's last sync.
+ * The client applies the changes, removes the deleted ids and sends version back as
+ * "since" next time. If hasMore is true it should ask again right away.
+ */
+public class ProductChangesResponse {
+    public long version;
+    public List<Product> changed;
+    public List<Long> deleted;
+    public boolean hasMore;
+
+    public ProductChangesResponse(long version, List<Product> changed, List<Long> deleted, boolean hasMore) {
+        this.version = version;
+        this.changed = changed;
+        this.deleted = deleted;
+        this.hasMore = hasMore;
+    }
+}
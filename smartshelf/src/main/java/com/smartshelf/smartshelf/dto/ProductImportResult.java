@@ -0,0 +1,20 @@
+package com.smartshelf.smartshelf.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk product import. Valid rows are written even when other rows are rejected.
+ */
+public class ProductImportResult {
+
+    // row is 1-based and counts data rows only (not the CSV header)
+    public record RowError(long row, String message) {}
+
+    public long rowsRead;
+    public long inserted;
+    public long updated;
+    public long rejected;
+    public long durationMs;
+    public List<RowError> errors = new ArrayList<>(); // capped; rejected has the full count
+}
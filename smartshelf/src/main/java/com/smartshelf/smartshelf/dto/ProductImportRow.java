@@ -0,0 +1,18 @@
+package com.smartshelf.smartshelf.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * One product in a bulk import (a CSV line or a JSON object).
+ * Rows with an id update that product; rows without one create a new product.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProductImportRow {
+    public Long id;
+    public String productName;
+    public String category;
+    public Integer quantity;
+    public Double price;
+    public String supplier;
+    public String imageUrl;
+}
@@ -0,0 +1,29 @@
+package com.smartshelf.smartshelf.dto;
+
+import com.smartshelf.smartshelf.model.OrderStatus;
+
+import java.time.Instant;
+
+/**
+ * One row of the purchase order list: what RestockRequestsPage shows, without the full product.
+ */
+public class PurchaseOrderSummary {
+    public Long id;
+    public Long productId;
+    public String productName;
+    public String supplier;
+    public int quantity;
+    public OrderStatus status;
+    public Instant createdAt;
+
+    public PurchaseOrderSummary(Long id, Long productId, String productName, String supplier,
+                                int quantity, OrderStatus status, Instant createdAt) {
+        this.id = id;
+        this.productId = productId;
+        this.productName = productName;
+        this.supplier = supplier;
+        this.quantity = quantity;
+        this.status = status;
+        this.createdAt = createdAt;
+    }
+}
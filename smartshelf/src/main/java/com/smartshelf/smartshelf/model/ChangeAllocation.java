@@ -0,0 +1,30 @@
+package com.smartshelf.smartshelf.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * One block of product change versions (see ProductChangeService): block id * BLOCK_SIZE
+ * onwards. Inserted in the transaction of the write that uses it; the id comes from the
+ * auto-increment, so concurrent writers never wait for each other here.
+ */
+@Entity
+@Table(name = "change_allocation", indexes = {
+        @Index(name = "idx_change_allocation_allocated_at", columnList = "allocatedAt")
+})
+public class ChangeAllocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // When the block was handed out, by the database clock: safe versions are worked out from it
+    @Column(insertable = false, updatable = false, columnDefinition = "DATETIME(6) DEFAULT CURRENT_TIMESTAMP(6)")
+    private Instant allocatedAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Instant getAllocatedAt() { return allocatedAt; }
+    public void setAllocatedAt(Instant allocatedAt) { this.allocatedAt = allocatedAt; }
+}
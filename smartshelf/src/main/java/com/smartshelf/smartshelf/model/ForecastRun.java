@@ -0,0 +1,43 @@
+package com.smartshelf.smartshelf.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * One execution of the forecast job. Its id is the run id of the
+ * forecast_snapshot rows it produced.
+ */
+@Entity
+@Table(name = "forecast_run")
+public class ForecastRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Instant generatedAt;
+
+    @Column(nullable = false)
+    private long durationMs;
+
+    @Column(nullable = false)
+    private int productCount;
+
+    public ForecastRun() {}
+
+    public ForecastRun(Instant generatedAt, long durationMs, int productCount) {
+        this.generatedAt = generatedAt;
+        this.durationMs = durationMs;
+        this.productCount = productCount;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Instant getGeneratedAt() { return generatedAt; }
+    public void setGeneratedAt(Instant generatedAt) { this.generatedAt = generatedAt; }
+    public long getDurationMs() { return durationMs; }
+    public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+    public int getProductCount() { return productCount; }
+    public void setProductCount(int productCount) { this.productCount = productCount; }
+}
@@ -0,0 +1,55 @@
+package com.smartshelf.smartshelf.model;
+
+import jakarta.persistence.*;
+
+/**
+ * The forecast for one product as computed by one forecast run.
+ * Product name and stock are copied in, so a snapshot reads back exactly as it was served.
+ */
+@Entity
+@Table(name = "forecast_snapshot",
+        uniqueConstraints = @UniqueConstraint(name = "uk_forecast_snapshot_run_product", columnNames = {"run_id", "product_id"}))
+public class ForecastSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    private String productName;
+
+    private String category;
+
+    @Column(nullable = false)
+    private int currentStock;
+
+    @Column(nullable = false)
+    private double predictedDemand;
+
+    @Column(nullable = false)
+    private String status;
+
+    public ForecastSnapshot() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getRunId() { return runId; }
+    public void setRunId(Long runId) { this.runId = runId; }
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    public String getProductName() { return productName; }
+    public void setProductName(String productName) { this.productName = productName; }
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    public int getCurrentStock() { return currentStock; }
+    public void setCurrentStock(int currentStock) { this.currentStock = currentStock; }
+    public double getPredictedDemand() { return predictedDemand; }
+    public void setPredictedDemand(double predictedDemand) { this.predictedDemand = predictedDemand; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+}
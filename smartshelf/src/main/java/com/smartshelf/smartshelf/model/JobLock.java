@@ -0,0 +1,30 @@
+package com.smartshelf.smartshelf.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * One row per scheduled job that must not run on two instances at once.
+ * A run locks its row (SELECT ... FOR UPDATE) for the length of its transaction.
+ */
+@Entity
+@Table(name = "job_lock")
+public class JobLock {
+
+    @Id
+    private String jobName;
+
+    private Instant lastRunAt;
+
+    public JobLock() {}
+
+    public JobLock(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public String getJobName() { return jobName; }
+    public void setJobName(String jobName) { this.jobName = jobName; }
+    public Instant getLastRunAt() { return lastRunAt; }
+    public void setLastRunAt(Instant lastRunAt) { this.lastRunAt = lastRunAt; }
+}
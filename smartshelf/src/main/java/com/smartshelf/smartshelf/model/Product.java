@@ -3,7 +3,13 @@ package com.smartshelf.smartshelf.model; // Make sure package is correct
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        // Keyset pagination with a category or supplier filter: WHERE ... AND id > ? ORDER BY id
+        @Index(name = "idx_products_category_id", columnList = "category, id"),
+        @Index(name = "idx_products_supplier_id", columnList = "supplier, id"),
+        // Delta sync: WHERE change_version > ? ORDER BY change_version
+        @Index(name = "idx_products_change_version", columnList = "changeVersion")
+})
 public class Product {
 
     @Id
@@ -25,6 +31,10 @@ public class Product {
     @Column(length = 512) // Set a reasonable length for a URL
     private String imageUrl;
 
+    // Bumped on every create, edit and stock change (see ProductChangeService)
+    @Column(nullable = false)
+    private long changeVersion;
+
     // --- 2. No-argument constructor ---
     public Product() {
     }
@@ -87,4 +97,12 @@ public class Product {
     public void setImageUrl(String imageUrl) {
         this.imageUrl = imageUrl;
     }
+
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public void setChangeVersion(long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.smartshelf.smartshelf.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Marks a deleted product for delta sync clients (GET /api/products/changes).
+ * Written in the same transaction as the delete.
+ */
+@Entity
+@Table(name = "product_tombstones", indexes = {
+        @Index(name = "idx_product_tombstones_change_version", columnList = "changeVersion")
+})
+public class ProductTombstone {
+
+    @Id
+    private Long productId;
+
+    @Column(nullable = false)
+    private long changeVersion;
+
+    @Column(nullable = false)
+    private Instant deletedAt;
+
+    public ProductTombstone() {}
+
+    public ProductTombstone(Long productId, long changeVersion, Instant deletedAt) {
+        this.productId = productId;
+        this.changeVersion = changeVersion;
+        this.deletedAt = deletedAt;
+    }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    public long getChangeVersion() { return changeVersion; }
+    public void setChangeVersion(long changeVersion) { this.changeVersion = changeVersion; }
+    public Instant getDeletedAt() { return deletedAt; }
+    public void setDeletedAt(Instant deletedAt) { this.deletedAt = deletedAt; }
+}
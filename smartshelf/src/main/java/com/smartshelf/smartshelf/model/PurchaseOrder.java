@@ -4,7 +4,12 @@ import jakarta.persistence.*;
 import java.time.Instant;
 
 @Entity
-@Table(name = "purchase_orders")
+@Table(name = "purchase_orders", indexes = {
+        // Keyset pagination of the PO list: ORDER BY created_at DESC, id DESC
+        @Index(name = "idx_purchase_orders_created_at_id", columnList = "createdAt, id"),
+        // The same listing filtered by status (e.g. only PENDING)
+        @Index(name = "idx_purchase_orders_status_created_at_id", columnList = "status, createdAt, id")
+})
 public class PurchaseOrder {
 
     @Id
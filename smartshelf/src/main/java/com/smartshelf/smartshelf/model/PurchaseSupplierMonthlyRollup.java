@@ -0,0 +1,43 @@
+package com.smartshelf.smartshelf.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Units and cost of RECEIVED purchase orders per supplier per month of PO creation.
+ * Products without a supplier are rolled up under "Unknown".
+ */
+@Entity
+@Table(name = "purchase_supplier_monthly_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_purchase_supplier_monthly_rollup", columnNames = {"supplier", "month_start"}))
+public class PurchaseSupplierMonthlyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String supplier;
+
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Column(nullable = false)
+    private double cost;
+
+    public PurchaseSupplierMonthlyRollup() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getSupplier() { return supplier; }
+    public void setSupplier(String supplier) { this.supplier = supplier; }
+    public LocalDate getMonthStart() { return monthStart; }
+    public void setMonthStart(LocalDate monthStart) { this.monthStart = monthStart; }
+    public long getUnits() { return units; }
+    public void setUnits(long units) { this.units = units; }
+    public double getCost() { return cost; }
+    public void setCost(double cost) { this.cost = cost; }
+}
@@ -0,0 +1,30 @@
+package com.smartshelf.smartshelf.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Highest sales id already added to the rollup tables.
+ * Saved in the same transaction as the rollup rows it covers.
+ */
+@Entity
+@Table(name = "rollup_watermark")
+public class RollupWatermark {
+
+    @Id
+    private String rollupName;
+
+    @Column(nullable = false)
+    private long lastSaleId;
+
+    public RollupWatermark() {}
+
+    public RollupWatermark(String rollupName, long lastSaleId) {
+        this.rollupName = rollupName;
+        this.lastSaleId = lastSaleId;
+    }
+
+    public String getRollupName() { return rollupName; }
+    public void setRollupName(String rollupName) { this.rollupName = rollupName; }
+    public long getLastSaleId() { return lastSaleId; }
+    public void setLastSaleId(long lastSaleId) { this.lastSaleId = lastSaleId; }
+}
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.time.Instant;
 
 @Entity
-@Table(name = "sales")
+@Table(name = "sales", indexes = {
+        // Keyset pagination of the sales report: ORDER BY sale_date DESC, id DESC
+        @Index(name = "idx_sales_sale_date_id", columnList = "saleDate, id")
+})
 public class Sales {
 
     @Id
@@ -22,6 +25,11 @@ public class Sales {
     @Column(nullable = false, updatable = false)
     private Instant saleDate; // Use Instant for TIMESTAMP
 
+    // When the row was inserted, by the database clock (not settable from Java). Unlike saleDate,
+    // which the journal sets at append time, this follows insert order: the rollup catch-up uses it
+    @Column(insertable = false, updatable = false, columnDefinition = "DATETIME(6) DEFAULT CURRENT_TIMESTAMP(6)")
+    private Instant recordedAt;
+
     @PrePersist
     protected void onCreate() {
         saleDate = Instant.now(); // Set the date automatically
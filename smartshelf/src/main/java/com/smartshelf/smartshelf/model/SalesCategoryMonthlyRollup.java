@@ -0,0 +1,43 @@
+package com.smartshelf.smartshelf.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Units and revenue per product category per month (monthStart = first day of the UTC month).
+ * Products without a category are rolled up under "Uncategorized".
+ */
+@Entity
+@Table(name = "sales_category_monthly_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_sales_category_monthly_rollup", columnNames = {"category", "month_start"}))
+public class SalesCategoryMonthlyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String category;
+
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Column(nullable = false)
+    private double revenue;
+
+    public SalesCategoryMonthlyRollup() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    public LocalDate getMonthStart() { return monthStart; }
+    public void setMonthStart(LocalDate monthStart) { this.monthStart = monthStart; }
+    public long getUnits() { return units; }
+    public void setUnits(long units) { this.units = units; }
+    public double getRevenue() { return revenue; }
+    public void setRevenue(double revenue) { this.revenue = revenue; }
+}
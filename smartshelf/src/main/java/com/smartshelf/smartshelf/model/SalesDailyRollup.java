@@ -0,0 +1,43 @@
+package com.smartshelf.smartshelf.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Units and revenue per product per UTC day, maintained by SalesRollupService.
+ * Revenue is quantity x the product's price when the sales were rolled up.
+ */
+@Entity
+@Table(name = "sales_daily_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_sales_daily_rollup_product_day", columnNames = {"product_id", "sale_day"}))
+public class SalesDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "sale_day", nullable = false)
+    private LocalDate saleDay;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Column(nullable = false)
+    private double revenue;
+
+    public SalesDailyRollup() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    public LocalDate getSaleDay() { return saleDay; }
+    public void setSaleDay(LocalDate saleDay) { this.saleDay = saleDay; }
+    public long getUnits() { return units; }
+    public void setUnits(long units) { this.units = units; }
+    public double getRevenue() { return revenue; }
+    public void setRevenue(double revenue) { this.revenue = revenue; }
+}
@@ -0,0 +1,31 @@
+package com.smartshelf.smartshelf.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Per journal file: the highest sequence number whose sale has been inserted into the
+ * sales table. Updated in the same transaction as each drained batch, so a crash between
+ * the insert and the journal header update can never replay a sale twice.
+ */
+@Entity
+@Table(name = "sales_journal_checkpoint")
+public class SalesJournalCheckpoint {
+
+    @Id
+    private String journalName;
+
+    @Column(nullable = false)
+    private long drainedSeq;
+
+    public SalesJournalCheckpoint() {}
+
+    public SalesJournalCheckpoint(String journalName, long drainedSeq) {
+        this.journalName = journalName;
+        this.drainedSeq = drainedSeq;
+    }
+
+    public String getJournalName() { return journalName; }
+    public void setJournalName(String journalName) { this.journalName = journalName; }
+    public long getDrainedSeq() { return drainedSeq; }
+    public void setDrainedSeq(long drainedSeq) { this.drainedSeq = drainedSeq; }
+}
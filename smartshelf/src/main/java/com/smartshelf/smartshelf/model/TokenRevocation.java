@@ -0,0 +1,40 @@
+package com.smartshelf.smartshelf.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Tokens issued to this user before revokedBefore no longer count, unless they already
+ * carry the role the user has now (e.g. a promotion doesn't invalidate a token issued
+ * just after it). Written whenever the user's role changes.
+ */
+@Entity
+@Table(name = "token_revocations")
+public class TokenRevocation {
+
+    @Id
+    private String email;
+
+    @Column(nullable = false)
+    private Instant revokedBefore;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Role role;
+
+    public TokenRevocation() {}
+
+    public TokenRevocation(String email, Instant revokedBefore, Role role) {
+        this.email = email;
+        this.revokedBefore = revokedBefore;
+        this.role = role;
+    }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+    public Instant getRevokedBefore() { return revokedBefore; }
+    public void setRevokedBefore(Instant revokedBefore) { this.revokedBefore = revokedBefore; }
+    public Role getRole() { return role; }
+    public void setRole(Role role) { this.role = role; }
+}
@@ -0,0 +1,39 @@
+package com.smartshelf.smartshelf.repository;
+
+import com.smartshelf.smartshelf.model.ChangeAllocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface ChangeAllocationRepository extends JpaRepository<ChangeAllocation, Long> {
+
+    /**
+     * Highest block handed out at least settleMicros ago by the database clock (0 if none).
+     * Blocks are numbered in the order they were handed out, so every lower block is at least
+     * as old; its transaction has ended unless it ran for longer than the settle delay.
+     */
+    @Query(value = "SELECT COALESCE(MAX(id), 0) FROM change_allocation " +
+            "WHERE allocated_at <= TIMESTAMPADD(MICROSECOND, -:settleMicros, CURRENT_TIMESTAMP(6))",
+            nativeQuery = true)
+    long findMaxIdAllocatedBefore(@Param("settleMicros") long settleMicros);
+
+    @Query("SELECT COALESCE(MAX(a.id), 0) FROM ChangeAllocation a")
+    long findMaxId();
+
+    /**
+     * Continues the numbering after versions stored before the allocation table existed.
+     * MySQL moves the auto-increment past an explicit id.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO change_allocation (id) VALUES (:id)", nativeQuery = true)
+    void insertBlock(@Param("id") long id);
+
+    // Pruning: keepFrom is a block old enough that nothing below it is needed any more
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ChangeAllocation a WHERE a.id < :keepFrom")
+    int deleteBelow(@Param("keepFrom") long keepFrom);
+}
@@ -0,0 +1,26 @@
+package com.smartshelf.smartshelf.repository;
+
+import com.smartshelf.smartshelf.model.ForecastRun;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ForecastRunRepository extends JpaRepository<ForecastRun, Long> {
+
+    Optional<ForecastRun> findTopByOrderByIdDesc();
+
+    // Newest run ids first; used to find the cut-off for retention
+    @Query("SELECT r.id FROM ForecastRun r ORDER BY r.id DESC")
+    List<Long> findIdsNewestFirst(Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("DELETE FROM ForecastRun r WHERE r.id < :runId")
+    int deleteOlderThan(@Param("runId") Long runId);
+}
@@ -0,0 +1,23 @@
+package com.smartshelf.smartshelf.repository;
+
+import com.smartshelf.smartshelf.model.ForecastSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface ForecastSnapshotRepository extends JpaRepository<ForecastSnapshot, Long> {
+
+    // Same order the forecast is served in: highest predicted demand first
+    List<ForecastSnapshot> findByRunIdOrderByPredictedDemandDescProductIdAsc(Long runId);
+
+    long countByRunId(Long runId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("DELETE FROM ForecastSnapshot s WHERE s.runId < :runId")
+    int deleteOlderThan(@Param("runId") Long runId);
+}
@@ -0,0 +1,35 @@
+package com.smartshelf.smartshelf.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.descriptor.ValueBinder;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+
+/**
+ * Binds Instant values on plain JDBC statements exactly the way Hibernate does
+ * for our entity columns (UTC-normalized), so rows written by JDBC batches read
+ * back correctly through JPA on both MySQL and H2.
+ */
+@Component
+public class InstantBinder {
+
+    private final ValueBinder<Instant> binder;
+    private final WrapperOptions wrapperOptions;
+
+    public InstantBinder(EntityManagerFactory entityManagerFactory) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        BasicType<Instant> instantType = sessionFactory.getTypeConfiguration().getBasicTypeForJavaType(Instant.class);
+        this.binder = instantType.getJdbcValueBinder();
+        this.wrapperOptions = sessionFactory.getWrapperOptions();
+    }
+
+    public void bind(PreparedStatement ps, int index, Instant value) throws SQLException {
+        binder.bind(ps, value, index, wrapperOptions);
+    }
+}
@@ -0,0 +1,21 @@
+package com.smartshelf.smartshelf.repository;
+
+import com.smartshelf.smartshelf.model.JobLock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+
+    /**
+     * Reads the job's row with a row lock, held until the transaction ends:
+     * the same job on another instance waits here until this run commits.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM JobLock j WHERE j.jobName = :name")
+    Optional<JobLock> findForUpdate(@Param("name") String name);
+}
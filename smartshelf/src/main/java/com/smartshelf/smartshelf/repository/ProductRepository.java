@@ -1,14 +1,33 @@
 package com.smartshelf.smartshelf.repository;
 
 import com.smartshelf.smartshelf.model.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query; // <-- 1. NEW IMPORT
 import org.springframework.data.repository.query.Param; // <-- 2. NEW IMPORT
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List; // <-- 3. NEW IMPORT
+import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    interface StockLevelView {
+        Long getId();
+        int getQuantity();
+        long getChangeVersion();
+    }
+
+    // Just id, stock and change version for every product, without loading the entities
+    @Query("SELECT p.id AS id, p.quantity AS quantity, p.changeVersion AS changeVersion FROM Product p")
+    List<StockLevelView> findAllStockLevels();
+
+    // Current stock only (after a decrement in the same transaction: what that left)
+    @Query("SELECT p.quantity FROM Product p WHERE p.id = :id")
+    Optional<Integer> findQuantityById(@Param("id") Long id);
+
     // --- 4. NEW CUSTOM QUERY ---
     /**
      * Finds products using optional filters.
@@ -24,4 +43,65 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             @Param("supplier") String supplier,
             @Param("maxStock") Integer maxStock
     );
-}
\ No newline at end of file
+
+    /**
+     * Same filters, keyset-paginated by id: the products with id > afterId (0 for the first page).
+     */
+    @Query("SELECT p FROM Product p WHERE p.id > :afterId AND " +
+            "(:category IS NULL OR p.category = :category) AND " +
+            "(:supplier IS NULL OR p.supplier = :supplier) AND " +
+            "(:maxStock IS NULL OR p.quantity <= :maxStock) " +
+            "ORDER BY p.id")
+    List<Product> findPageWithFilters(
+            @Param("afterId") Long afterId,
+            @Param("category") String category,
+            @Param("supplier") String supplier,
+            @Param("maxStock") Integer maxStock,
+            Limit limit
+    );
+
+    /**
+     * Atomically takes stock: the check and the decrement are one statement,
+     * so concurrent sales can never push the quantity below zero.
+     * Also stamps the product with a change version from ProductChangeService.
+     * Returns 1 if the stock was taken, 0 if the product is missing or short.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE Product p SET p.quantity = p.quantity - :amount, p.changeVersion = :version " +
+            "WHERE p.id = :id AND p.quantity >= :amount")
+    int decrementStock(@Param("id") Long id, @Param("amount") int amount, @Param("version") long version);
+
+    /**
+     * Same, but only if the stock is still exactly :expected (e.g. the cached figure).
+     * Returns 1 if the stock was taken, in which case :expected - :amount is left;
+     * 0 if the product is missing, short, or its stock isn't :expected any more.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE Product p SET p.quantity = p.quantity - :amount, p.changeVersion = :version " +
+            "WHERE p.id = :id AND p.quantity = :expected AND p.quantity >= :amount")
+    int decrementStockFrom(@Param("id") Long id, @Param("amount") int amount,
+                           @Param("expected") int expected, @Param("version") long version);
+
+    /**
+     * Atomically adds stock (e.g. when a purchase order is received).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE Product p SET p.quantity = p.quantity + :amount, p.changeVersion = :version WHERE p.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("amount") int amount, @Param("version") long version);
+
+    /**
+     * Products changed in (after, upTo], oldest change first (delta sync).
+     */
+    @Query("SELECT p FROM Product p WHERE p.changeVersion > :after AND p.changeVersion <= :upTo ORDER BY p.changeVersion")
+    List<Product> findChangedBetween(@Param("after") long after, @Param("upTo") long upTo, Limit limit);
+
+    // Which of these ids exist (bulk import updates)
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT COALESCE(MAX(p.changeVersion), 0) FROM Product p")
+    long findMaxChangeVersion();
+}
@@ -0,0 +1,19 @@
+package com.smartshelf.smartshelf.repository;
+
+import com.smartshelf.smartshelf.model.ProductTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, Long> {
+
+    // Deletes in (after, upTo], oldest first
+    @Query("SELECT t FROM ProductTombstone t WHERE t.changeVersion > :after AND t.changeVersion <= :upTo ORDER BY t.changeVersion")
+    List<ProductTombstone> findChangedBetween(@Param("after") long after, @Param("upTo") long upTo, Limit limit);
+
+    @Query("SELECT COALESCE(MAX(t.changeVersion), 0) FROM ProductTombstone t")
+    long findMaxChangeVersion();
+}
@@ -1,13 +1,125 @@
 package com.smartshelf.smartshelf.repository;
 
+import com.smartshelf.smartshelf.dto.PurchaseOrderSummary;
+import com.smartshelf.smartshelf.model.OrderStatus;
 import com.smartshelf.smartshelf.model.PurchaseOrder;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, Long> {
     // Finds all POs, newest first
     List<PurchaseOrder> findAllByOrderByCreatedAtDesc();
-}
\ No newline at end of file
+
+    // Keyset pagination, newest first, ordered by (createdAt, id)
+    @Query("SELECT po FROM PurchaseOrder po ORDER BY po.createdAt DESC, po.id DESC")
+    List<PurchaseOrder> findPage(Limit limit);
+
+    @Query("SELECT po FROM PurchaseOrder po " +
+            "WHERE po.createdAt < :cursorDate OR (po.createdAt = :cursorDate AND po.id < :cursorId) " +
+            "ORDER BY po.createdAt DESC, po.id DESC")
+    List<PurchaseOrder> findPageAfter(@Param("cursorDate") Instant cursorDate, @Param("cursorId") Long cursorId, Limit limit);
+
+    // --- Summary listing: one join, only the columns the PO list shows, same keyset order ---
+    String SUMMARY_SELECT = "SELECT new com.smartshelf.smartshelf.dto.PurchaseOrderSummary(" +
+            "po.id, p.id, p.productName, p.supplier, po.quantity, po.status, po.createdAt) " +
+            "FROM PurchaseOrder po JOIN po.product p ";
+
+    @Query(SUMMARY_SELECT + "ORDER BY po.createdAt DESC, po.id DESC")
+    List<PurchaseOrderSummary> findSummaryPage(Limit limit);
+
+    @Query(SUMMARY_SELECT +
+            "WHERE po.createdAt < :cursorDate OR (po.createdAt = :cursorDate AND po.id < :cursorId) " +
+            "ORDER BY po.createdAt DESC, po.id DESC")
+    List<PurchaseOrderSummary> findSummaryPageAfter(@Param("cursorDate") Instant cursorDate, @Param("cursorId") Long cursorId, Limit limit);
+
+    // Filtered by status: served by the (status, createdAt, id) index
+    @Query(SUMMARY_SELECT + "WHERE po.status = :status ORDER BY po.createdAt DESC, po.id DESC")
+    List<PurchaseOrderSummary> findSummaryPageByStatus(@Param("status") OrderStatus status, Limit limit);
+
+    @Query(SUMMARY_SELECT +
+            "WHERE po.status = :status AND (po.createdAt < :cursorDate OR (po.createdAt = :cursorDate AND po.id < :cursorId)) " +
+            "ORDER BY po.createdAt DESC, po.id DESC")
+    List<PurchaseOrderSummary> findSummaryPageByStatusAfter(@Param("status") OrderStatus status, @Param("cursorDate") Instant cursorDate,
+                                                            @Param("cursorId") Long cursorId, Limit limit);
+
+    interface MonthlyTotalView {
+        Integer getYear();
+        Integer getMonth();
+        Double getTotal();
+    }
+
+    interface SupplierCostView {
+        String getSupplier();
+        Double getCost();
+    }
+
+    interface SupplierMonthlyView {
+        String getSupplier();
+        Integer getYear();
+        Integer getMonth();
+        Long getUnits();
+        Double getCost();
+    }
+
+    // What a bulk approve/receive needs per PO, without loading the entities
+    interface BulkLineView {
+        Long getId();
+        OrderStatus getStatus();
+        int getQuantity();
+        Instant getCreatedAt();
+        Long getProductId();
+        String getSupplier();
+        double getPrice();
+    }
+
+    interface ProductQuantityView {
+        Long getProductId();
+        Long getQuantity();
+    }
+
+    // Purchase cost (quantity x product price) per calendar month of PO creation (UTC)
+    @Query("SELECT YEAR(po.createdAt) AS year, MONTH(po.createdAt) AS month, SUM(po.quantity * p.price) AS total " +
+            "FROM PurchaseOrder po JOIN po.product p WHERE po.status = :status " +
+            "GROUP BY YEAR(po.createdAt), MONTH(po.createdAt)")
+    List<MonthlyTotalView> sumCostByMonth(@Param("status") OrderStatus status);
+
+    // Purchase cost per supplier name (products without a supplier are grouped as "Unknown")
+    @Query("SELECT COALESCE(p.supplier, 'Unknown') AS supplier, SUM(po.quantity * p.price) AS cost " +
+            "FROM PurchaseOrder po JOIN po.product p WHERE po.status = :status " +
+            "GROUP BY COALESCE(p.supplier, 'Unknown')")
+    List<SupplierCostView> sumCostBySupplier(@Param("status") OrderStatus status);
+
+    // Units on order per product across the given statuses (auto-restock)
+    @Query("SELECT po.product.id AS productId, SUM(po.quantity) AS quantity " +
+            "FROM PurchaseOrder po WHERE po.status IN :statuses GROUP BY po.product.id")
+    List<ProductQuantityView> sumQuantityByProductAndStatusIn(@Param("statuses") Collection<OrderStatus> statuses);
+
+    // Units and cost per supplier per month of PO creation (rebuilds the supplier rollup)
+    @Query("SELECT COALESCE(p.supplier, 'Unknown') AS supplier, YEAR(po.createdAt) AS year, MONTH(po.createdAt) AS month, " +
+            "SUM(po.quantity) AS units, SUM(po.quantity * p.price) AS cost " +
+            "FROM PurchaseOrder po JOIN po.product p WHERE po.status = :status " +
+            "GROUP BY COALESCE(p.supplier, 'Unknown'), YEAR(po.createdAt), MONTH(po.createdAt)")
+    List<SupplierMonthlyView> sumBySupplierAndMonth(@Param("status") OrderStatus status);
+
+    @Query("SELECT po.id AS id, po.status AS status, po.quantity AS quantity, po.createdAt AS createdAt, " +
+            "p.id AS productId, p.supplier AS supplier, p.price AS price " +
+            "FROM PurchaseOrder po JOIN po.product p WHERE po.id IN :ids")
+    List<BulkLineView> findBulkLines(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Moves the given POs to a new status, but only those still in one of the from statuses.
+     * Returns how many were moved.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE PurchaseOrder po SET po.status = :to WHERE po.id IN :ids AND po.status IN :from")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("from") Collection<OrderStatus> from, @Param("to") OrderStatus to);
+}
@@ -0,0 +1,20 @@
+package com.smartshelf.smartshelf.repository;
+
+import com.smartshelf.smartshelf.model.PurchaseSupplierMonthlyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface PurchaseSupplierMonthlyRollupRepository extends JpaRepository<PurchaseSupplierMonthlyRollup, Long> {
+
+    // Received purchase cost per month across all suppliers
+    @Query("SELECT r.monthStart AS monthStart, SUM(r.cost) AS total " +
+            "FROM PurchaseSupplierMonthlyRollup r GROUP BY r.monthStart")
+    List<SalesCategoryMonthlyRollupRepository.MonthTotalView> sumCostByMonth();
+
+    // Received purchase cost per supplier over all months
+    @Query("SELECT r.supplier AS supplier, SUM(r.cost) AS cost " +
+            "FROM PurchaseSupplierMonthlyRollup r GROUP BY r.supplier")
+    List<PurchaseOrderRepository.SupplierCostView> sumCostBySupplier();
+}
@@ -0,0 +1,21 @@
+package com.smartshelf.smartshelf.repository;
+
+import com.smartshelf.smartshelf.model.RollupWatermark;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface RollupWatermarkRepository extends JpaRepository<RollupWatermark, String> {
+
+    /**
+     * Reads the watermark with a row lock (SELECT ... FOR UPDATE), held until the transaction
+     * ends: a second catch-up, on this instance or another, waits and then sees the new value.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM RollupWatermark w WHERE w.rollupName = :name")
+    Optional<RollupWatermark> findForUpdate(@Param("name") String name);
+}
@@ -0,0 +1,21 @@
+package com.smartshelf.smartshelf.repository;
+
+import com.smartshelf.smartshelf.model.SalesCategoryMonthlyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SalesCategoryMonthlyRollupRepository extends JpaRepository<SalesCategoryMonthlyRollup, Long> {
+
+    interface MonthTotalView {
+        LocalDate getMonthStart();
+        Double getTotal();
+    }
+
+    // Sales revenue per month across all categories
+    @Query("SELECT r.monthStart AS monthStart, SUM(r.revenue) AS total " +
+            "FROM SalesCategoryMonthlyRollup r GROUP BY r.monthStart")
+    List<MonthTotalView> sumRevenueByMonth();
+}
@@ -0,0 +1,20 @@
+package com.smartshelf.smartshelf.repository;
+
+import com.smartshelf.smartshelf.model.SalesDailyRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface SalesDailyRollupRepository extends JpaRepository<SalesDailyRollup, Long> {
+
+    /**
+     * Units and revenue per product, best sellers first. Pass a Pageable to get only the top N.
+     */
+    @Query("SELECT p.id AS productId, p.productName AS productName, SUM(r.units) AS units, SUM(r.revenue) AS revenue " +
+            "FROM SalesDailyRollup r JOIN Product p ON p.id = r.productId " +
+            "GROUP BY p.id, p.productName " +
+            "ORDER BY SUM(r.revenue) DESC")
+    List<SalesRepository.ProductRevenueView> sumRevenueByProduct(Pageable pageable);
+}
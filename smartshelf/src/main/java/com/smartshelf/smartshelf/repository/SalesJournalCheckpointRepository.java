@@ -0,0 +1,16 @@
+package com.smartshelf.smartshelf.repository;
+
+import com.smartshelf.smartshelf.model.SalesJournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface SalesJournalCheckpointRepository extends JpaRepository<SalesJournalCheckpoint, String> {
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE SalesJournalCheckpoint c SET c.drainedSeq = :seq WHERE c.journalName = :name")
+    int markDrained(@Param("name") String name, @Param("seq") long seq);
+}
@@ -2,10 +2,19 @@
 package com.smartshelf.smartshelf.repository;
 
 import com.smartshelf.smartshelf.model.Sales;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.Instant; // <-- NEW IMPORT
+import java.time.LocalDate;
 import java.util.List;    // <-- NEW IMPORT
+import java.util.stream.Stream;
 
 public interface SalesRepository extends JpaRepository<Sales, Long> {
 
@@ -15,4 +24,125 @@ public interface SalesRepository extends JpaRepository<Sales, Long> {
      * Spring Data JPA will automatically build this query for us.
      */
     List<Sales> findBySaleDateBetween(Instant startDate, Instant endDate);
-}
\ No newline at end of file
+
+    // --- Aggregation projections: grouping and sums run in the database ---
+
+    interface ProductDayUnitsView {
+        Long getProductId();
+        LocalDate getDay(); // UTC day (sale dates are stored in UTC)
+        Long getUnits();
+    }
+
+    interface ProductRevenueView {
+        Long getProductId();
+        String getProductName();
+        Long getUnits();
+        Double getRevenue();
+    }
+
+    interface MonthlyTotalView {
+        Integer getYear();
+        Integer getMonth();
+        Double getTotal();
+    }
+
+    interface RollupSourceView {
+        Long getProductId();
+        String getCategory();
+        LocalDate getDay();
+        Long getUnits();
+        Double getRevenue();
+    }
+
+    /**
+     * Units sold per product per day since the given instant (seeds the demand window).
+     */
+    @Query("SELECT s.product.id AS productId, CAST(s.saleDate AS LocalDate) AS day, SUM(s.quantitySold) AS units " +
+            "FROM Sales s WHERE s.saleDate >= :since " +
+            "GROUP BY s.product.id, CAST(s.saleDate AS LocalDate)")
+    List<ProductDayUnitsView> sumUnitsByProductAndDaySince(@Param("since") Instant since);
+
+    /**
+     * Units and revenue (quantity x current price) per product, best sellers first.
+     * Pass a Pageable to get only the top N.
+     */
+    @Query("SELECT p.id AS productId, p.productName AS productName, " +
+            "SUM(s.quantitySold) AS units, SUM(s.quantitySold * p.price) AS revenue " +
+            "FROM Sales s JOIN s.product p " +
+            "GROUP BY p.id, p.productName " +
+            "ORDER BY SUM(s.quantitySold * p.price) DESC")
+    List<ProductRevenueView> sumRevenueByProduct(Pageable pageable);
+
+    /**
+     * Sales revenue per calendar month (UTC).
+     */
+    @Query("SELECT YEAR(s.saleDate) AS year, MONTH(s.saleDate) AS month, SUM(s.quantitySold * p.price) AS total " +
+            "FROM Sales s JOIN s.product p " +
+            "GROUP BY YEAR(s.saleDate), MONTH(s.saleDate)")
+    List<MonthlyTotalView> sumRevenueByMonth();
+
+    /**
+     * Highest sales id above afterId among rows inserted at least settleMicros ago by the
+     * database clock (0 if none). Newer rows are left for the next rollup pass, so a sale
+     * still being committed with a lower id isn't skipped by the watermark.
+     *
+     * This goes by recorded_at (insert time), not saleDate: journal-drained sales carry
+     * their append time as saleDate but get their ids when the drain inserts them, possibly
+     * much later. A transaction that takes longer than the settle delay to commit after its
+     * insert can still end up below the watermark and be missed until the next rebuild.
+     */
+    @Query(value = "SELECT COALESCE(MAX(id), 0) FROM sales " +
+            "WHERE id > :afterId AND recorded_at <= TIMESTAMPADD(MICROSECOND, -:settleMicros, CURRENT_TIMESTAMP(6))",
+            nativeQuery = true)
+    long findMaxIdRecordedBefore(@Param("afterId") long afterId, @Param("settleMicros") long settleMicros);
+
+    /**
+     * Units and revenue per product (with its category) per UTC day for sales with
+     * afterId < id <= upToId. Feeds the rollup tables.
+     */
+    @Query("SELECT p.id AS productId, p.category AS category, CAST(s.saleDate AS LocalDate) AS day, " +
+            "SUM(s.quantitySold) AS units, SUM(s.quantitySold * p.price) AS revenue " +
+            "FROM Sales s JOIN s.product p WHERE s.id > :afterId AND s.id <= :upToId " +
+            "GROUP BY p.id, p.category, CAST(s.saleDate AS LocalDate)")
+    List<RollupSourceView> sumForRollup(@Param("afterId") long afterId, @Param("upToId") long upToId);
+
+    /**
+     * All sales in [start, end] (either bound may be null), oldest first, with their product.
+     * Rows are fetched from a cursor in chunks of 1000; the caller must consume the stream
+     * inside a transaction and close it.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s FROM Sales s JOIN FETCH s.product " +
+            "WHERE (:start IS NULL OR s.saleDate >= :start) AND (:end IS NULL OR s.saleDate <= :end) " +
+            "ORDER BY s.id")
+    Stream<Sales> streamForExport(@Param("start") Instant start, @Param("end") Instant end);
+
+    // --- Keyset pagination for the sales report: newest first, ordered by (saleDate, id) ---
+
+    @Query("SELECT s FROM Sales s JOIN FETCH s.product " +
+            "WHERE s.saleDate >= :start AND s.saleDate <= :end " +
+            "ORDER BY s.saleDate DESC, s.id DESC")
+    List<Sales> findReportPage(@Param("start") Instant start, @Param("end") Instant end, Limit limit);
+
+    // The page after the row (cursorDate, cursorId); the end of the range is implied by the cursor
+    @Query("SELECT s FROM Sales s JOIN FETCH s.product " +
+            "WHERE s.saleDate >= :start " +
+            "AND (s.saleDate < :cursorDate OR (s.saleDate = :cursorDate AND s.id < :cursorId)) " +
+            "ORDER BY s.saleDate DESC, s.id DESC")
+    List<Sales> findReportPageAfter(@Param("start") Instant start,
+                                    @Param("cursorDate") Instant cursorDate,
+                                    @Param("cursorId") Long cursorId,
+                                    Limit limit);
+
+    /**
+     * Units and revenue per product for sales since the given instant (seeds the top-products tracker).
+     */
+    @Query("SELECT p.id AS productId, p.productName AS productName, " +
+            "SUM(s.quantitySold) AS units, SUM(s.quantitySold * p.price) AS revenue " +
+            "FROM Sales s JOIN s.product p WHERE s.saleDate >= :since " +
+            "GROUP BY p.id, p.productName")
+    List<ProductRevenueView> sumRevenueByProductSince(@Param("since") Instant since);
+}
@@ -0,0 +1,19 @@
+package com.smartshelf.smartshelf.repository;
+
+import com.smartshelf.smartshelf.model.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, String> {
+
+    // Revocations older than any token still alive can go
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TokenRevocation r WHERE r.revokedBefore < :cutoff")
+    int deleteOlderThan(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,187 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.config.RestockProperties;
+import com.smartshelf.smartshelf.dto.ForecastDTO;
+import com.smartshelf.smartshelf.model.JobLock;
+import com.smartshelf.smartshelf.model.OrderStatus;
+import com.smartshelf.smartshelf.repository.InstantBinder;
+import com.smartshelf.smartshelf.repository.JobLockRepository;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import com.smartshelf.smartshelf.repository.PurchaseOrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.smartshelf.smartshelf.model.OrderStatus.*;
+
+/**
+ * Turns the forecast into PENDING purchase orders without a manager clicking per product.
+ *
+ * Each run reads the latest forecast snapshot, today's stock levels and the units already
+ * on open purchase orders (one projection query each), works out which products have
+ * fallen below their reorder point, and inserts all the new POs as one JDBC batch in a
+ * single transaction. Because open PO quantity counts towards the stock position, a
+ * product that already has enough on order is skipped, so repeated runs never double-order.
+ *
+ * The run's transaction starts by locking the "auto-restock" JobLock row, and reads the
+ * open quantities after that, so a run on another instance waits for this one to commit
+ * and then sees its POs.
+ */
+@Service
+public class AutoRestockService {
+
+    private static final Logger log = LoggerFactory.getLogger(AutoRestockService.class);
+
+    static final String JOB_NAME = "auto-restock";
+
+    static final Set<OrderStatus> OPEN_STATUSES = EnumSet.of(PENDING, APPROVED, ORDERED);
+
+    static final String INSERT_PO_SQL =
+            "INSERT INTO purchase_orders (product_id, quantity, status, created_at) VALUES (?, ?, ?, ?)";
+
+    public record RunResult(int productsEvaluated, int ordersCreated, long unitsOrdered, long durationMs) {}
+
+    private record PlannedOrder(Long productId, int quantity) {}
+
+    private final ForecastSnapshotService forecastSnapshotService;
+    private final ProductRepository productRepository;
+    private final PurchaseOrderRepository poRepository;
+    private final JobLockRepository jobLockRepository;
+    private final RestockProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final InstantBinder instantBinder;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter ordersCreated;
+
+    public AutoRestockService(ForecastSnapshotService forecastSnapshotService,
+                              ProductRepository productRepository,
+                              PurchaseOrderRepository poRepository,
+                              JobLockRepository jobLockRepository,
+                              RestockProperties properties,
+                              JdbcTemplate jdbcTemplate,
+                              InstantBinder instantBinder,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.forecastSnapshotService = forecastSnapshotService;
+        this.productRepository = productRepository;
+        this.poRepository = poRepository;
+        this.jobLockRepository = jobLockRepository;
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.instantBinder = instantBinder;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ordersCreated = Counter.builder("smartshelf.restock.orders.created")
+                .description("Purchase orders created by the auto-restock engine")
+                .register(meterRegistry);
+    }
+
+    // The lock row has to exist before two instances can queue on it
+    @PostConstruct
+    public void init() {
+        if (jobLockRepository.existsById(JOB_NAME)) {
+            return;
+        }
+        try {
+            jobLockRepository.save(new JobLock(JOB_NAME));
+        } catch (DataIntegrityViolationException e) {
+            log.info("Auto-restock lock row was created by another instance");
+        }
+    }
+
+    @Scheduled(cron = "${smartshelf.restock.cron:0 5/15 * * * *}")
+    public void scheduledRun() {
+        if (properties.isEnabled()) {
+            run();
+        }
+    }
+
+    /**
+     * One auto-restock pass. Runs are serialized, across instances too, so two passes
+     * can't both see the same gap.
+     */
+    public synchronized RunResult run() {
+        long start = System.nanoTime();
+        List<ForecastDTO> forecast = forecastSnapshotService.getLatest().rows();
+
+        List<PlannedOrder> planned = transactionTemplate.execute(status -> {
+            JobLock lock = jobLockRepository.findForUpdate(JOB_NAME).orElseThrow();
+
+            // Stock can have moved since the snapshot was taken, so re-read it (id + quantity only)
+            Map<Long, Integer> stock = new HashMap<>();
+            for (ProductRepository.StockLevelView level : productRepository.findAllStockLevels()) {
+                stock.put(level.getId(), level.getQuantity());
+            }
+            Map<Long, Integer> onOrder = new HashMap<>();
+            for (PurchaseOrderRepository.ProductQuantityView row : poRepository.sumQuantityByProductAndStatusIn(OPEN_STATUSES)) {
+                onOrder.put(row.getProductId(), row.getQuantity().intValue());
+            }
+
+            List<PlannedOrder> orders = new ArrayList<>();
+            for (ForecastDTO row : forecast) {
+                Integer onHand = stock.get(row.productId);
+                if (onHand == null) {
+                    continue; // Deleted since the snapshot
+                }
+                int quantity = orderQuantity(onHand, onOrder.getOrDefault(row.productId, 0), row.predictedDemand);
+                if (quantity > 0) {
+                    orders.add(new PlannedOrder(row.productId, quantity));
+                }
+            }
+
+            Instant now = Instant.now();
+            if (!orders.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_PO_SQL, orders, 500, (ps, order) -> {
+                    ps.setLong(1, order.productId());
+                    ps.setInt(2, order.quantity());
+                    ps.setString(3, PENDING.name());
+                    instantBinder.bind(ps, 4, now);
+                });
+            }
+            lock.setLastRunAt(now);
+            return orders;
+        });
+
+        long units = 0;
+        for (PlannedOrder order : planned) {
+            units += order.quantity();
+        }
+        ordersCreated.increment(planned.size());
+
+        long durationMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        log.info("Auto-restock evaluated {} products, created {} POs ({} units) in {} ms",
+                forecast.size(), planned.size(), units, durationMs);
+        return new RunResult(forecast.size(), planned.size(), units, durationMs);
+    }
+
+    /**
+     * Units to order for one product, or 0 when stock plus what's already on order
+     * still covers the reorder point.
+     */
+    int orderQuantity(int onHand, int onOrder, double predictedWeeklyDemand) {
+        long position = (long) onHand + onOrder;
+        double reorderPoint = predictedWeeklyDemand * properties.getReorderPointWeeks() + properties.getSafetyStock();
+        if (position >= reorderPoint) {
+            return 0;
+        }
+        double target = predictedWeeklyDemand * properties.getTargetWeeks() + properties.getSafetyStock();
+        int needed = (int) Math.ceil(target - position);
+        return Math.max(needed, properties.getMinOrderQuantity());
+    }
+}
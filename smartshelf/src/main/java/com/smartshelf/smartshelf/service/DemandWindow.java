@@ -0,0 +1,163 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.repository.SalesRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rolling 30-day demand per product, kept in memory so forecasts don't rescan sales.
+ *
+ * Each product owns a ring of daily buckets (one int per UTC day). A bucket also
+ * remembers which day it holds, so a bucket left over from an older day is reset
+ * the first time it is reused; day rollover needs no timer and a quiet product
+ * simply ages out. The state is seeded at startup (on ApplicationReadyEvent) from a per-day aggregate
+ * of the sales table, then updated from SaleRecordedEvent after each sale commits.
+ */
+@Component
+public class DemandWindow {
+
+    public static final int WINDOW_DAYS = 30;
+
+    // ApplicationReadyEvent listener order of seed(); readers of the window seed after it
+    public static final int SEED_ORDER = Ordered.HIGHEST_PRECEDENCE;
+
+    private static final Logger log = LoggerFactory.getLogger(DemandWindow.class);
+
+    private final SalesRepository salesRepository;
+    private final Clock clock;
+    private final ConcurrentHashMap<Long, ProductDemand> demandByProduct = new ConcurrentHashMap<>();
+
+    // Daily buckets for one product
+    private static final class ProductDemand {
+        private final long[] bucketDay = new long[WINDOW_DAYS]; // epoch day held by each bucket
+        private final int[] units = new int[WINDOW_DAYS];
+
+        synchronized void add(long day, int quantity) {
+            int i = (int) Math.floorMod(day, (long) WINDOW_DAYS);
+            if (bucketDay[i] != day) {
+                bucketDay[i] = day;
+                units[i] = 0;
+            }
+            units[i] += quantity;
+        }
+
+        synchronized long total(long today) {
+            long first = today - WINDOW_DAYS + 1;
+            long sum = 0;
+            for (int i = 0; i < WINDOW_DAYS; i++) {
+                if (bucketDay[i] >= first && bucketDay[i] <= today) {
+                    sum += units[i];
+                }
+            }
+            return sum;
+        }
+
+        synchronized void copySeries(long today, double[] out) {
+            long first = today - WINDOW_DAYS + 1;
+            for (int d = 0; d < WINDOW_DAYS; d++) {
+                long day = first + d;
+                int i = (int) Math.floorMod(day, (long) WINDOW_DAYS);
+                out[d] = bucketDay[i] == day ? units[i] : 0;
+            }
+        }
+    }
+
+    @Autowired
+    public DemandWindow(SalesRepository salesRepository) {
+        this(salesRepository, Clock.systemUTC());
+    }
+
+    DemandWindow(SalesRepository salesRepository, Clock clock) {
+        this.salesRepository = salesRepository;
+        this.clock = clock;
+    }
+
+    /**
+     * Runs once startup work that writes sales (e.g. the sales journal replay) is done and
+     * before the application reports it accepts traffic; ahead of the other ready listeners,
+     * since the forecast and StockRiskIndex read this window.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(SEED_ORDER)
+    public void seed() {
+        Instant since = Instant.now(clock).truncatedTo(ChronoUnit.DAYS).minus(WINDOW_DAYS - 1, ChronoUnit.DAYS);
+        long rows = 0;
+        // Pre-aggregated in the database: one row per product and day
+        for (SalesRepository.ProductDayUnitsView bucket : salesRepository.sumUnitsByProductAndDaySince(since)) {
+            record(bucket.getProductId(), bucket.getUnits().intValue(), bucket.getDay().toEpochDay());
+            rows++;
+        }
+        log.info("Seeded demand window for {} products from {} daily buckets", demandByProduct.size(), rows);
+    }
+
+    // Runs after the sale's transaction commits (or immediately when there is none)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaleRecorded(SaleRecordedEvent event) {
+        record(event.productId(), event.quantitySold(), event.saleDate());
+    }
+
+    public void record(Long productId, int quantity, Instant saleDate) {
+        record(productId, quantity, epochDay(saleDate));
+    }
+
+    private void record(Long productId, int quantity, long day) {
+        if (productId == null || day <= today() - WINDOW_DAYS) {
+            return; // Outside the window: would be reset before it is ever read
+        }
+        demandByProduct.computeIfAbsent(productId, id -> new ProductDemand()).add(day, quantity);
+    }
+
+    /**
+     * Units sold over the last WINDOW_DAYS days (today included).
+     */
+    public long totalUnits(Long productId) {
+        ProductDemand demand = demandByProduct.get(productId);
+        return demand == null ? 0 : demand.total(today());
+    }
+
+    /**
+     * Daily units for the last WINDOW_DAYS days, oldest first, today last.
+     */
+    public double[] dailySeries(Long productId) {
+        double[] series = new double[WINDOW_DAYS];
+        copySeries(productId, series);
+        return series;
+    }
+
+    /**
+     * Same as dailySeries, but fills a caller-owned array of length WINDOW_DAYS (no allocation).
+     */
+    public void copySeries(Long productId, double[] out) {
+        ProductDemand demand = demandByProduct.get(productId);
+        if (demand != null) {
+            demand.copySeries(today(), out);
+        } else {
+            Arrays.fill(out, 0, WINDOW_DAYS, 0);
+        }
+    }
+
+    public void remove(Long productId) {
+        demandByProduct.remove(productId);
+    }
+
+    private long today() {
+        return epochDay(Instant.now(clock));
+    }
+
+    private static long epochDay(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), 86_400L);
+    }
+}
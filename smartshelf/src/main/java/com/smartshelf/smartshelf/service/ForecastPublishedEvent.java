@@ -0,0 +1,7 @@
+package com.smartshelf.smartshelf.service;
+
+/**
+ * Published when a forecast snapshot becomes the latest one (computed or loaded at startup).
+ */
+public record ForecastPublishedEvent(ForecastSnapshotService.Snapshot snapshot) {
+}
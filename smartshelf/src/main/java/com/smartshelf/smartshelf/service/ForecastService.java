@@ -1,14 +1,11 @@
 package com.smartshelf.smartshelf.service;
 
 import com.smartshelf.smartshelf.model.Product;
-import com.smartshelf.smartshelf.model.Sales;
 import com.smartshelf.smartshelf.repository.ProductRepository;
-import com.smartshelf.smartshelf.repository.SalesRepository;
+import com.smartshelf.smartshelf.service.forecast.ForecastEngine;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -16,7 +13,7 @@ import java.util.stream.Collectors;
 public class ForecastService {
 
     @Autowired
-    private SalesRepository salesRepository;
+    private ForecastEngine forecastEngine;
     @Autowired
     private ProductRepository productRepository;
 
@@ -34,32 +31,23 @@ public class ForecastService {
     }
 
     public List<ForecastResult> generateForecast() {
-        List<ForecastResult> forecasts = new ArrayList<>();
-        List<Product> allProducts = productRepository.findAll();
-
-        // 1. Define the time window for analysis (e.g., last 30 days)
-        Instant endDate = Instant.now();
-        Instant startDate = endDate.minus(30, ChronoUnit.DAYS);
-
-        // 2. Get all sales in that window
-        List<Sales> recentSales = salesRepository.findBySaleDateBetween(startDate, endDate);
+        return generateForecast(productRepository.findAll());
+    }
 
-        // 3. Group sales by Product ID
-        Map<Long, Integer> salesPerProduct = new HashMap<>();
-        for (Sales sale : recentSales) {
-            Long productId = sale.getProduct().getId();
-            salesPerProduct.put(productId, salesPerProduct.getOrDefault(productId, 0) + sale.getQuantitySold());
-        }
+    /**
+     * Forecasts only the given products (e.g. a single SKU), highest predicted sales first.
+     */
+    public List<ForecastResult> generateForecast(List<Product> allProducts) {
+        List<ForecastResult> forecasts = new ArrayList<>();
 
-        // 4. Calculate forecast for each product
-        for (Product product : allProducts) {
-            // Get total sales for last 30 days (default to 0 if no sales)
-            int totalSalesLast30Days = salesPerProduct.getOrDefault(product.getId(), 0);
+        // 1-3. Predict next week's demand for every product. The daily series come from the
+        //      in-memory demand window (no sales scan) and the models run in parallel.
+        double[] predictions = forecastEngine.predict(allProducts, 7);
 
-            // --- THE "AI" ALGORITHM (Simple Moving Average) ---
-            // If we sold X items in 30 days, we predict we'll sell (X / 30) * 7 items next week.
-            double dailyAverage = totalSalesLast30Days / 30.0;
-            double predictedNextWeek = dailyAverage * 7.0;
+        // 4. Build the recommendation for each product
+        for (int i = 0; i < allProducts.size(); i++) {
+            Product product = allProducts.get(i);
+            double predictedNextWeek = predictions[i];
 
             // 5. Generate Recommendation
             String recommendation = "Stable";
@@ -0,0 +1,267 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.dto.ForecastDTO;
+import com.smartshelf.smartshelf.model.ForecastRun;
+import com.smartshelf.smartshelf.model.ForecastSnapshot;
+import com.smartshelf.smartshelf.repository.ForecastRunRepository;
+import com.smartshelf.smartshelf.repository.ForecastSnapshotRepository;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the forecast on a schedule and keeps the result as a materialized snapshot.
+ *
+ * Each run is stored in forecast_run / forecast_snapshot (one row per product) and
+ * becomes the in-memory "latest" snapshot, an immutable list that GET /api/forecast
+ * returns as-is. Dashboard loads therefore never run a model; only the cron job and
+ * an explicit refresh do. On startup the latest stored run is loaded back, so a
+ * restart doesn't have to recompute before the first request.
+ */
+@Service
+public class ForecastSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(ForecastSnapshotService.class);
+
+    static final String INSERT_SNAPSHOT_SQL =
+            "INSERT INTO forecast_snapshot (run_id, product_id, product_name, category, current_stock, predicted_demand, status) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * The latest run as served to clients. Rows are in serving order (highest demand first);
+     * lookups by product, status and category are indexed once when the snapshot is built,
+     * so a single-SKU or filtered query never touches unrelated rows.
+     */
+    public static final class Snapshot {
+        private final long runId;
+        private final Instant generatedAt;
+        private final long durationMs;
+        private final List<ForecastDTO> rows;
+        private final Map<Long, ForecastDTO> byProduct = new HashMap<>();
+        private final Map<String, List<ForecastDTO>> byStatus = new HashMap<>();
+        private final Map<String, List<ForecastDTO>> byCategory = new HashMap<>();
+
+        Snapshot(long runId, Instant generatedAt, long durationMs, List<ForecastDTO> rows) {
+            this.runId = runId;
+            this.generatedAt = generatedAt;
+            this.durationMs = durationMs;
+            this.rows = List.copyOf(rows);
+            for (ForecastDTO row : this.rows) {
+                byProduct.put(row.productId, row);
+                byStatus.computeIfAbsent(row.status, k -> new ArrayList<>()).add(row);
+                if (row.category != null) {
+                    byCategory.computeIfAbsent(row.category, k -> new ArrayList<>()).add(row);
+                }
+            }
+        }
+
+        public long runId() { return runId; }
+        public Instant generatedAt() { return generatedAt; }
+        public long durationMs() { return durationMs; }
+        public List<ForecastDTO> rows() { return rows; }
+
+        public ForecastDTO find(Long productId) {
+            return byProduct.get(productId);
+        }
+
+        /**
+         * Rows matching the given status and/or category (null = any), in serving order.
+         * Starts from the smaller index and only filters that one.
+         */
+        public List<ForecastDTO> filter(String status, String category) {
+            if (status == null && category == null) {
+                return rows;
+            }
+            List<ForecastDTO> withStatus = status == null ? null : byStatus.getOrDefault(status, List.of());
+            List<ForecastDTO> inCategory = category == null ? null : byCategory.getOrDefault(category, List.of());
+            if (withStatus == null) {
+                return inCategory;
+            }
+            if (inCategory == null) {
+                return withStatus;
+            }
+            if (withStatus.size() <= inCategory.size()) {
+                return withStatus.stream().filter(row -> category.equals(row.category)).toList();
+            }
+            return inCategory.stream().filter(row -> status.equals(row.status)).toList();
+        }
+    }
+
+    private final ForecastService forecastService;
+    private final ProductRepository productRepository;
+    private final ForecastRunRepository runRepository;
+    private final ForecastSnapshotRepository snapshotRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Timer runTimer;
+    private final int retainRuns;
+
+    private volatile Snapshot latest;
+
+    public ForecastSnapshotService(ForecastService forecastService,
+                                   ProductRepository productRepository,
+                                   ForecastRunRepository runRepository,
+                                   ForecastSnapshotRepository snapshotRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   ApplicationEventPublisher eventPublisher,
+                                   @Value("${smartshelf.forecast.snapshot.retain-runs:5}") int retainRuns) {
+        this.forecastService = forecastService;
+        this.productRepository = productRepository;
+        this.runRepository = runRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.retainRuns = Math.max(1, retainRuns);
+
+        this.runTimer = Timer.builder("smartshelf.forecast.run.duration")
+                .description("Time to compute and store one forecast snapshot")
+                .register(meterRegistry);
+        Gauge.builder("smartshelf.forecast.snapshot.age.seconds", this, ForecastSnapshotService::ageSeconds)
+                .description("Seconds since the served forecast snapshot was generated")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Serves the last stored run if there is one; otherwise computes the first snapshot.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadLatest() {
+        if (latest != null) {
+            return;
+        }
+        runRepository.findTopByOrderByIdDesc().ifPresentOrElse(run -> {
+            List<ForecastDTO> rows = new ArrayList<>();
+            for (ForecastSnapshot s : snapshotRepository.findByRunIdOrderByPredictedDemandDescProductIdAsc(run.getId())) {
+                rows.add(new ForecastDTO(s.getProductId(), s.getProductName(), s.getCategory(),
+                        s.getCurrentStock(), s.getPredictedDemand(), s.getStatus()));
+            }
+            latest = new Snapshot(run.getId(), run.getGeneratedAt(), run.getDurationMs(), rows);
+            eventPublisher.publishEvent(new ForecastPublishedEvent(latest));
+            log.info("Loaded forecast run {} ({} products) from {}", run.getId(), rows.size(), run.getGeneratedAt());
+        }, this::refresh);
+    }
+
+    @Scheduled(cron = "${smartshelf.forecast.snapshot.cron:0 */15 * * * *}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    /**
+     * Computes a new forecast, stores it as a new run and makes it the latest snapshot.
+     * Runs are serialized: a refresh requested while one is running waits for it.
+     */
+    public synchronized Snapshot refresh() {
+        long start = System.nanoTime();
+        Instant generatedAt = Instant.now();
+
+        List<ForecastDTO> rows = toRows(forecastService.generateForecast());
+        long durationMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        Long runId = transactionTemplate.execute(status -> {
+            ForecastRun run = runRepository.save(new ForecastRun(generatedAt, durationMs, rows.size()));
+            jdbcTemplate.batchUpdate(INSERT_SNAPSHOT_SQL, rows, 500, (ps, row) -> {
+                ps.setLong(1, run.getId());
+                ps.setLong(2, row.productId);
+                ps.setString(3, row.productName);
+                ps.setString(4, row.category);
+                ps.setInt(5, row.currentStock);
+                ps.setDouble(6, row.predictedDemand);
+                ps.setString(7, row.status);
+            });
+            pruneOldRuns();
+            return run.getId();
+        });
+
+        Snapshot snapshot = new Snapshot(runId, generatedAt, durationMs, rows);
+        latest = snapshot;
+        eventPublisher.publishEvent(new ForecastPublishedEvent(snapshot));
+        runTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.info("Forecast run {} stored {} products in {} ms", runId, rows.size(), durationMs);
+        return snapshot;
+    }
+
+    /**
+     * The latest snapshot. Only the very first call on an empty database does any work.
+     */
+    public Snapshot getLatest() {
+        Snapshot snapshot = latest;
+        return snapshot != null ? snapshot : refresh();
+    }
+
+    /**
+     * Forecast for one product: from the latest snapshot, or computed for just that product
+     * when it was added after the snapshot was taken. Empty if the product doesn't exist.
+     */
+    public Optional<ForecastDTO> forecastFor(Long productId) {
+        ForecastDTO row = getLatest().find(productId);
+        if (row != null) {
+            return Optional.of(row);
+        }
+        return productRepository.findById(productId)
+                .map(product -> toRows(forecastService.generateForecast(List.of(product))).get(0));
+    }
+
+    private static List<ForecastDTO> toRows(List<ForecastService.ForecastResult> results) {
+        List<ForecastDTO> rows = new ArrayList<>(results.size());
+        for (ForecastService.ForecastResult result : results) {
+            rows.add(new ForecastDTO(
+                    result.product.getId(),
+                    result.product.getProductName(),
+                    result.product.getCategory(),
+                    result.product.getQuantity(),
+                    result.predictedSalesNextWeek,
+                    mapRecommendationToStatus(result.recommendation)));
+        }
+        return rows;
+    }
+
+    // Keeps the newest retainRuns runs and drops the rest
+    private void pruneOldRuns() {
+        List<Long> newest = runRepository.findIdsNewestFirst(PageRequest.of(0, retainRuns));
+        if (newest.size() == retainRuns) {
+            Long oldestKept = newest.get(newest.size() - 1);
+            snapshotRepository.deleteOlderThan(oldestKept);
+            runRepository.deleteOlderThan(oldestKept);
+        }
+    }
+
+    private double ageSeconds() {
+        Snapshot snapshot = latest;
+        return snapshot == null ? Double.NaN : Duration.between(snapshot.generatedAt(), Instant.now()).toMillis() / 1000.0;
+    }
+
+    private static String mapRecommendationToStatus(String recommendation) {
+        if (recommendation.startsWith("RESTOCK")) {
+            return "RESTOCK NEEDED";
+        } else if (recommendation.startsWith("OVERSTOCKED")) {
+            return "OVERSTOCKED";
+        } else {
+            return "SUFFICIENT";
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.model.PurchaseOrder;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import com.smartshelf.smartshelf.repository.PurchaseOrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static com.smartshelf.smartshelf.model.OrderStatus.RECEIVED;
+
+/**
+ * The single place where product stock is changed.
+ * Every mutation is a conditional UPDATE in the database instead of
+ * "read quantity, compute in Java, save the entity", so concurrent
+ * sales and receipts can't lose updates or oversell.
+ * Each change also gets a catalogue change version (ProductChangeService) and is
+ * reported to the ProductCache, which applies it after commit, and published as a
+ * ProductStockChangedEvent for the other in-memory views of stock.
+ */
+@Service
+public class InventoryService {
+
+    static final String INCREMENT_STOCK_SQL = "UPDATE products SET quantity = quantity + ?, change_version = ? WHERE id = ?";
+
+    private final ProductRepository productRepository;
+    private final PurchaseOrderRepository poRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SalesRollupService rollupService;
+    private final ProductCache productCache;
+    private final ProductChangeService changeService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public InventoryService(ProductRepository productRepository, PurchaseOrderRepository poRepository,
+                            ApplicationEventPublisher eventPublisher, SalesRollupService rollupService,
+                            ProductCache productCache, ProductChangeService changeService, JdbcTemplate jdbcTemplate) {
+        this.productRepository = productRepository;
+        this.poRepository = poRepository;
+        this.eventPublisher = eventPublisher;
+        this.rollupService = rollupService;
+        this.productCache = productCache;
+        this.changeService = changeService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Takes stock for a sale.
+     * Returns false (and changes nothing) if the product doesn't exist or has too little stock.
+     */
+    @Transactional
+    public boolean tryDecrement(Long productId, int quantity) {
+        if (productId == null || quantity <= 0) {
+            return false;
+        }
+        long version = changeService.nextVersion();
+        if (productRepository.decrementStock(productId, quantity, version) != 1) {
+            return false;
+        }
+        stockTaken(productId, quantity, version);
+        return true;
+    }
+
+    /**
+     * Takes stock for a sale, or throws IllegalArgumentException with a
+     * user-facing message explaining why the sale can't go through.
+     */
+    @Transactional
+    public void takeStock(Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Error: Quantity must be greater than zero!");
+        }
+        if (!tryDecrement(productId, quantity)) {
+            throw rejected(productId);
+        }
+    }
+
+    /**
+     * Takes stock for a sale of a product the caller has already read (usually a ProductCache
+     * copy) and returns the stock left, or throws like takeStock(Long, int).
+     * If the product's stock is still what the copy says, the UPDATE alone tells us what's left;
+     * only a stale copy costs the plain UPDATE and a SELECT of the stock it left.
+     */
+    @Transactional
+    public int takeStock(Product seen, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Error: Quantity must be greater than zero!");
+        }
+        Long productId = seen.getId();
+        long version = changeService.nextVersion();
+        if (productRepository.decrementStockFrom(productId, quantity, seen.getQuantity(), version) == 1) {
+            stockTaken(productId, quantity, version);
+            return seen.getQuantity() - quantity;
+        }
+        if (productRepository.decrementStock(productId, quantity, version) != 1) {
+            throw rejected(productId);
+        }
+        stockTaken(productId, quantity, version);
+        // The row stays locked until commit, so this is exactly what our UPDATE left
+        return productRepository.findQuantityById(productId).orElseThrow();
+    }
+
+    private void stockTaken(Long productId, int quantity, long version) {
+        productCache.stockChanged(productId, -quantity, version);
+        eventPublisher.publishEvent(new ProductStockChangedEvent(productId, -quantity, version));
+    }
+
+    private IllegalArgumentException rejected(Long productId) {
+        if (productId == null || !productRepository.existsById(productId)) {
+            return new IllegalArgumentException("Error: Product not found!");
+        }
+        return new IllegalArgumentException("Error: Not enough stock!");
+    }
+
+    /**
+     * Adds stock, e.g. for a received purchase order.
+     */
+    @Transactional
+    public void increment(Long productId, int quantity) {
+        long version = changeService.nextVersion();
+        productRepository.incrementStock(productId, quantity, version);
+        productCache.stockChanged(productId, quantity, version);
+        eventPublisher.publishEvent(new ProductStockChangedEvent(productId, quantity, version));
+    }
+
+    /**
+     * Adds stock to many products at once (quantity per product id), e.g. for a bulk receipt.
+     * One JDBC batch of "quantity = quantity + ?" updates, in product id order so concurrent
+     * bulk receipts lock rows in the same order.
+     */
+    @Transactional
+    public void incrementAll(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, Integer>> rows = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        long firstVersion = changeService.nextVersions(rows.size());
+        jdbcTemplate.batchUpdate(INCREMENT_STOCK_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, rows.get(i).getValue());
+                ps.setLong(2, firstVersion + i);
+                ps.setLong(3, rows.get(i).getKey());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+        for (int i = 0; i < rows.size(); i++) {
+            Long productId = rows.get(i).getKey();
+            int quantity = rows.get(i).getValue();
+            productCache.stockChanged(productId, quantity, firstVersion + i);
+            eventPublisher.publishEvent(new ProductStockChangedEvent(productId, quantity, firstVersion + i));
+        }
+    }
+
+    /**
+     * Marks the PO RECEIVED, adds its quantity to stock and adds it to the supplier cost
+     * rollup, all in one transaction. The status change is a conditional UPDATE from
+     * APPROVED/ORDERED, so of two concurrent receipts of the same PO only one adds stock;
+     * the other (or a PO in any other status) gets an empty result and changes nothing.
+     */
+    @Transactional
+    public Optional<PurchaseOrder> receive(PurchaseOrder po) {
+        if (poRepository.updateStatus(List.of(po.getId()), PurchaseOrderBulkService.RECEIVABLE, RECEIVED) != 1) {
+            return Optional.empty();
+        }
+        increment(po.getProduct().getId(), po.getQuantity());
+        rollupService.recordReceipt(po);
+        // The UPDATEs cleared the persistence context, so this re-reads the PO and its product
+        return poRepository.findById(po.getId());
+    }
+}
@@ -0,0 +1,271 @@
+package com.smartshelf.smartshelf.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The HS512 keys JWTs are signed and verified with, shared by every instance through a
+ * PKCS12 keystore file (put it on a shared volume, or copy the same file to each node).
+ *
+ * Each key's alias is its "kid": the epoch second it was created plus a random suffix.
+ * Tokens are signed with one key and carry its kid in the header; any key still in the
+ * file verifies. Rotation:
+ *   - when the newest key is older than rotation-interval, a new key is added to the file
+ *   - a new key only starts signing after activation-delay, by which time every instance
+ *     has reloaded the file and can verify with it
+ *   - an old key is dropped once every token it signed has expired
+ * Whichever instance notices first does the rotation, under a lock file next to the keystore.
+ *
+ * The keys live in an immutable map swapped on reload, and the parser is built once and
+ * looks the kid up in that map, so a signature check doesn't rebuild anything.
+ */
+@Component
+public class JwtKeyRing {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    static final String KEY_ALGORITHM = "HmacSHA512";
+
+    public record SigningKey(String kid, SecretKey key) {}
+
+    // kid -> key, oldest first (kids sort by creation second)
+    private record Ring(TreeMap<String, SecretKey> keys, SigningKey signing, long fileModified) {}
+
+    private final Path path;
+    private final Path lockPath;
+    private final char[] password;
+    private final Duration rotationInterval;
+    private final Duration activationDelay;
+    private final Duration tokenLifetime;
+    private final Clock clock;
+    private final SecureRandom random = new SecureRandom();
+    private final JwtParser parser;
+
+    private volatile Ring ring;
+
+    @Autowired
+    public JwtKeyRing(@Value("${smartshelf.jwt.keystore.path:data/jwt-keys.p12}") String path,
+                      @Value("${smartshelf.jwt.keystore.password}") String password,
+                      @Value("${smartshelf.jwt.keys.rotation-interval-hours:168}") long rotationIntervalHours,
+                      @Value("${smartshelf.jwt.keys.activation-delay-ms:300000}") long activationDelayMs,
+                      @Value("${smartshelf.jwt.expiration-ms:86400000}") long expirationMs) {
+        this(Path.of(path), password, Duration.ofHours(rotationIntervalHours), Duration.ofMillis(activationDelayMs),
+                Duration.ofMillis(expirationMs), Clock.systemUTC());
+    }
+
+    JwtKeyRing(Path path, String password, Duration rotationInterval, Duration activationDelay,
+               Duration tokenLifetime, Clock clock) {
+        this.path = path.toAbsolutePath();
+        this.lockPath = Path.of(this.path + ".lock");
+        this.password = password.toCharArray();
+        this.rotationInterval = rotationInterval;
+        this.activationDelay = activationDelay;
+        this.tokenLifetime = tokenLifetime;
+        this.clock = clock;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        SecretKey key = header.getKeyId() == null ? null : ring.keys().get(header.getKeyId());
+                        if (key == null) {
+                            throw new SignatureException("Unknown signing key: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+
+    // Creates the keystore (with one key) if there isn't one yet
+    @PostConstruct
+    public void init() {
+        rotate();
+    }
+
+    /**
+     * Reloads the file if another instance changed it, and rotates if a key is due to be
+     * added or dropped.
+     */
+    @Scheduled(fixedDelayString = "${smartshelf.jwt.keys.refresh-ms:60000}")
+    public synchronized void refresh() {
+        try {
+            if (Files.getLastModifiedTime(path).toMillis() != ring.fileModified()) {
+                ring = load();
+            }
+        } catch (IOException e) {
+            log.warn("Could not reload JWT keys from {}: {}", path, e.getMessage());
+            return;
+        }
+        if (rotationDue(ring.keys())) {
+            rotate();
+        } else {
+            ring = withSigningKey(ring.keys(), ring.fileModified()); // a new key may have become active
+        }
+    }
+
+    public SigningKey signingKey() {
+        return ring.signing();
+    }
+
+    /**
+     * Verifies the token's signature (with the key named by its kid) and expiry.
+     * Throws a JwtException if either check fails.
+     */
+    public Jws<Claims> parse(String token) {
+        return parser.parseClaimsJws(token);
+    }
+
+    // False once the key is dropped: tokens it signed are no longer accepted
+    public boolean hasKey(String kid) {
+        return ring.keys().containsKey(kid);
+    }
+
+    private synchronized void rotate() {
+        try {
+            Files.createDirectories(path.getParent());
+            try (FileChannel lockChannel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = lockChannel.lock()) {
+                // Read again under the lock: another instance may have just rotated
+                TreeMap<String, SecretKey> keys = Files.exists(path) ? load().keys() : new TreeMap<>();
+                if (rotationDue(keys)) {
+                    Instant now = clock.instant();
+                    keys.entrySet().removeIf(entry -> retired(keys, entry.getKey(), now));
+                    if (keys.isEmpty() || created(keys.lastKey()).plus(rotationInterval).isBefore(now)) {
+                        String kid = newKid(now);
+                        keys.put(kid, KeyGenerator.getInstance(KEY_ALGORITHM).generateKey());
+                        log.info("Added JWT signing key {} to {}", kid, path);
+                    }
+                    store(keys);
+                }
+                ring = withSigningKey(keys, Files.getLastModifiedTime(path).toMillis());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not rotate JWT keys in " + path, e);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not rotate JWT keys in " + path, e);
+        }
+    }
+
+    private boolean rotationDue(TreeMap<String, SecretKey> keys) {
+        if (keys.isEmpty()) {
+            return true;
+        }
+        Instant now = clock.instant();
+        if (created(keys.lastKey()).plus(rotationInterval).isBefore(now)) {
+            return true;
+        }
+        for (String kid : keys.keySet()) {
+            if (retired(keys, kid, now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // A key stops signing when the next one activates; its last token expires a lifetime later
+    private boolean retired(TreeMap<String, SecretKey> keys, String kid, Instant now) {
+        String next = keys.higherKey(kid);
+        return next != null && created(next).plus(activationDelay).plus(tokenLifetime).isBefore(now);
+    }
+
+    // The newest key that every instance has had time to load (the newest key on a brand new ring)
+    private Ring withSigningKey(TreeMap<String, SecretKey> keys, long fileModified) {
+        Instant activeBefore = clock.instant().minus(activationDelay);
+        String kid = keys.lastKey();
+        for (String candidate : keys.descendingKeySet()) {
+            if (!created(candidate).isAfter(activeBefore)) {
+                kid = candidate;
+                break;
+            }
+        }
+        return new Ring(keys, new SigningKey(kid, keys.get(kid)), fileModified);
+    }
+
+    private Ring load() throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            long modified = Files.getLastModifiedTime(path).toMillis();
+            KeyStore store = KeyStore.getInstance("PKCS12");
+            store.load(in, password);
+            TreeMap<String, SecretKey> keys = new TreeMap<>();
+            for (String alias : Collections.list(store.aliases())) {
+                if (!alias.matches("\\d+-[0-9a-f]+")) {
+                    log.warn("Ignoring key {} in {}: not a key ring kid", alias, path);
+                } else if (store.getKey(alias, password) instanceof SecretKey key) {
+                    keys.put(alias, key);
+                }
+            }
+            if (keys.isEmpty()) {
+                throw new IOException("No JWT keys in " + path);
+            }
+            return withSigningKey(keys, modified);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Could not read JWT keys from " + path, e);
+        }
+    }
+
+    // Written to a temp file and moved into place, so a reader never sees half a keystore
+    private void store(TreeMap<String, SecretKey> keys) throws IOException, GeneralSecurityException {
+        KeyStore store = KeyStore.getInstance("PKCS12");
+        store.load(null, password);
+        for (Map.Entry<String, SecretKey> entry : keys.entrySet()) {
+            store.setEntry(entry.getKey(), new KeyStore.SecretKeyEntry(entry.getValue()),
+                    new KeyStore.PasswordProtection(password));
+        }
+        Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                store.store(out, password);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // "<epoch second>-<8 hex chars>": sorts by creation time (PKCS12 lowercases aliases, hence hex)
+    private String newKid(Instant now) {
+        byte[] suffix = new byte[4];
+        random.nextBytes(suffix);
+        return String.format("%012d-%s", now.getEpochSecond(), HexFormat.of().formatHex(suffix));
+    }
+
+    static Instant created(String kid) {
+        return Instant.ofEpochSecond(Long.parseLong(kid.substring(0, kid.indexOf('-'))));
+    }
+}
@@ -0,0 +1,116 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.model.Role;
+import com.smartshelf.smartshelf.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Issues and checks the JWTs used by the frontend.
+ *
+ * The token carries the user's role as a signed "role" claim, so an authenticated request
+ * is checked from the token alone: signature, expiry and the revocation list, no users
+ * table lookup. Recently seen tokens are kept in a small LRU cache (cache-size entries,
+ * 0 disables it) so a dashboard polling with the same token skips the parse too; the
+ * revocation list (and that the signing key is still in the ring) is checked on every request.
+ */
+@Service
+public class JwtTokenService {
+
+    static final String ROLE_CLAIM = "role";
+
+    private final JwtKeyRing keyRing;
+    private final TokenRevocationService revocationService;
+    private final long expirationMs;
+    private final int cacheSize;
+
+    // A token that passed the signature check
+    private record Verified(String kid, String email, Role role, Instant issuedAt, Instant expiresAt, List<GrantedAuthority> authorities) {}
+
+    // Guarded by "this". Access-ordered: the eldest entry is the least recently used
+    private final LinkedHashMap<String, Verified> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Verified> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    public JwtTokenService(JwtKeyRing keyRing,
+                           TokenRevocationService revocationService,
+                           @Value("${smartshelf.jwt.expiration-ms:86400000}") long expirationMs,
+                           @Value("${smartshelf.jwt.cache-size:1000}") int cacheSize) {
+        this.keyRing = keyRing;
+        this.revocationService = revocationService;
+        this.expirationMs = expirationMs;
+        this.cacheSize = cacheSize;
+    }
+
+    public String issue(User user) {
+        long now = System.currentTimeMillis();
+        JwtKeyRing.SigningKey signingKey = keyRing.signingKey();
+        return Jwts.builder()
+                .setHeaderParam("kid", signingKey.kid())
+                .setSubject(user.getEmail())
+                .claim(ROLE_CLAIM, user.getRole().name())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expirationMs))
+                .signWith(signingKey.key(), SignatureAlgorithm.HS512)
+                .compact();
+    }
+
+    /**
+     * The authentication for a valid token, or null if the token is malformed, badly signed,
+     * expired, has no role, was revoked by a role change, or its signing key was retired.
+     */
+    public Authentication authenticate(String token) {
+        Verified verified = verify(token);
+        if (verified == null
+                || !Instant.now().isBefore(verified.expiresAt())
+                || !keyRing.hasKey(verified.kid())
+                || revocationService.isRevoked(verified.email(), verified.role(), verified.issuedAt())) {
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(verified.email(), null, verified.authorities());
+    }
+
+    private Verified verify(String token) {
+        if (cacheSize > 0) {
+            synchronized (this) {
+                Verified cached = cache.get(token);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+        }
+        Verified verified;
+        try {
+            Jws<Claims> jws = keyRing.parse(token);
+            Claims claims = jws.getBody();
+            Role role = Role.valueOf(claims.get(ROLE_CLAIM, String.class));
+            verified = new Verified(jws.getHeader().getKeyId(), claims.getSubject(), role, claims.getIssuedAt().toInstant(),
+                    claims.getExpiration().toInstant(), List.of(new SimpleGrantedAuthority(role.name())));
+        } catch (RuntimeException e) {
+            return null; // bad signature, unknown key, expired, no role...
+        }
+        if (cacheSize > 0) {
+            synchronized (this) {
+                cache.put(token, verified);
+            }
+        }
+        return verified;
+    }
+}
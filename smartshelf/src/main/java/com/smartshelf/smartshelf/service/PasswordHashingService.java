@@ -0,0 +1,138 @@
+package com.smartshelf.smartshelf.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt (hashing and checking passwords) on its own small thread pool.
+ *
+ * Each check costs tens of milliseconds of CPU on purpose. On request threads, a burst of
+ * logins at shift change used up the Tomcat workers the POS endpoints need. Here at most
+ * "threads" hashes run at once and at most "queue-capacity" wait; past that, encode/verify
+ * throw RejectedExecutionException straight away, so the caller can answer 429 instead of
+ * making the user wait behind the queue.
+ *
+ * The work factor comes from smartshelf.auth.bcrypt-strength. A successful verify of a hash
+ * made with another cost also returns a new hash at the current cost, for the caller to save.
+ */
+@Service
+public class PasswordHashingService {
+
+    /**
+     * matches: the password is right. rehash: a new hash to store (cost changed), or null.
+     */
+    public record Verification(boolean matches, String rehash) {}
+
+    private final PasswordEncoder passwordEncoder;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final Timer encodeTimer;
+    private final Timer verifyTimer;
+    private final Counter rejected;
+
+    // Checked when the email is unknown, so that takes as long as a wrong password
+    private final String dummyHash;
+
+    @Autowired
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${smartshelf.auth.bcrypt-strength:10}") int strength,
+                                  @Value("${smartshelf.auth.hash-threads:2}") int threads,
+                                  @Value("${smartshelf.auth.hash-queue-capacity:50}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        this.strength = strength;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("smartshelf.auth.password.hash.duration")
+                .description("Time to hash or check one password (not counting the wait in the queue)")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.verifyTimer = Timer.builder("smartshelf.auth.password.hash.duration")
+                .description("Time to hash or check one password (not counting the wait in the queue)")
+                .tag("operation", "verify")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("smartshelf.auth.password.hash.rejected")
+                .description("Password hashes refused because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("smartshelf.auth.password.hash.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashes waiting for a thread")
+                .register(meterRegistry);
+
+        this.dummyHash = passwordEncoder.encode("not-a-real-password");
+    }
+
+    /**
+     * Hashes a new password. Throws RejectedExecutionException if the queue is full.
+     */
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    /**
+     * Checks a password against its stored hash (null when there is no such user: never
+     * matches, but costs the same). Throws RejectedExecutionException if the queue is full.
+     */
+    public CompletableFuture<Verification> verify(String rawPassword, String storedHash) {
+        return submit(() -> {
+            boolean matches = verifyTimer.record(() -> rawPassword != null
+                    && passwordEncoder.matches(rawPassword, storedHash != null ? storedHash : dummyHash)
+                    && storedHash != null);
+            String rehash = matches && needsRehash(storedHash)
+                    ? encodeTimer.record(() -> passwordEncoder.encode(rawPassword))
+                    : null;
+            return new Verification(matches, rehash);
+        });
+    }
+
+    // BCrypt hashes look like $2a$10$...: the number is the cost they were made with
+    boolean needsRehash(String hash) {
+        String[] parts = hash.split("\\$");
+        try {
+            return parts.length < 3 || Integer.parseInt(parts[2]) != strength;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,206 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-through cache of products by id, for the sale and purchase order hot paths.
+ *
+ * Bounded LRU (max-size entries) with a TTL per entry. Callers always get their own
+ * detached copy, so nothing they do to it reaches the cache or the persistence context.
+ *
+ * Stock changes made through InventoryService are applied to the cached copy once their
+ * transaction commits (and dropped on rollback). While a stock change is in flight, or if
+ * one completed while a miss was loading, the loaded row is not cached: it could hold
+ * uncommitted stock or be older than the change. Anything else that writes products
+ * (edits, deletes, bulk jobs) calls invalidate. The TTL bounds the damage of a write
+ * that forgets to.
+ */
+@Component
+public class ProductCache {
+
+    // Stripes for the in-flight bookkeeping (ids share a stripe, which only costs a missed fill)
+    private static final int STRIPES = 256;
+
+    private final ProductRepository productRepository;
+    private final Clock clock;
+    private final int maxSize;
+    private final Duration ttl;
+
+    // Guarded by "this". Access-ordered: the eldest entry is the least recently used
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final int[] pendingChanges = new int[STRIPES];
+    private final long[] changeStamps = new long[STRIPES];
+    private long nextStamp;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+
+    private static final class Entry {
+        final Product product;
+        final Instant expiresAt;
+
+        Entry(Product product, Instant expiresAt) {
+            this.product = product;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    @Autowired
+    public ProductCache(ProductRepository productRepository,
+                        MeterRegistry meterRegistry,
+                        @Value("${smartshelf.product-cache.max-size:10000}") int maxSize,
+                        @Value("${smartshelf.product-cache.ttl-seconds:300}") long ttlSeconds) {
+        this(productRepository, meterRegistry, Clock.systemUTC(), maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    ProductCache(ProductRepository productRepository, MeterRegistry meterRegistry, Clock clock, int maxSize, Duration ttl) {
+        this.productRepository = productRepository;
+        this.clock = clock;
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+
+        hits = Counter.builder("smartshelf.product.cache.requests").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("smartshelf.product.cache.requests").tag("result", "miss").register(meterRegistry);
+        sizeEvictions = Counter.builder("smartshelf.product.cache.evictions").tag("cause", "size").register(meterRegistry);
+        expiredEvictions = Counter.builder("smartshelf.product.cache.evictions").tag("cause", "expired").register(meterRegistry);
+        Gauge.builder("smartshelf.product.cache.size", this, ProductCache::size).register(meterRegistry);
+    }
+
+    /**
+     * The product as of the last committed change, or empty if it doesn't exist.
+     * Always a fresh detached copy.
+     */
+    public Optional<Product> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        long stamp;
+        synchronized (this) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                if (clock.instant().isBefore(entry.expiresAt)) {
+                    hits.increment();
+                    return Optional.of(copy(entry.product));
+                }
+                entries.remove(id);
+                expiredEvictions.increment();
+            }
+            misses.increment();
+            stamp = nextStamp;
+        }
+
+        Optional<Product> loaded = productRepository.findById(id).map(ProductCache::copy);
+        loaded.ifPresent(product -> fill(id, product, stamp));
+        return loaded.map(ProductCache::copy);
+    }
+
+    /**
+     * Registers a stock change made in the current transaction. The cached copy is
+     * adjusted after commit; without a transaction it is adjusted right away.
+     */
+    public void stockChanged(Long id, int delta, long changeVersion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            synchronized (this) {
+                applyDelta(id, delta, changeVersion);
+                changeStamps[stripe(id)] = ++nextStamp;
+            }
+            return;
+        }
+        synchronized (this) {
+            pendingChanges[stripe(id)]++;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (ProductCache.this) {
+                    if (status == STATUS_COMMITTED) {
+                        applyDelta(id, delta, changeVersion);
+                    } else if (status == STATUS_UNKNOWN) {
+                        entries.remove(id);
+                    }
+                    pendingChanges[stripe(id)]--;
+                    changeStamps[stripe(id)] = ++nextStamp;
+                }
+            }
+        });
+    }
+
+    /**
+     * Drops a product that was edited or deleted (call after the write).
+     */
+    public synchronized void invalidate(Long id) {
+        entries.remove(id);
+        changeStamps[stripe(id)] = ++nextStamp;
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        ++nextStamp;
+        Arrays.fill(changeStamps, nextStamp);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // Caches a loaded row unless a stock change for its stripe is in flight or completed since the load began
+    private synchronized void fill(Long id, Product product, long loadStamp) {
+        int stripe = stripe(id);
+        if (pendingChanges[stripe] > 0 || changeStamps[stripe] > loadStamp) {
+            return;
+        }
+        entries.put(id, new Entry(product, clock.instant().plus(ttl)));
+        Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            sizeEvictions.increment();
+        }
+    }
+
+    private void applyDelta(Long id, int delta, long changeVersion) {
+        Entry entry = entries.get(id);
+        if (entry != null) {
+            entry.product.setQuantity(entry.product.getQuantity() + delta);
+            // Stock changes can commit out of version order
+            entry.product.setChangeVersion(Math.max(entry.product.getChangeVersion(), changeVersion));
+        }
+    }
+
+    private static int stripe(Long id) {
+        return (int) Math.floorMod(id, (long) STRIPES);
+    }
+
+    private static Product copy(Product source) {
+        Product product = new Product();
+        product.setId(source.getId());
+        product.setProductName(source.getProductName());
+        product.setCategory(source.getCategory());
+        product.setQuantity(source.getQuantity());
+        product.setPrice(source.getPrice());
+        product.setSupplier(source.getSupplier());
+        product.setImageUrl(source.getImageUrl());
+        product.setChangeVersion(source.getChangeVersion());
+        return product;
+    }
+}
@@ -0,0 +1,198 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.dto.ProductChangesResponse;
+import com.smartshelf.smartshelf.model.ChangeAllocation;
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.model.ProductTombstone;
+import com.smartshelf.smartshelf.repository.ChangeAllocationRepository;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import com.smartshelf.smartshelf.repository.ProductTombstoneRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Change versions for the product catalogue, so clients can sync deltas instead of
+ * re-downloading every product (GET /api/products/changes?since=...).
+ *
+ * Every create, edit and stock change stamps the product with a version; every delete
+ * leaves a ProductTombstone with its version. Versions come in blocks of BLOCK_SIZE: the
+ * writing transaction inserts a ChangeAllocation row and takes versions from its
+ * auto-increment id onwards. Nothing is locked, so writers on any instance go ahead in
+ * parallel, but a version can become visible before a smaller one still being committed.
+ *
+ * Reads therefore stop at the "safe" version: the end of the newest block handed out at
+ * least settle-ms ago (by the database clock). Every block below it was handed out earlier,
+ * and its transaction has committed or rolled back by then, as long as no product write
+ * runs for longer than the settle delay. A client never skips a change it hasn't seen;
+ * changes just reach it settle-ms later.
+ *
+ * Create, edit and delete go through here so the version and the write share one transaction.
+ */
+@Service
+public class ProductChangeService {
+
+    // Versions per block: the most one write (a bulk receipt, an import batch) can take.
+    // Kept small so versions stay below 2^53 and survive JavaScript clients' number parsing.
+    public static final int BLOCK_SIZE = 4096;
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeService.class);
+
+    private final ProductRepository productRepository;
+    private final ProductTombstoneRepository tombstoneRepository;
+    private final ChangeAllocationRepository allocationRepository;
+    private final long settleMicros;
+
+    @Autowired
+    public ProductChangeService(ProductRepository productRepository, ProductTombstoneRepository tombstoneRepository,
+                                ChangeAllocationRepository allocationRepository,
+                                @Value("${smartshelf.products.changes.settle-ms:5000}") long settleMs) {
+        this.productRepository = productRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.allocationRepository = allocationRepository;
+        this.settleMicros = settleMs * 1000;
+    }
+
+    // First start on a database with versions from before the allocation table: continue above them
+    @PostConstruct
+    public void init() {
+        if (allocationRepository.findMaxId() > 0) {
+            return;
+        }
+        long last = Math.max(productRepository.findMaxChangeVersion(), tombstoneRepository.findMaxChangeVersion());
+        if (last == 0) {
+            return;
+        }
+        try {
+            allocationRepository.insertBlock(last / BLOCK_SIZE + 1);
+        } catch (DataIntegrityViolationException e) {
+            log.info("Product change numbering was started by another instance");
+        }
+    }
+
+    /**
+     * Allocates the version for a change made in the current transaction.
+     */
+    public long nextVersion() {
+        return nextVersions(1);
+    }
+
+    /**
+     * Allocates count (up to BLOCK_SIZE) consecutive versions for a batch write and returns the first.
+     */
+    public long nextVersions(int count) {
+        if (count < 1 || count > BLOCK_SIZE) {
+            throw new IllegalArgumentException("Between 1 and " + BLOCK_SIZE + " versions can be allocated at once");
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Product change versions must be allocated inside a transaction");
+        }
+        return allocationRepository.save(new ChangeAllocation()).getId() * BLOCK_SIZE;
+    }
+
+    /**
+     * Every change up to this version is committed (or rolled back); none can still appear below it.
+     */
+    public long safeVersion() {
+        long block = allocationRepository.findMaxIdAllocatedBefore(settleMicros);
+        return block == 0 ? 0 : block * BLOCK_SIZE + BLOCK_SIZE - 1;
+    }
+
+    /**
+     * Drops allocation rows below the safe block: only the newest settled one is ever read.
+     */
+    @Scheduled(fixedDelayString = "${smartshelf.products.changes.prune-interval-ms:3600000}")
+    public void prune() {
+        long keepFrom = allocationRepository.findMaxIdAllocatedBefore(settleMicros);
+        if (keepFrom > 0) {
+            allocationRepository.deleteBelow(keepFrom);
+        }
+    }
+
+    @Transactional
+    public Product create(Product product) {
+        product.setChangeVersion(nextVersion());
+        return productRepository.save(product);
+    }
+
+    /**
+     * Copies the editable fields onto the stored product. Empty if it doesn't exist.
+     */
+    @Transactional
+    public Optional<Product> update(Long id, Product details) {
+        return productRepository.findById(id).map(product -> {
+            product.setProductName(details.getProductName());
+            product.setCategory(details.getCategory());
+            product.setQuantity(details.getQuantity());
+            product.setPrice(details.getPrice());
+            product.setSupplier(details.getSupplier());
+            product.setImageUrl(details.getImageUrl());
+            product.setChangeVersion(nextVersion());
+            return productRepository.save(product);
+        });
+    }
+
+    /**
+     * Deletes the product and leaves a tombstone for sync clients. False if it doesn't exist.
+     */
+    @Transactional
+    public boolean delete(Long id) {
+        Optional<Product> product = productRepository.findById(id);
+        if (product.isEmpty()) {
+            return false;
+        }
+        long version = nextVersion();
+        productRepository.delete(product.get());
+        tombstoneRepository.save(new ProductTombstone(id, version, Instant.now()));
+        return true;
+    }
+
+    /**
+     * Up to limit changes (edits and deletes together) after the given version, oldest first.
+     * Throws IllegalArgumentException if since is ahead of every committed change.
+     */
+    @Transactional(readOnly = true)
+    public ProductChangesResponse changesSince(long since, int limit) {
+        long upTo = safeVersion();
+        if (since < 0 || since > upTo) {
+            throw new IllegalArgumentException("Error: Unknown version, reload the full catalogue!");
+        }
+        List<Product> products = productRepository.findChangedBetween(since, upTo, Limit.of(limit + 1));
+        List<ProductTombstone> tombstones = tombstoneRepository.findChangedBetween(since, upTo, Limit.of(limit + 1));
+
+        // Merge both lists by version (versions are unique across them) and stop at limit
+        List<Product> changed = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        int p = 0;
+        int t = 0;
+        long last = since;
+        while (changed.size() + deleted.size() < limit && (p < products.size() || t < tombstones.size())) {
+            boolean takeProduct = t >= tombstones.size()
+                    || (p < products.size() && products.get(p).getChangeVersion() < tombstones.get(t).getChangeVersion());
+            if (takeProduct) {
+                Product product = products.get(p++);
+                changed.add(product);
+                last = product.getChangeVersion();
+            } else {
+                ProductTombstone tombstone = tombstones.get(t++);
+                deleted.add(tombstone.getProductId());
+                last = tombstone.getChangeVersion();
+            }
+        }
+        boolean hasMore = p < products.size() || t < tombstones.size();
+        return new ProductChangesResponse(hasMore ? last : upTo, changed, deleted, hasMore);
+    }
+}
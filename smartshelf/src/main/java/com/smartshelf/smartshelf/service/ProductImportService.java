@@ -0,0 +1,426 @@
+package com.smartshelf.smartshelf.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartshelf.smartshelf.dto.ProductImportResult;
+import com.smartshelf.smartshelf.dto.ProductImportRow;
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.*;
+
+/**
+ * Bulk product import (POST /api/products/import) from a CSV or JSON upload.
+ *
+ * The upload is parsed one row at a time and each row is validated as it arrives.
+ * Valid rows are written in batches of batch-size: one transaction per batch, with
+ * inserts and updates each sent as a single JDBC batch. Hibernate can't batch inserts
+ * of IDENTITY entities, so this path skips it. Invalid rows are reported with their row
+ * number and don't stop the import; neither does a batch whose transaction fails, whose
+ * rows are all reported with the cause.
+ *
+ * Rows with an id update that product, rows without one create a product. Every written
+ * row gets its own change version (delta sync) and is pushed to the search and stock-at-risk
+ * indexes after commit.
+ */
+@Service
+public class ProductImportService {
+
+    public enum Format { CSV, JSON }
+
+    static final String INSERT_SQL =
+            "INSERT INTO products (product_name, category, quantity, price, supplier, image_url, change_version) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    static final String UPDATE_SQL =
+            "UPDATE products SET product_name = ?, category = ?, quantity = ?, price = ?, supplier = ?, " +
+                    "image_url = ?, change_version = ? WHERE id = ?";
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int MAX_URL_LENGTH = 512;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductRepository productRepository;
+    private final ProductChangeService changeService;
+    private final ProductCache productCache;
+    private final ProductSearchIndex searchIndex;
+    private final StockRiskIndex stockRiskIndex;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    // A validated row waiting for its batch
+    private record PendingRow(long rowNumber, ProductImportRow row) {}
+
+    // A row about to be written, with its change version
+    private record Write(ProductImportRow row, long version) {}
+
+    public ProductImportService(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                ProductRepository productRepository,
+                                ProductChangeService changeService,
+                                ProductCache productCache,
+                                ProductSearchIndex searchIndex,
+                                StockRiskIndex stockRiskIndex,
+                                ObjectMapper objectMapper,
+                                @Value("${smartshelf.import.batch-size:500}") int batchSize) {
+        // A batch takes one block of change versions
+        if (batchSize < 1 || batchSize > ProductChangeService.BLOCK_SIZE) {
+            throw new IllegalArgumentException("smartshelf.import.batch-size must be between 1 and " + ProductChangeService.BLOCK_SIZE);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productRepository = productRepository;
+        this.changeService = changeService;
+        this.productCache = productCache;
+        this.searchIndex = searchIndex;
+        this.stockRiskIndex = stockRiskIndex;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports every row of the upload. CSV needs a header line naming the columns
+     * (productName, category, quantity, price, supplier, imageUrl and optionally id);
+     * JSON is either an array of objects or one object per line.
+     * Throws IllegalArgumentException if the upload can't be read at all (e.g. no CSV header).
+     */
+    public ProductImportResult importProducts(InputStream in, Format format) throws IOException {
+        long start = System.nanoTime();
+        ProductImportResult result = new ProductImportResult();
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+
+        if (format == Format.CSV) {
+            readCsv(in, result, batch);
+        } else {
+            readJson(in, result, batch);
+        }
+        flush(batch, result);
+
+        result.durationMs = (System.nanoTime() - start) / 1_000_000;
+        return result;
+    }
+
+    private void readCsv(InputStream in, ProductImportResult result, List<PendingRow> batch) throws IOException {
+        CsvRowReader csv = new CsvRowReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1); // BOM from spreadsheet exports
+            }
+            columns.putIfAbsent(name, i);
+        }
+        if (!columns.containsKey("productname")) {
+            throw new IllegalArgumentException("Error: CSV header must include productName!");
+        }
+
+        List<String> fields;
+        while ((fields = csv.next()) != null) {
+            long rowNumber = ++result.rowsRead;
+            try {
+                ProductImportRow row = new ProductImportRow();
+                row.id = parseLong(field(fields, columns, "id"), "id");
+                row.productName = field(fields, columns, "productname");
+                row.category = field(fields, columns, "category");
+                row.quantity = parseInt(field(fields, columns, "quantity"), "quantity");
+                row.price = parseDouble(field(fields, columns, "price"), "price");
+                row.supplier = field(fields, columns, "supplier");
+                row.imageUrl = field(fields, columns, "imageurl");
+                accept(rowNumber, row, result, batch);
+            } catch (IllegalArgumentException e) {
+                reject(result, rowNumber, e.getMessage());
+            }
+        }
+    }
+
+    private void readJson(InputStream in, ProductImportResult result, List<PendingRow> batch) throws IOException {
+        // An array at the root is unwrapped; otherwise objects are read one after another
+        try (MappingIterator<ProductImportRow> rows = objectMapper.readerFor(ProductImportRow.class).readValues(in)) {
+            while (true) {
+                ProductImportRow row;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    row = rows.nextValue();
+                } catch (DatabindException e) {
+                    // Wrong type in one object: the iterator skips to the next one
+                    reject(result, ++result.rowsRead, "Invalid value: " + e.getOriginalMessage());
+                    continue;
+                } catch (JsonProcessingException e) {
+                    // Broken JSON: nothing after this point can be trusted
+                    reject(result, ++result.rowsRead, "Malformed JSON: " + e.getOriginalMessage());
+                    break;
+                }
+                long rowNumber = ++result.rowsRead;
+                try {
+                    accept(rowNumber, row, result, batch);
+                } catch (IllegalArgumentException e) {
+                    reject(result, rowNumber, e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Validates a row and queues it, writing the batch when it is full
+    private void accept(long rowNumber, ProductImportRow row, ProductImportResult result, List<PendingRow> batch) {
+        row.productName = trimToNull(row.productName);
+        row.category = trimToNull(row.category);
+        row.supplier = trimToNull(row.supplier);
+        row.imageUrl = trimToNull(row.imageUrl);
+        validate(row);
+        batch.add(new PendingRow(rowNumber, row));
+        if (batch.size() >= batchSize) {
+            flush(batch, result);
+        }
+    }
+
+    private static void validate(ProductImportRow row) {
+        if (row.productName == null) {
+            throw new IllegalArgumentException("productName is required");
+        }
+        if (row.productName.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("productName is longer than " + MAX_NAME_LENGTH + " characters");
+        }
+        if (row.quantity == null || row.quantity < 0) {
+            throw new IllegalArgumentException("quantity must be a whole number >= 0");
+        }
+        if (row.price == null || row.price < 0 || row.price.isNaN() || row.price.isInfinite()) {
+            throw new IllegalArgumentException("price must be a number >= 0");
+        }
+        if (row.imageUrl != null && row.imageUrl.length() > MAX_URL_LENGTH) {
+            throw new IllegalArgumentException("imageUrl is longer than " + MAX_URL_LENGTH + " characters");
+        }
+        if (row.id != null && row.id <= 0) {
+            throw new IllegalArgumentException("id must be a positive number");
+        }
+    }
+
+    /**
+     * Writes one batch in one transaction: a lookup of the ids being updated, then one JDBC
+     * batch of inserts and one of updates. The cache and search index are updated after commit.
+     * If the transaction fails, every row of the batch is rejected and the import goes on.
+     */
+    private void flush(List<PendingRow> batch, ProductImportResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<PendingRow> inserts = new ArrayList<>();
+        List<PendingRow> updates = new ArrayList<>();
+        List<PendingRow> missing = new ArrayList<>();
+
+        List<Product> written;
+        try {
+            written = writeBatch(batch, inserts, updates, missing);
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Product import batch of {} rows failed", batch.size(), e);
+            String message = "Not written, the batch failed: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            for (PendingRow pending : batch) {
+                if (!missing.contains(pending)) {
+                    reject(result, pending.rowNumber(), message);
+                }
+            }
+            inserts.clear();
+            updates.clear();
+            written = List.of();
+        }
+        for (PendingRow pending : missing) {
+            reject(result, pending.rowNumber(), "Product " + pending.row().id + " not found");
+        }
+
+        for (PendingRow pending : updates) {
+            productCache.invalidate(pending.row().id);
+        }
+        for (Product product : written) {
+            searchIndex.put(product);
+            stockRiskIndex.put(product);
+        }
+        result.inserted += inserts.size();
+        result.updated += updates.size();
+        batch.clear();
+    }
+
+    // The transaction of flush(): sorts the batch into inserts, updates and missing ids, and writes it
+    private List<Product> writeBatch(List<PendingRow> batch, List<PendingRow> inserts, List<PendingRow> updates,
+                                     List<PendingRow> missing) {
+        return transactionTemplate.execute(status -> {
+            Set<Long> requested = new HashSet<>();
+            for (PendingRow pending : batch) {
+                if (pending.row().id != null) {
+                    requested.add(pending.row().id);
+                }
+            }
+            Set<Long> existing = requested.isEmpty() ? Set.of() : new HashSet<>(productRepository.findExistingIds(requested));
+            for (PendingRow pending : batch) {
+                if (pending.row().id == null) {
+                    inserts.add(pending);
+                } else if (existing.contains(pending.row().id)) {
+                    updates.add(pending);
+                } else {
+                    missing.add(pending);
+                }
+            }
+            int count = inserts.size() + updates.size();
+            if (count == 0) {
+                return List.<Product>of();
+            }
+
+            // Inserts take versions first..first+inserts-1, updates the rest
+            long version = changeService.nextVersions(count);
+            List<Write> insertWrites = new ArrayList<>(inserts.size());
+            for (PendingRow pending : inserts) {
+                insertWrites.add(new Write(pending.row(), version++));
+            }
+            List<Write> updateWrites = new ArrayList<>(updates.size());
+            for (PendingRow pending : updates) {
+                updateWrites.add(new Write(pending.row(), version++));
+            }
+
+            List<Product> products = new ArrayList<>(count);
+            if (!insertWrites.isEmpty()) {
+                // The generated ids come back with the batch, one per row in order
+                KeyHolder keys = new GeneratedKeyHolder();
+                jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                        new BatchPreparedStatementSetter() {
+                            @Override
+                            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                                bindFields(ps, insertWrites.get(i).row());
+                                ps.setLong(7, insertWrites.get(i).version());
+                            }
+
+                            @Override
+                            public int getBatchSize() {
+                                return insertWrites.size();
+                            }
+                        }, keys);
+                List<Map<String, Object>> ids = keys.getKeyList();
+                for (int i = 0; i < insertWrites.size(); i++) {
+                    Number id = (Number) ids.get(i).values().iterator().next();
+                    products.add(toProduct(id.longValue(), insertWrites.get(i)));
+                }
+            }
+            if (!updateWrites.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, updateWrites, updateWrites.size(), (ps, write) -> {
+                    bindFields(ps, write.row());
+                    ps.setLong(7, write.version());
+                    ps.setLong(8, write.row().id);
+                });
+                for (Write write : updateWrites) {
+                    products.add(toProduct(write.row().id, write));
+                }
+            }
+            return products;
+        });
+    }
+
+    private static void bindFields(PreparedStatement ps, ProductImportRow row) throws SQLException {
+        ps.setString(1, row.productName);
+        setNullableString(ps, 2, row.category);
+        ps.setInt(3, row.quantity);
+        ps.setDouble(4, row.price);
+        setNullableString(ps, 5, row.supplier);
+        setNullableString(ps, 6, row.imageUrl);
+    }
+
+    private static void setNullableString(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.VARCHAR);
+        } else {
+            ps.setString(index, value);
+        }
+    }
+
+    private static Product toProduct(Long id, Write write) {
+        ProductImportRow row = write.row();
+        Product product = new Product();
+        product.setId(id);
+        product.setProductName(row.productName);
+        product.setCategory(row.category);
+        product.setQuantity(row.quantity);
+        product.setPrice(row.price);
+        product.setSupplier(row.supplier);
+        product.setImageUrl(row.imageUrl);
+        product.setChangeVersion(write.version());
+        return product;
+    }
+
+    private static void reject(ProductImportResult result, long rowNumber, String message) {
+        result.rejected++;
+        if (result.errors.size() < MAX_REPORTED_ERRORS) {
+            result.errors.add(new ProductImportResult.RowError(rowNumber, message));
+        }
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    // --- CSV field helpers (blank means "not given") ---
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Long parseLong(String value, String name) {
+        try {
+            return value == null ? null : Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a number: " + value);
+        }
+    }
+
+    private static Integer parseInt(String value, String name) {
+        try {
+            return value == null ? null : Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a whole number: " + value);
+        }
+    }
+
+    private static Double parseDouble(String value, String name) {
+        try {
+            return value == null ? null : Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a number: " + value);
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory full-text index over product name, category and supplier, for /api/products/search.
+ *
+ * Text is split into lowercase alphanumeric terms. Three lookups feed each query term:
+ *   - exact: the inverted index (term -> products)
+ *   - prefix: the term dictionary is a sorted map, so all terms starting with a prefix are one
+ *     range scan (what a trie would give us, without the per-character nodes)
+ *   - typos: every term of 4+ characters is also filed under each one-character deletion of it.
+ *     A query term finds terms within one edit (insert, delete, substitute, swap) by looking up
+ *     itself and its own deletions, then the candidates are checked with an edit distance.
+ * A product must match every query term. Score = sum over query terms of field weight times
+ * match quality, so a whole-word hit on the name outranks a fuzzy hit on the supplier.
+ * Only the most selective query term goes through the index; the products it matches are then
+ * checked against the other terms directly, and only the requested page is fully sorted.
+ *
+ * Seeded from the products table at startup and kept current by ProductController (put/remove).
+ */
+@Component
+public class ProductSearchIndex {
+
+    // One ranked match
+    public record Hit(long productId, double score) {}
+
+    // One page of hits plus the total number of matches
+    public record Result(List<Hit> hits, int total) {}
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int SUPPLIER_WEIGHT = 1;
+
+    private static final double EXACT = 1.0;
+    private static final double PREFIX = 0.6;
+    private static final double FUZZY = 0.4;
+
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+
+    private final ProductRepository productRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>(); // term -> product -> best field weight
+    private final Map<String, Set<String>> termsByDeletion = new HashMap<>();
+    private final Map<Long, Doc> docs = new HashMap<>();
+
+    // What we indexed for a product: its name (for tie-breaks) and its terms with their field weight
+    private record Doc(String name, String[] terms, int[] weights) {}
+
+    // Index terms matching one query term, with the quality of the match
+    private record TermMatch(Map<Long, Integer> products, double quality) {}
+
+    // A hit while ranking: best score first, then by name, then by id
+    private record Ranked(long id, double score, String name) implements Comparable<Ranked> {
+        @Override
+        public int compareTo(Ranked other) {
+            int byScore = Double.compare(other.score, score);
+            if (byScore != 0) {
+                return byScore;
+            }
+            int byName = name.compareTo(other.name);
+            return byName != 0 ? byName : Long.compare(id, other.id);
+        }
+    }
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        List<Product> products = productRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            termsByDeletion.clear();
+            docs.clear();
+            for (Product product : products) {
+                add(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indexed {} products for search ({} distinct terms)", products.size(), postings.size());
+    }
+
+    /**
+     * Adds or replaces a product (call after create or update).
+     */
+    public void put(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(product.getId());
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked matches for a free-text query, best first (ties by name, then id).
+     */
+    public Result search(String query, int offset, int limit) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (queryTerms.isEmpty()) {
+            return new Result(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            // Drive from the query term that matches the fewest products
+            List<TermMatch> driver = null;
+            int driverSize = Integer.MAX_VALUE;
+            String driverTerm = null;
+            for (String term : queryTerms) {
+                List<TermMatch> matches = matchTerm(term);
+                int size = 0;
+                for (TermMatch match : matches) {
+                    size += match.products().size();
+                }
+                if (size == 0) {
+                    return new Result(List.of(), 0);
+                }
+                if (size < driverSize) {
+                    driver = matches;
+                    driverSize = size;
+                    driverTerm = term;
+                }
+            }
+            queryTerms.remove(driverTerm);
+
+            Map<Long, Double> candidates = new HashMap<>(driverSize * 2);
+            for (TermMatch match : driver) {
+                match.products().forEach((id, weight) -> candidates.merge(id, weight * match.quality(), Math::max));
+            }
+
+            // Keep the best offset + limit hits in a heap with the worst kept hit on top
+            int keep = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+            PriorityQueue<Ranked> best = new PriorityQueue<>(Comparator.reverseOrder());
+            int total = 0;
+            for (Map.Entry<Long, Double> candidate : candidates.entrySet()) {
+                Doc doc = docs.get(candidate.getKey());
+                double score = candidate.getValue();
+                for (String term : queryTerms) {
+                    double termScore = scoreAgainst(doc, term);
+                    if (termScore == 0) {
+                        score = -1;
+                        break;
+                    }
+                    score += termScore;
+                }
+                if (score < 0) {
+                    continue;
+                }
+                total++;
+                Ranked hit = new Ranked(candidate.getKey(), score, doc.name());
+                if (keep == 0 || (best.size() == keep && hit.compareTo(best.peek()) > 0)) {
+                    continue; // can't make the page
+                }
+                best.add(hit);
+                if (best.size() > keep) {
+                    best.poll();
+                }
+            }
+
+            List<Ranked> ranked = new ArrayList<>(best);
+            Collections.sort(ranked);
+            List<Hit> hits = new ArrayList<>();
+            for (int i = Math.min(offset, ranked.size()); i < ranked.size(); i++) {
+                hits.add(new Hit(ranked.get(i).id, ranked.get(i).score));
+            }
+            return new Result(hits, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Index terms matching a query term: exact, by prefix, and one typo away
+    private List<TermMatch> matchTerm(String term) {
+        List<TermMatch> matches = new ArrayList<>();
+        Map<Long, Integer> exact = postings.get(term);
+        if (exact != null) {
+            matches.add(new TermMatch(exact, EXACT));
+        }
+
+        if (term.length() >= MIN_PREFIX_LENGTH) {
+            for (Map<Long, Integer> products : postings.subMap(term, false, term + Character.MAX_VALUE, false).values()) {
+                matches.add(new TermMatch(products, PREFIX));
+            }
+        }
+
+        if (term.length() >= MIN_FUZZY_LENGTH) {
+            Set<String> candidates = new HashSet<>();
+            addCandidates(candidates, term);
+            for (String deletion : deletions(term)) {
+                if (postings.containsKey(deletion)) {
+                    candidates.add(deletion); // query has one extra character
+                }
+                addCandidates(candidates, deletion);
+            }
+            candidates.remove(term);
+            for (String candidate : candidates) {
+                // Prefix matches were already counted at the better quality
+                if (!candidate.startsWith(term) && withinOneEdit(term, candidate)) {
+                    matches.add(new TermMatch(postings.get(candidate), FUZZY));
+                }
+            }
+        }
+        return matches;
+    }
+
+    // Same rules as matchTerm, applied to the terms of one product
+    private static double scoreAgainst(Doc doc, String term) {
+        double best = 0;
+        String[] terms = doc.terms();
+        for (int i = 0; i < terms.length; i++) {
+            String docTerm = terms[i];
+            double quality;
+            if (docTerm.equals(term)) {
+                quality = EXACT;
+            } else if (term.length() >= MIN_PREFIX_LENGTH && docTerm.startsWith(term)) {
+                quality = PREFIX;
+            } else if (term.length() >= MIN_FUZZY_LENGTH && withinOneEdit(term, docTerm)) {
+                quality = FUZZY;
+            } else {
+                continue;
+            }
+            best = Math.max(best, doc.weights()[i] * quality);
+        }
+        return best;
+    }
+
+    private void addCandidates(Set<String> candidates, String key) {
+        Set<String> terms = termsByDeletion.get(key);
+        if (terms != null) {
+            candidates.addAll(terms);
+        }
+    }
+
+    private void add(Product product) {
+        Map<String, Integer> weights = new HashMap<>();
+        addField(weights, product.getProductName(), NAME_WEIGHT);
+        addField(weights, product.getCategory(), CATEGORY_WEIGHT);
+        addField(weights, product.getSupplier(), SUPPLIER_WEIGHT);
+
+        Long id = product.getId();
+        weights.forEach((term, weight) -> {
+            Map<Long, Integer> matches = postings.get(term);
+            if (matches == null) {
+                matches = new HashMap<>();
+                postings.put(term, matches);
+                if (term.length() >= MIN_FUZZY_LENGTH) {
+                    for (String deletion : deletions(term)) {
+                        termsByDeletion.computeIfAbsent(deletion, key -> new HashSet<>()).add(term);
+                    }
+                }
+            }
+            matches.put(id, weight);
+        });
+        String name = product.getProductName() == null ? "" : product.getProductName().toLowerCase(Locale.ROOT);
+        String[] terms = weights.keySet().toArray(new String[0]);
+        int[] termWeights = new int[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            termWeights[i] = weights.get(terms[i]);
+        }
+        docs.put(id, new Doc(name, terms, termWeights));
+    }
+
+    private static void addField(Map<String, Integer> weights, String text, int weight) {
+        for (String term : tokenize(text)) {
+            weights.merge(term, weight, Math::max);
+        }
+    }
+
+    private void removeDoc(Long id) {
+        Doc doc = docs.remove(id);
+        if (doc == null) {
+            return;
+        }
+        for (String term : doc.terms()) {
+            Map<Long, Integer> matches = postings.get(term);
+            matches.remove(id);
+            if (matches.isEmpty()) {
+                // Last product with this term: drop it from the dictionary and the typo table
+                postings.remove(term);
+                if (term.length() >= MIN_FUZZY_LENGTH) {
+                    for (String deletion : deletions(term)) {
+                        Set<String> terms = termsByDeletion.get(deletion);
+                        terms.remove(term);
+                        if (terms.isEmpty()) {
+                            termsByDeletion.remove(deletion);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String part : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!part.isEmpty()) {
+                terms.add(part);
+            }
+        }
+        return terms;
+    }
+
+    private static Set<String> deletions(String term) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i < term.length(); i++) {
+            result.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return result;
+    }
+
+    /**
+     * True if a and b differ by at most one insertion, deletion, substitution or
+     * swap of adjacent characters.
+     */
+    static boolean withinOneEdit(String a, String b) {
+        int la = a.length();
+        int lb = b.length();
+        if (Math.abs(la - lb) > 1) {
+            return false;
+        }
+        int i = 0;
+        while (i < Math.min(la, lb) && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (la == lb) {
+            if (i == la) {
+                return true;
+            }
+            // Substitution at i, or a swap of i and i+1
+            if (a.regionMatches(i + 1, b, i + 1, la - i - 1)) {
+                return true;
+            }
+            return i + 1 < la && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+                    && a.regionMatches(i + 2, b, i + 2, la - i - 2);
+        }
+        // One extra character in the longer string at position i
+        return la > lb ? a.regionMatches(i + 1, b, i, lb - i) : b.regionMatches(i + 1, a, i, la - i);
+    }
+}
@@ -0,0 +1,8 @@
+package com.smartshelf.smartshelf.service;
+
+/**
+ * Published by InventoryService for every stock change (sale or receipt), with the
+ * signed quantity and the catalogue change version it was stamped with.
+ */
+public record ProductStockChangedEvent(Long productId, int delta, long changeVersion) {
+}
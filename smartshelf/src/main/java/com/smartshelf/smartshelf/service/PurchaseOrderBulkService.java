@@ -0,0 +1,118 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.dto.BulkPurchaseOrderResponse;
+import com.smartshelf.smartshelf.dto.BulkPurchaseOrderResponse.Outcome;
+import com.smartshelf.smartshelf.model.OrderStatus;
+import com.smartshelf.smartshelf.repository.PurchaseOrderRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.smartshelf.smartshelf.model.OrderStatus.*;
+
+/**
+ * Approves or receives many purchase orders in one transaction (a delivery with 300 lines
+ * is one request instead of 300).
+ *
+ * 1. One join query reads status, quantity, product and supplier for every id.
+ * 2. Each id is checked against the allowed transition; the ones that can't move are reported.
+ * 3. One conditional UPDATE flips all the valid POs. If it moves fewer rows than were checked,
+ *    another request changed some of them in between, and the whole call is rolled back.
+ * 4. On receive: one batched stock increment per product and one rollup upsert per supplier-month.
+ */
+@Service
+public class PurchaseOrderBulkService {
+
+    public static final int MAX_IDS = 1000;
+
+    private static final Set<OrderStatus> APPROVABLE = EnumSet.of(PENDING);
+    static final Set<OrderStatus> RECEIVABLE = EnumSet.of(APPROVED, ORDERED);
+
+    private final PurchaseOrderRepository poRepository;
+    private final InventoryService inventoryService;
+    private final SalesRollupService rollupService;
+
+    public PurchaseOrderBulkService(PurchaseOrderRepository poRepository, InventoryService inventoryService,
+                                    SalesRollupService rollupService) {
+        this.poRepository = poRepository;
+        this.inventoryService = inventoryService;
+        this.rollupService = rollupService;
+    }
+
+    // PENDING -> APPROVED
+    @Transactional
+    public BulkPurchaseOrderResponse approveAll(List<Long> ids) {
+        return transition(ids, APPROVABLE, APPROVED);
+    }
+
+    // APPROVED/ORDERED -> RECEIVED, adding the quantities to stock
+    @Transactional
+    public BulkPurchaseOrderResponse receiveAll(List<Long> ids) {
+        return transition(ids, RECEIVABLE, RECEIVED);
+    }
+
+    private BulkPurchaseOrderResponse transition(List<Long> ids, Set<OrderStatus> from, OrderStatus to) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_IDS) {
+            throw new IllegalArgumentException("Error: Send between 1 and " + MAX_IDS + " purchase order ids!");
+        }
+
+        // 1. Everything we need about the POs, in one query
+        Set<Long> distinct = new HashSet<>(ids);
+        distinct.remove(null);
+        Map<Long, PurchaseOrderRepository.BulkLineView> lines = new HashMap<>();
+        if (!distinct.isEmpty()) {
+            for (PurchaseOrderRepository.BulkLineView line : poRepository.findBulkLines(distinct)) {
+                lines.put(line.getId(), line);
+            }
+        }
+
+        // 2. Per-id checks, in request order
+        BulkPurchaseOrderResponse response = new BulkPurchaseOrderResponse();
+        List<PurchaseOrderRepository.BulkLineView> accepted = new ArrayList<>();
+        Map<Long, OrderStatus> statusAfter = new HashMap<>(); // ids already answered
+        for (Long id : ids) {
+            PurchaseOrderRepository.BulkLineView line = lines.get(id);
+            if (line == null) {
+                response.getResults().add(new Outcome(id, "NOT_FOUND", null));
+            } else if (statusAfter.containsKey(id)) {
+                response.getResults().add(new Outcome(id, "DUPLICATE", statusAfter.get(id)));
+            } else if (!from.contains(line.getStatus())) {
+                response.getResults().add(new Outcome(id, "INVALID_STATUS", line.getStatus()));
+                statusAfter.put(id, line.getStatus());
+            } else {
+                response.getResults().add(new Outcome(id, "OK", to));
+                statusAfter.put(id, to);
+                accepted.add(line);
+            }
+        }
+        response.setProcessed(accepted.size());
+        if (accepted.isEmpty()) {
+            return response;
+        }
+
+        // 3. All status flips in one statement, guarded by the expected status
+        int moved = poRepository.updateStatus(accepted.stream().map(PurchaseOrderRepository.BulkLineView::getId).toList(), from, to);
+        if (moved != accepted.size()) {
+            throw new IllegalStateException("Error: Some purchase orders were changed by someone else, nothing was updated. Please try again!");
+        }
+
+        // 4. Stock and supplier rollup for what arrived
+        if (to == RECEIVED) {
+            Map<Long, Integer> byProduct = new LinkedHashMap<>();
+            for (PurchaseOrderRepository.BulkLineView line : accepted) {
+                byProduct.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+            }
+            inventoryService.incrementAll(byProduct);
+            rollupService.recordReceipts(accepted);
+        }
+        return response;
+    }
+}
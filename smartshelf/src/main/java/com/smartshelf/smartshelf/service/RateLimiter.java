@@ -0,0 +1,151 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets for RateLimitFilter, one per route and caller (user email, or IP address).
+ *
+ * A bucket is a single AtomicLong: the time at which it will be full again (the GCRA form
+ * of a token bucket). Each request moves that time forward by one refill interval with a
+ * compareAndSet, and is refused if it would end up more than "capacity" intervals ahead.
+ * There is no lock and no per-request allocation besides the key string.
+ *
+ * Buckets live in STRIPES ConcurrentHashMaps picked by the key's hash, so the idle sweep
+ * walks one stripe at a time. A bucket that is full again is the same as a new one, so
+ * the sweep drops those that have been full for idle-evict-seconds; the map holds only
+ * callers seen recently.
+ */
+@Component
+public class RateLimiter {
+
+    static final int STRIPES = 64;
+
+    /**
+     * allowed, or retryAfterSeconds: when the caller's next request would be let through.
+     */
+    public record Decision(boolean allowed, long retryAfterSeconds) {
+        static final Decision ALLOWED = new Decision(true, 0);
+    }
+
+    // A configured route, with its bucket parameters in nanoseconds
+    public record Limit(String name, String method, List<String> paths, long intervalNanos, long burstNanos, Counter rejected) {}
+
+    private static final AntPathMatcher PATHS = new AntPathMatcher();
+
+    private final List<Limit> limits = new ArrayList<>();
+    private final boolean enabled;
+    private final long idleEvictNanos;
+    private final LongSupplier nanoClock;
+
+    @SuppressWarnings("unchecked")
+    private final ConcurrentHashMap<String, AtomicLong>[] stripes = new ConcurrentHashMap[STRIPES];
+
+    @Autowired
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.enabled = properties.isEnabled();
+        this.idleEvictNanos = TimeUnit.SECONDS.toNanos(properties.getIdleEvictSeconds());
+        this.nanoClock = nanoClock;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        for (Map.Entry<String, RateLimitProperties.Route> entry : properties.getRoutes().entrySet()) {
+            RateLimitProperties.Route route = entry.getValue();
+            if (route.getCapacity() < 1 || route.getRefillPerSecond() <= 0) {
+                throw new IllegalArgumentException("Rate limit " + entry.getKey() + ": capacity must be >= 1 and refill-per-second > 0");
+            }
+            long interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / route.getRefillPerSecond()));
+            Counter rejected = Counter.builder("smartshelf.rate-limit.rejected")
+                    .description("Requests refused with 429 by the rate limiter")
+                    .tag("route", entry.getKey())
+                    .register(meterRegistry);
+            Limit limit = new Limit(entry.getKey(), route.getMethod(), List.copyOf(route.getPaths()),
+                    interval, interval * route.getCapacity(), rejected);
+            limits.add(limit);
+        }
+        Gauge.builder("smartshelf.rate-limit.buckets", this, RateLimiter::size)
+                .description("Callers currently tracked by the rate limiter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The first configured route matching the request, or null if it isn't limited.
+     */
+    public Limit match(String method, String path) {
+        if (!enabled) {
+            return null;
+        }
+        for (Limit limit : limits) {
+            if (limit.method() != null && !limit.method().equalsIgnoreCase(method)) {
+                continue;
+            }
+            for (String pattern : limit.paths()) {
+                if (PATHS.match(pattern, path)) {
+                    return limit;
+                }
+            }
+        }
+        return null;
+    }
+
+    public Decision tryAcquire(Limit limit, String caller) {
+        String key = limit.name() + '|' + caller;
+        long now = nanoClock.getAsLong();
+        AtomicLong fullAt = stripe(key).computeIfAbsent(key, k -> new AtomicLong(now));
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + limit.intervalNanos();
+            long over = next - now - limit.burstNanos();
+            if (over > 0) {
+                limit.rejected().increment();
+                return new Decision(false, Math.max(1, (over + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1)));
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return Decision.ALLOWED;
+            }
+        }
+    }
+
+    /**
+     * Drops buckets that have been full for idle-evict-seconds. A request racing with the
+     * removal may have its token forgotten, which only ever lets one extra request through.
+     */
+    @Scheduled(fixedDelayString = "${smartshelf.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = nanoClock.getAsLong() - idleEvictNanos;
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            stripe.values().removeIf(fullAt -> fullAt.get() - cutoff <= 0);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private ConcurrentHashMap<String, AtomicLong> stripe(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+}
@@ -0,0 +1,11 @@
+package com.smartshelf.smartshelf.service;
+
+import java.time.Instant;
+
+/**
+ * Published whenever a sale is accepted, on every ingest path (single, batch, journal).
+ * Listeners that keep derived in-memory state (demand windows, rankings...) use it
+ * instead of rescanning the sales table. unitPrice is the product price at the time of sale.
+ */
+public record SaleRecordedEvent(Long productId, int quantitySold, double unitPrice, Instant saleDate) {
+}
@@ -0,0 +1,134 @@
+package com.smartshelf.smartshelf.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.smartshelf.smartshelf.dto.SalesResponse;
+import com.smartshelf.smartshelf.model.Sales;
+import com.smartshelf.smartshelf.repository.SalesRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the sales report straight from a database cursor to the response, one row at a time.
+ *
+ * Rows come from SalesRepository.streamForExport (fetch size 1000) inside a read-only
+ * transaction, and the persistence context is cleared every CLEAR_EVERY rows, so neither
+ * the entity cache nor a result list grows with the date range.
+ */
+@Service
+public class SalesExportService {
+
+    public enum Format { CSV, NDJSON }
+
+    static final int CLEAR_EVERY = 1000;
+    static final String CSV_HEADER = "id,productId,productName,quantitySold,price,saleDate";
+
+    private final SalesRepository salesRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public SalesExportService(SalesRepository salesRepository,
+                              EntityManager entityManager,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager) {
+        this.salesRepository = salesRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Streams all sales in [start, end] (null = unbounded) to out. Returns the number of rows written.
+     */
+    public long export(Instant start, Instant end, Format format, OutputStream out) {
+        Long rows = transactionTemplate.execute(status -> {
+            try (Stream<Sales> sales = salesRepository.streamForExport(start, end)) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+                long written = format == Format.CSV ? writeCsv(sales.iterator(), writer) : writeNdjson(sales.iterator(), writer);
+                writer.flush();
+                return written;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    private long writeCsv(Iterator<Sales> sales, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long count = 0;
+        while (sales.hasNext()) {
+            SalesResponse row = new SalesResponse(sales.next());
+            writer.write(String.valueOf(row.getId()));
+            writer.write(',');
+            writer.write(String.valueOf(row.getProductId()));
+            writer.write(',');
+            writer.write(csvField(row.getProductName()));
+            writer.write(',');
+            writer.write(Integer.toString(row.getQuantitySold()));
+            writer.write(',');
+            writer.write(Double.toString(row.getPrice()));
+            writer.write(',');
+            writer.write(String.valueOf(row.getSaleDate()));
+            writer.write('\n');
+            afterRow(++count, writer);
+        }
+        return count;
+    }
+
+    private long writeNdjson(Iterator<Sales> sales, Writer writer) throws IOException {
+        long count = 0;
+        // One JSON object per line; the writer is left open (and flushed in chunks) by us
+        try (SequenceWriter json = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n")
+                .writeValues(writer)) {
+            while (sales.hasNext()) {
+                json.write(new SalesResponse(sales.next()));
+                afterRow(++count, writer);
+            }
+        }
+        if (count > 0) {
+            writer.write('\n');
+        }
+        return count;
+    }
+
+    // Keeps memory flat: drop managed entities and push bytes to the client in chunks
+    private void afterRow(long count, Writer writer) throws IOException {
+        if (count % CLEAR_EVERY == 0) {
+            entityManager.clear();
+            writer.flush();
+        }
+    }
+
+    // RFC 4180: quote fields containing commas, quotes or line breaks
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,296 @@
+package com.smartshelf.smartshelf.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A local, memory-mapped, append-only journal of sales.
+ *
+ * File layout:
+ *   header (32 bytes): magic, version, drainedSeq, headOffset, journalId
+ *   records (36 bytes each): crc, seq, productId, quantity, epochSecond, nano
+ *
+ * Records carry a strictly increasing sequence number and a CRC32 of their body.
+ * On open, the journal scans forward from headOffset and keeps every record whose
+ * CRC matches and whose seq is the next expected one; a torn write or stale record
+ * from before a rewind ends the log. When everything has been drained the write
+ * position rewinds to the start of the file, so the file never grows.
+ *
+ * journalId is picked at random when the file is created (0 in files from before it
+ * existed) and names this journal's checkpoint in the database.
+ *
+ * The quantity also carries the record's state: a record appended with appendPending has
+ * a negative quantity until confirm() makes it positive (its sale committed) or cancel()
+ * sets it to 0 (rolled back). Cancelled records keep their seq and are skipped by the
+ * drainer; a pending one holds the drainer back until it is settled.
+ *
+ * Appends are cheap (a copy into the mapping); durability comes from awaitDurable,
+ * which groups concurrent callers behind a single force() of the mapping.
+ */
+public class SalesJournal implements Closeable {
+
+    static final int MAGIC = 0x534A4E4C; // "SJNL"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 36;
+
+    // A sale waiting to be written to the sales table (quantity < 0: pending, 0: cancelled)
+    public record Entry(long seq, long productId, int quantity, Instant saleDate) {}
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final Object forceLock = new Object();
+    private final long journalId;
+
+    // Guarded by "this"
+    private int writeOffset;
+    private int headOffset;
+    private long drainedSeq;
+
+    private volatile long appendedSeq;
+    private volatile long durableSeq;
+
+    public SalesJournal(Path path, int capacityBytes) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Never shrink an existing journal: it may still hold undrained records
+        long requested = Math.max(capacityBytes, HEADER_SIZE + RECORD_SIZE);
+        this.capacity = (int) Math.max(channel.size(), requested);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+
+        if (buffer.getInt(0) != MAGIC) {
+            long id;
+            do {
+                id = new SecureRandom().nextLong();
+            } while (id == 0);
+            buffer.putLong(24, id);
+            drainedSeq = 0;
+            headOffset = HEADER_SIZE;
+            writeOffset = HEADER_SIZE;
+            writeHeader();
+        } else {
+            recover();
+        }
+        this.journalId = buffer.getLong(24);
+    }
+
+    // Rebuilds the in-memory positions from the header and the valid records after it
+    private void recover() {
+        drainedSeq = buffer.getLong(8);
+        headOffset = (int) buffer.getLong(16);
+        long expected = drainedSeq + 1;
+        int offset = headOffset;
+        while (offset + RECORD_SIZE <= capacity && isValidRecord(offset, expected)) {
+            offset += RECORD_SIZE;
+            expected++;
+        }
+        writeOffset = offset;
+        appendedSeq = expected - 1;
+        durableSeq = appendedSeq;
+    }
+
+    /**
+     * Appends a sale and returns its sequence number, or -1 if the journal is full
+     * (the caller should then write the sale directly).
+     */
+    public synchronized long append(long productId, int quantity, Instant saleDate) {
+        if (writeOffset + RECORD_SIZE > capacity) {
+            if (headOffset != writeOffset) {
+                return -1;
+            }
+            rewind();
+        }
+
+        long seq = appendedSeq + 1;
+        int offset = writeOffset;
+        buffer.putLong(offset + 4, seq);
+        buffer.putLong(offset + 12, productId);
+        buffer.putInt(offset + 20, quantity);
+        buffer.putLong(offset + 24, saleDate.getEpochSecond());
+        buffer.putInt(offset + 32, saleDate.getNano());
+        buffer.putInt(offset, checksum(offset));
+
+        writeOffset = offset + RECORD_SIZE;
+        appendedSeq = seq;
+        return seq;
+    }
+
+    /**
+     * Appends a sale whose transaction hasn't ended yet; settle it with confirm or cancel.
+     * Returns its sequence number, or -1 if the journal is full.
+     */
+    public long appendPending(long productId, int quantity, Instant saleDate) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("A pending sale needs a positive quantity");
+        }
+        return append(productId, -quantity, saleDate);
+    }
+
+    /**
+     * Blocks until the record with the given seq is on disk.
+     * Callers that arrive while a force() is running wait for it and usually
+     * find their record already covered, so one fsync serves the whole group.
+     */
+    public void awaitDurable(long seq) {
+        if (seq <= durableSeq) {
+            return;
+        }
+        synchronized (forceLock) {
+            if (seq <= durableSeq) {
+                return;
+            }
+            long target = appendedSeq; // everything appended so far is in the mapping
+            buffer.force();
+            durableSeq = target;
+        }
+    }
+
+    /**
+     * Returns up to max undrained entries, oldest first, without removing them.
+     */
+    public synchronized List<Entry> peek(int max) {
+        List<Entry> entries = new ArrayList<>();
+        int offset = headOffset;
+        while (offset < writeOffset && entries.size() < max) {
+            entries.add(new Entry(
+                    buffer.getLong(offset + 4),
+                    buffer.getLong(offset + 12),
+                    buffer.getInt(offset + 20),
+                    Instant.ofEpochSecond(buffer.getLong(offset + 24), buffer.getInt(offset + 32))));
+            offset += RECORD_SIZE;
+        }
+        return entries;
+    }
+
+    /**
+     * Voids an undrained entry (its sale was rolled back): it keeps its place, with quantity 0.
+     */
+    public synchronized void cancel(long seq) {
+        if (seq <= drainedSeq || seq > appendedSeq) {
+            return;
+        }
+        setQuantity(offsetOf(seq), 0);
+    }
+
+    /**
+     * Settles a pending entry whose sale committed, so the drainer can copy it.
+     */
+    public synchronized void confirm(long seq) {
+        if (seq <= drainedSeq || seq > appendedSeq) {
+            return;
+        }
+        int offset = offsetOf(seq);
+        int quantity = buffer.getInt(offset + 20);
+        if (quantity < 0) {
+            setQuantity(offset, -quantity);
+        }
+    }
+
+    /**
+     * Cancels every entry still pending, e.g. on startup after a crash: their transactions
+     * are gone. Returns how many there were.
+     */
+    public synchronized int cancelPending() {
+        int cancelled = 0;
+        for (int offset = headOffset; offset < writeOffset; offset += RECORD_SIZE) {
+            if (buffer.getInt(offset + 20) < 0) {
+                setQuantity(offset, 0);
+                cancelled++;
+            }
+        }
+        return cancelled;
+    }
+
+    private int offsetOf(long seq) {
+        return headOffset + (int) (seq - drainedSeq - 1) * RECORD_SIZE;
+    }
+
+    private void setQuantity(int offset, int quantity) {
+        buffer.putInt(offset + 20, quantity);
+        buffer.putInt(offset, checksum(offset));
+    }
+
+    /**
+     * Marks every entry up to and including seq as written to the database.
+     */
+    public synchronized void markDrained(long seq) {
+        long last = Math.min(seq, appendedSeq);
+        if (last <= drainedSeq) {
+            return;
+        }
+        headOffset += (int) (last - drainedSeq) * RECORD_SIZE;
+        drainedSeq = last;
+        if (headOffset == writeOffset && writeOffset > capacity / 2) {
+            rewind();
+        } else {
+            writeHeader();
+        }
+    }
+
+    // Only valid when everything has been drained: later records restart at the top of the file
+    private void rewind() {
+        headOffset = HEADER_SIZE;
+        writeOffset = HEADER_SIZE;
+        writeHeader();
+    }
+
+    private void writeHeader() {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(8, drainedSeq);
+        buffer.putLong(16, headOffset);
+        buffer.force(0, HEADER_SIZE);
+    }
+
+    private boolean isValidRecord(int offset, long expectedSeq) {
+        return buffer.getLong(offset + 4) == expectedSeq && buffer.getInt(offset) == checksum(offset);
+    }
+
+    private int checksum(int offset) {
+        CRC32 crc = new CRC32();
+        ByteBuffer body = buffer.slice(offset + 4, RECORD_SIZE - 4);
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    public long getJournalId() {
+        return journalId;
+    }
+
+    // --- Stats ---
+
+    public long getAppendedSeq() {
+        return appendedSeq;
+    }
+
+    public synchronized long getDrainedSeq() {
+        return drainedSeq;
+    }
+
+    // Number of sales acknowledged but not yet in the sales table
+    public synchronized long getLag() {
+        return appendedSeq - drainedSeq;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
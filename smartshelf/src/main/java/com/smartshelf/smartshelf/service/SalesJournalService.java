@@ -0,0 +1,238 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.dto.SalesResponse;
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.model.SalesJournalCheckpoint;
+import com.smartshelf.smartshelf.repository.InstantBinder;
+import com.smartshelf.smartshelf.repository.SalesJournalCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Write-behind ingest mode for POST /api/sales (smartshelf.sales.ingest-mode=journal).
+ *
+ * The stock is still taken synchronously and atomically, but the sales row is only
+ * appended to the local SalesJournal and acknowledged once it is on disk. A scheduled
+ * drainer copies journal entries into the sales table in large JDBC batches, and on
+ * startup any entries left over from a crash are replayed before new sales are accepted.
+ *
+ * The journal entry is appended as pending inside the transaction that takes the stock,
+ * and settled in the journal itself when that transaction ends: confirmed if it committed,
+ * cancelled if not. The drainer stops at the first pending entry. A sale therefore costs
+ * the database only its stock UPDATE; the sales row and the checkpoint are written by the
+ * drainer, a batch at a time.
+ *
+ * Entries still pending on startup belong to transactions the crash ended, and are
+ * cancelled. Almost all of them rolled back; one that had committed in the instant before
+ * the crash, or whose confirm hadn't been forced when the machine (not just the process)
+ * went down, took its stock without getting a sales row. Either way the sale was never
+ * acknowledged: durability is awaited after the commit, so concurrent sales still share
+ * one force(). The number cancelled is logged.
+ *
+ * Each journal file has its own checkpoint row (named after its journalId), so
+ * instances sharing a database don't overwrite each other's progress.
+ */
+@Service
+@ConditionalOnProperty(name = "smartshelf.sales.ingest-mode", havingValue = "journal")
+public class SalesJournalService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesJournalService.class);
+    // Checkpoint of a journal file from before journal ids
+    private static final String LEGACY_JOURNAL_NAME = "sales";
+
+    private final InventoryService inventoryService;
+    private final ProductCache productCache;
+    private final SalesJournalCheckpointRepository checkpointRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final InstantBinder instantBinder;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Path journalPath;
+    private final int capacityBytes;
+    private final int batchSize;
+
+    private SalesJournal journal;
+    private String journalName;
+    private DistributionSummary batchSizes;
+    private Counter fallbacks;
+    private volatile int lastBatchSize;
+
+    public SalesJournalService(InventoryService inventoryService,
+                               ProductCache productCache,
+                               SalesJournalCheckpointRepository checkpointRepository,
+                               JdbcTemplate jdbcTemplate,
+                               InstantBinder instantBinder,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${smartshelf.sales.journal.path:data/sales-journal.dat}") String journalPath,
+                               @Value("${smartshelf.sales.journal.capacity-mb:64}") int capacityMb,
+                               @Value("${smartshelf.sales.journal.drain-batch-size:1000}") int batchSize) {
+        this.inventoryService = inventoryService;
+        this.productCache = productCache;
+        this.checkpointRepository = checkpointRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.instantBinder = instantBinder;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+        this.journalPath = Path.of(journalPath);
+        if (capacityMb < 1 || capacityMb > 2047) {
+            throw new IllegalArgumentException("smartshelf.sales.journal.capacity-mb must be between 1 and 2047");
+        }
+        this.capacityBytes = (int) (capacityMb * 1024L * 1024L);
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        journal = new SalesJournal(journalPath, capacityBytes);
+        journalName = journal.getJournalId() == 0 ? LEGACY_JOURNAL_NAME : "sales-" + Long.toHexString(journal.getJournalId());
+
+        // The DB checkpoint wins: those entries are already in the sales table
+        SalesJournalCheckpoint checkpoint = checkpointRepository.findById(journalName)
+                .orElseGet(() -> checkpointRepository.save(new SalesJournalCheckpoint(journalName, 0)));
+        journal.markDrained(checkpoint.getDrainedSeq());
+
+        int cancelled = journal.cancelPending();
+        if (cancelled > 0) {
+            log.warn("Cancelled {} sales from {} that were still being committed at the crash; " +
+                    "any whose stock was already taken have no sales row", cancelled, journalPath);
+        }
+
+        Gauge.builder("smartshelf.sales.journal.lag", journal, SalesJournal::getLag)
+                .description("Sales acknowledged but not yet written to the sales table")
+                .register(meterRegistry);
+        Gauge.builder("smartshelf.sales.journal.last.batch.size", this, s -> s.lastBatchSize)
+                .register(meterRegistry);
+        batchSizes = DistributionSummary.builder("smartshelf.sales.journal.batch.size")
+                .description("Rows per drained JDBC batch")
+                .register(meterRegistry);
+        fallbacks = Counter.builder("smartshelf.sales.journal.fallbacks")
+                .description("Sales written directly because the journal was full")
+                .register(meterRegistry);
+
+        long pending = journal.getLag();
+        if (pending > 0) {
+            log.info("Replaying {} undrained sales from {}", pending, journalPath);
+            drain();
+        }
+    }
+
+    /**
+     * Takes the stock, journals the sale and returns once it is durable.
+     * Throws IllegalArgumentException (same messages as the direct path) if rejected.
+     */
+    public SalesResponse recordSale(Long productId, int quantitySold) {
+        Instant saleDate = Instant.now();
+        long seq = transactionTemplate.execute(status -> {
+            inventoryService.takeStock(productId, quantitySold);
+            long appended = append(productId, quantitySold, saleDate);
+            if (appended < 0) {
+                // Journal full (drainer far behind): fall back to a synchronous insert
+                fallbacks.increment();
+                jdbcTemplate.update(SalesService.INSERT_SALE_SQL, ps -> {
+                    ps.setLong(1, productId);
+                    ps.setInt(2, quantitySold);
+                    instantBinder.bind(ps, 3, saleDate);
+                });
+            }
+            return appended;
+        });
+        if (seq > 0) {
+            journal.awaitDurable(seq);
+        }
+        double unitPrice = productCache.findById(productId).map(Product::getPrice).orElse(0.0);
+        eventPublisher.publishEvent(new SaleRecordedEvent(productId, quantitySold, unitPrice, saleDate));
+
+        SalesResponse response = new SalesResponse();
+        response.setProductId(productId);
+        response.setQuantitySold(quantitySold);
+        response.setSaleDate(saleDate);
+        return response;
+    }
+
+    // Appends as part of the current transaction: confirmed if it commits, cancelled if not
+    private long append(Long productId, int quantitySold, Instant saleDate) {
+        long seq = journal.appendPending(productId, quantitySold, saleDate);
+        if (seq < 0) {
+            return seq;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    journal.confirm(seq);
+                } else {
+                    journal.cancel(seq);
+                }
+            }
+        });
+        return seq;
+    }
+
+    /**
+     * Copies journal entries into the sales table up to the first one whose transaction
+     * is still open. Each batch and its checkpoint commit together.
+     */
+    @Scheduled(fixedDelayString = "${smartshelf.sales.journal.drain-interval-ms:200}")
+    public synchronized void drain() {
+        List<SalesJournal.Entry> batch;
+        while (!(batch = journal.peek(batchSize)).isEmpty() && batch.get(0).quantity() >= 0) {
+            List<SalesJournal.Entry> ready = batch.stream().takeWhile(entry -> entry.quantity() >= 0).toList();
+            List<SalesJournal.Entry> rows = ready.stream().filter(entry -> entry.quantity() > 0).toList();
+            long lastSeq = ready.get(ready.size() - 1).seq();
+
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!rows.isEmpty()) {
+                    jdbcTemplate.batchUpdate(SalesService.INSERT_SALE_SQL, rows, rows.size(), (ps, entry) -> {
+                        ps.setLong(1, entry.productId());
+                        ps.setInt(2, entry.quantity());
+                        instantBinder.bind(ps, 3, entry.saleDate());
+                    });
+                }
+                checkpointRepository.markDrained(journalName, lastSeq);
+            });
+
+            journal.markDrained(lastSeq);
+            lastBatchSize = rows.size();
+            batchSizes.record(rows.size());
+        }
+    }
+
+    public long getLag() {
+        return journal.getLag();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        try {
+            drain();
+        } finally {
+            journal.close();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.model.OrderStatus;
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.model.PurchaseOrder;
+import com.smartshelf.smartshelf.model.RollupWatermark;
+import com.smartshelf.smartshelf.repository.PurchaseOrderRepository;
+import com.smartshelf.smartshelf.repository.PurchaseSupplierMonthlyRollupRepository;
+import com.smartshelf.smartshelf.repository.RollupWatermarkRepository;
+import com.smartshelf.smartshelf.repository.SalesCategoryMonthlyRollupRepository;
+import com.smartshelf.smartshelf.repository.SalesDailyRollupRepository;
+import com.smartshelf.smartshelf.repository.SalesRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the analytics rollup tables up to date:
+ *   sales_daily_rollup                product x day
+ *   sales_category_monthly_rollup     category x month
+ *   purchase_supplier_monthly_rollup  supplier x month (RECEIVED POs)
+ *
+ * Sales reach the rollups through a catch-up job that aggregates every sale above a
+ * sales-id watermark and advances the watermark in the same transaction. That covers
+ * every ingest path (single, batch, journal drain) without touching them. The watermark
+ * row is locked for the whole pass, so instances running the job at the same time take
+ * turns instead of adding the same sales twice. PO receipts
+ * are added in the receiving transaction itself. rebuild() recomputes everything
+ * from the base tables, e.g. after a price correction or a manual data fix.
+ */
+@Service
+public class SalesRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+    private static final String WATERMARK = "sales";
+
+    static final String UPSERT_DAILY_SQL =
+            "INSERT INTO sales_daily_rollup (product_id, sale_day, units, revenue) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE units = units + VALUES(units), revenue = revenue + VALUES(revenue)";
+    static final String UPSERT_CATEGORY_SQL =
+            "INSERT INTO sales_category_monthly_rollup (category, month_start, units, revenue) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE units = units + VALUES(units), revenue = revenue + VALUES(revenue)";
+    static final String UPSERT_SUPPLIER_SQL =
+            "INSERT INTO purchase_supplier_monthly_rollup (supplier, month_start, units, cost) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE units = units + VALUES(units), cost = cost + VALUES(cost)";
+
+    // Totals for one category-month or supplier-month key
+    private static final class Totals {
+        long units;
+        double amount;
+    }
+
+    private record MonthKey(String name, LocalDate monthStart) {}
+
+    private final SalesRepository salesRepository;
+    private final PurchaseOrderRepository poRepository;
+    private final SalesDailyRollupRepository dailyRepository;
+    private final SalesCategoryMonthlyRollupRepository categoryRepository;
+    private final PurchaseSupplierMonthlyRollupRepository supplierRepository;
+    private final RollupWatermarkRepository watermarkRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration settle;
+
+    public SalesRollupService(SalesRepository salesRepository,
+                              PurchaseOrderRepository poRepository,
+                              SalesDailyRollupRepository dailyRepository,
+                              SalesCategoryMonthlyRollupRepository categoryRepository,
+                              PurchaseSupplierMonthlyRollupRepository supplierRepository,
+                              RollupWatermarkRepository watermarkRepository,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${smartshelf.rollup.settle-ms:10000}") long settleMs) {
+        this.salesRepository = salesRepository;
+        this.poRepository = poRepository;
+        this.dailyRepository = dailyRepository;
+        this.categoryRepository = categoryRepository;
+        this.supplierRepository = supplierRepository;
+        this.watermarkRepository = watermarkRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settle = Duration.ofMillis(settleMs);
+    }
+
+    // First start on an existing database: build the rollups once from history
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (watermarkRepository.existsById(WATERMARK)) {
+            catchUp();
+        } else {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${smartshelf.rollup.catch-up-interval-ms:30000}")
+    public void scheduledCatchUp() {
+        catchUp();
+    }
+
+    /**
+     * Adds every sale above the watermark (and inserted before the settle delay) to the rollups.
+     * Returns the number of sales ids covered.
+     */
+    public synchronized long catchUp() {
+        Long covered = transactionTemplate.execute(status -> {
+            // Locked before "to" is read; if there is no row yet, two first runs collide on the insert
+            RollupWatermark watermark = watermarkRepository.findForUpdate(WATERMARK)
+                    .orElseGet(() -> new RollupWatermark(WATERMARK, 0));
+            long from = watermark.getLastSaleId();
+            long to = salesRepository.findMaxIdRecordedBefore(from, settle.toNanos() / 1000);
+            if (to <= from) {
+                return 0L;
+            }
+            addSales(from, to);
+            watermark.setLastSaleId(to);
+            watermarkRepository.save(watermark);
+            return to - from;
+        });
+        return covered == null ? 0 : covered;
+    }
+
+    /**
+     * Recomputes all three rollup tables from sales and purchase_orders in one transaction.
+     */
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            // Waits for a catch-up in progress elsewhere, and holds off new ones until we commit
+            watermarkRepository.findForUpdate(WATERMARK);
+            dailyRepository.deleteAllInBatch();
+            categoryRepository.deleteAllInBatch();
+            supplierRepository.deleteAllInBatch();
+
+            long to = salesRepository.findMaxIdRecordedBefore(0, settle.toNanos() / 1000);
+            addSales(0, to);
+            watermarkRepository.save(new RollupWatermark(WATERMARK, to));
+
+            List<Object[]> supplierRows = new ArrayList<>();
+            for (PurchaseOrderRepository.SupplierMonthlyView row : poRepository.sumBySupplierAndMonth(OrderStatus.RECEIVED)) {
+                supplierRows.add(new Object[]{row.getSupplier(), LocalDate.of(row.getYear(), row.getMonth(), 1),
+                        row.getUnits(), row.getCost()});
+            }
+            jdbcTemplate.batchUpdate(UPSERT_SUPPLIER_SQL, supplierRows);
+        });
+        log.info("Rebuilt analytics rollups in {} ms", Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    /**
+     * Adds a received PO to the supplier rollup. Must run inside the receiving transaction,
+     * so the stock change, the RECEIVED status and the rollup commit (or roll back) together.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordReceipt(PurchaseOrder po) {
+        Product product = po.getProduct();
+        String supplier = product.getSupplier() != null ? product.getSupplier() : "Unknown";
+        LocalDate monthStart = monthStart(LocalDate.ofInstant(po.getCreatedAt(), ZoneOffset.UTC));
+        jdbcTemplate.update(UPSERT_SUPPLIER_SQL, supplier, monthStart, po.getQuantity(), po.getQuantity() * product.getPrice());
+    }
+
+    /**
+     * Same as recordReceipt for many POs at once: one upsert per supplier-month in a single batch.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordReceipts(List<PurchaseOrderRepository.BulkLineView> lines) {
+        Map<MonthKey, Totals> bySupplierMonth = new HashMap<>();
+        for (PurchaseOrderRepository.BulkLineView line : lines) {
+            String supplier = line.getSupplier() != null ? line.getSupplier() : "Unknown";
+            LocalDate monthStart = monthStart(LocalDate.ofInstant(line.getCreatedAt(), ZoneOffset.UTC));
+            Totals totals = bySupplierMonth.computeIfAbsent(new MonthKey(supplier, monthStart), k -> new Totals());
+            totals.units += line.getQuantity();
+            totals.amount += line.getQuantity() * line.getPrice();
+        }
+        List<Object[]> rows = new ArrayList<>(bySupplierMonth.size());
+        bySupplierMonth.forEach((key, totals) ->
+                rows.add(new Object[]{key.name(), key.monthStart(), totals.units, totals.amount}));
+        jdbcTemplate.batchUpdate(UPSERT_SUPPLIER_SQL, rows);
+    }
+
+    // Aggregates sales with from < id <= to into the daily and category-month rollups
+    private void addSales(long from, long to) {
+        List<Object[]> dailyRows = new ArrayList<>();
+        Map<MonthKey, Totals> byCategoryMonth = new HashMap<>();
+        for (SalesRepository.RollupSourceView row : salesRepository.sumForRollup(from, to)) {
+            dailyRows.add(new Object[]{row.getProductId(), row.getDay(), row.getUnits(), row.getRevenue()});
+            String category = row.getCategory() != null ? row.getCategory() : "Uncategorized";
+            Totals totals = byCategoryMonth.computeIfAbsent(new MonthKey(category, monthStart(row.getDay())), k -> new Totals());
+            totals.units += row.getUnits();
+            totals.amount += row.getRevenue();
+        }
+
+        List<Object[]> categoryRows = new ArrayList<>(byCategoryMonth.size());
+        byCategoryMonth.forEach((key, totals) ->
+                categoryRows.add(new Object[]{key.name(), key.monthStart(), totals.units, totals.amount}));
+
+        jdbcTemplate.batchUpdate(UPSERT_DAILY_SQL, dailyRows);
+        jdbcTemplate.batchUpdate(UPSERT_CATEGORY_SQL, categoryRows);
+    }
+
+    private static LocalDate monthStart(LocalDate day) {
+        return day.withDayOfMonth(1);
+    }
+}
@@ -0,0 +1,171 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.dto.BatchSalesResponse;
+import com.smartshelf.smartshelf.dto.BatchSalesResponse.LineResult;
+import com.smartshelf.smartshelf.dto.SalesRequest;
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.model.Sales;
+import com.smartshelf.smartshelf.repository.InstantBinder;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import com.smartshelf.smartshelf.repository.SalesRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.time.Instant;
+import java.util.*;
+
+@Service
+public class SalesService {
+
+    static final String INSERT_SALE_SQL =
+            "INSERT INTO sales (product_id, quantity_sold, sale_date) VALUES (?, ?, ?)";
+
+    private final ProductRepository productRepository;
+    private final SalesRepository salesRepository;
+    private final InventoryService inventoryService;
+    private final JdbcTemplate jdbcTemplate;
+    private final InstantBinder instantBinder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductCache productCache;
+
+    @Autowired
+    public SalesService(ProductRepository productRepository,
+                        SalesRepository salesRepository,
+                        InventoryService inventoryService,
+                        JdbcTemplate jdbcTemplate,
+                        InstantBinder instantBinder,
+                        ApplicationEventPublisher eventPublisher,
+                        ProductCache productCache) {
+        this.productRepository = productRepository;
+        this.salesRepository = salesRepository;
+        this.inventoryService = inventoryService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.instantBinder = instantBinder;
+        this.eventPublisher = eventPublisher;
+        this.productCache = productCache;
+    }
+
+    /**
+     * Records a single sale. The stock check and decrement are one atomic UPDATE,
+     * and the sales row is inserted in the same transaction.
+     * Throws IllegalArgumentException with a user-facing message if the sale is rejected.
+     */
+    @Transactional
+    public Sales recordSale(Long productId, int quantitySold) {
+        // Read (usually from the cache) before the UPDATE, so a miss never caches our own uncommitted stock.
+        // A detached copy: the sale only needs its id. The returned sale shows the stock the
+        // UPDATE left, which is the cached figure minus this sale only if the cache was current
+        Product product = productCache.findById(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Error: Product not found!"));
+        product.setQuantity(inventoryService.takeStock(product, quantitySold));
+
+        Sales newSale = new Sales();
+        newSale.setProduct(product);
+        newSale.setQuantitySold(quantitySold);
+        newSale.setSaleDate(Instant.now());
+        Sales savedSale = salesRepository.save(newSale);
+
+        eventPublisher.publishEvent(new SaleRecordedEvent(productId, quantitySold, product.getPrice(), savedSale.getSaleDate()));
+        return savedSale;
+    }
+
+    /**
+     * Records a whole cart in one transaction.
+     * 1. Takes the stock for every product with one atomic conditional UPDATE each
+     *    (lines for the same product are summed first).
+     * 2. Loads every product in the cart with a single query to build the per-line result.
+     * 3. Inserts all Sales rows as one JDBC batch.
+     * If any line is rejected the transaction is rolled back, so nothing is written.
+     */
+    @Transactional
+    public BatchSalesResponse recordBatch(List<SalesRequest> items) {
+        BatchSalesResponse response = new BatchSalesResponse();
+
+        if (items == null || items.isEmpty()) {
+            response.setSuccess(false);
+            response.setMessage("Error: Cart is empty!");
+            return response;
+        }
+
+        // 1. Sum the requested quantity per product and take the stock atomically,
+        //    in product id order so concurrent carts lock rows in the same order
+        Map<Long, Integer> requested = new TreeMap<>();
+        boolean quantitiesValid = true;
+        for (SalesRequest item : items) {
+            if (item.getQuantitySold() <= 0 || item.getProductId() == null) {
+                quantitiesValid = false;
+            } else {
+                requested.merge(item.getProductId(), item.getQuantitySold(), Integer::sum);
+            }
+        }
+        Set<Long> shortProducts = new HashSet<>();
+        if (quantitiesValid) {
+            requested.forEach((productId, quantity) -> {
+                if (!inventoryService.tryDecrement(productId, quantity)) {
+                    shortProducts.add(productId);
+                }
+            });
+        }
+
+        // 2. One query for all products in the cart (fresh, after the updates)
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllById(requested.keySet())) {
+            products.put(product.getId(), product);
+        }
+
+        boolean allValid = quantitiesValid && shortProducts.isEmpty();
+        Map<Long, Integer> stillToTake = new HashMap<>(requested);
+        for (SalesRequest item : items) {
+            Product product = products.get(item.getProductId());
+            String status;
+            Integer remainingStock = null;
+
+            if (item.getQuantitySold() <= 0) {
+                status = "INVALID_QUANTITY";
+            } else if (product == null) {
+                status = "PRODUCT_NOT_FOUND";
+            } else if (shortProducts.contains(product.getId())) {
+                status = "INSUFFICIENT_STOCK";
+                remainingStock = product.getQuantity();
+            } else if (!allValid) {
+                // Rolled back below: report the stock from before this cart
+                status = "OK";
+                remainingStock = product.getQuantity() + (quantitiesValid ? requested.get(product.getId()) : 0);
+            } else {
+                // Stock left after this line = final stock + what later lines still take
+                int later = stillToTake.merge(product.getId(), -item.getQuantitySold(), Integer::sum);
+                status = "OK";
+                remainingStock = product.getQuantity() + later;
+            }
+            response.getLines().add(new LineResult(item.getProductId(), item.getQuantitySold(), status, remainingStock));
+        }
+
+        if (!allValid) {
+            // Undo any stock already taken for the valid lines
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            response.setSuccess(false);
+            response.setMessage("Error: Checkout rejected, no items were sold.");
+            return response;
+        }
+
+        // 3. Insert all sales rows in a single JDBC batch
+        Instant saleDate = Instant.now();
+        jdbcTemplate.batchUpdate(INSERT_SALE_SQL, items, items.size(), (ps, item) -> {
+            ps.setLong(1, item.getProductId());
+            ps.setInt(2, item.getQuantitySold());
+            instantBinder.bind(ps, 3, saleDate);
+        });
+        for (SalesRequest item : items) {
+            Product product = products.get(item.getProductId());
+            eventPublisher.publishEvent(new SaleRecordedEvent(item.getProductId(), item.getQuantitySold(), product.getPrice(), saleDate));
+        }
+
+        response.setSuccess(true);
+        response.setMessage("Checkout complete: " + items.size() + " item(s) sold.");
+        return response;
+    }
+}
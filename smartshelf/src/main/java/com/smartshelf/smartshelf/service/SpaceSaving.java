@@ -0,0 +1,122 @@
+package com.smartshelf.smartshelf.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Weighted Space-Saving summary: tracks the heaviest items of a stream in a fixed number
+ * of counters (Metwally et al., "Efficient computation of frequent and top-k elements").
+ *
+ * Counters live in an indexed binary min-heap, so an update is O(log capacity). When a new
+ * item arrives and every counter is taken, it replaces the smallest counter and inherits
+ * its count as the error bound. Every tracked count is an overestimate by at most its error,
+ * and any item whose true total exceeds the smallest counter is guaranteed to be tracked.
+ * With capacity >= number of distinct items the counts are exact.
+ *
+ * Not thread-safe; callers synchronize.
+ */
+class SpaceSaving {
+
+    // One tracked item, as returned by top()
+    record Counter(long item, double count, double error) {}
+
+    private final int capacity;
+    private final long[] items;
+    private final double[] counts;
+    private final double[] errors;
+    private final Map<Long, Integer> slotByItem;
+    private int size;
+
+    SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.items = new long[capacity];
+        this.counts = new double[capacity];
+        this.errors = new double[capacity];
+        this.slotByItem = new HashMap<>(capacity * 2);
+    }
+
+    void add(long item, double weight) {
+        Integer slot = slotByItem.get(item);
+        if (slot != null) {
+            counts[slot] += weight;
+            siftDown(slot);
+        } else if (size < capacity) {
+            items[size] = item;
+            counts[size] = weight;
+            errors[size] = 0;
+            slotByItem.put(item, size);
+            siftUp(size++);
+        } else {
+            // Evict the minimum (the heap root); the newcomer inherits its count as error
+            slotByItem.remove(items[0]);
+            double min = counts[0];
+            items[0] = item;
+            counts[0] = min + weight;
+            errors[0] = min;
+            slotByItem.put(item, 0);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * The n heaviest tracked items, heaviest first. Cost depends only on the capacity.
+     */
+    Counter[] top(int n) {
+        Counter[] all = new Counter[size];
+        for (int i = 0; i < size; i++) {
+            all[i] = new Counter(items[i], counts[i], errors[i]);
+        }
+        Arrays.sort(all, (a, b) -> Double.compare(b.count(), a.count()));
+        return Arrays.copyOf(all, Math.min(n, size));
+    }
+
+    void clear() {
+        slotByItem.clear();
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (counts[parent] <= counts[i]) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int smallest = left + 1 < size && counts[left + 1] < counts[left] ? left + 1 : left;
+            if (counts[i] <= counts[smallest]) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long item = items[a];
+        items[a] = items[b];
+        items[b] = item;
+        double count = counts[a];
+        counts[a] = counts[b];
+        counts[b] = count;
+        double error = errors[a];
+        errors[a] = errors[b];
+        errors[b] = error;
+        slotByItem.put(items[a], a);
+        slotByItem.put(items[b], b);
+    }
+}
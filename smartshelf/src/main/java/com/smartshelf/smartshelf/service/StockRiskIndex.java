@@ -0,0 +1,221 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.dto.ForecastDTO;
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * "Which products run out first", answered without a forecast run or a product scan.
+ *
+ * Every product has a position: its stock and its daily demand. Daily demand is the latest
+ * forecast snapshot's weekly prediction / 7, or the demand window's 30-day average for
+ * products the snapshot doesn't cover yet. Products that sell are kept in a TreeSet ordered
+ * by days of cover (stock / daily demand), so each sale, receipt and edit is an O(log n)
+ * remove + insert and the top N at-risk products are the first N entries.
+ *
+ * Stock changes arrive as ProductStockChangedEvent after commit; edits and imports put the
+ * whole product. Each position remembers the change version its stock was last read at, so
+ * a change that is already part of that stock is not counted twice. Every forecast publish
+ * rebuilds the index from the database, which also corrects any drift.
+ */
+@Component
+public class StockRiskIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(StockRiskIndex.class);
+
+    /**
+     * One at-risk product. stockOutDate is the UTC day the stock is projected to reach zero.
+     */
+    public record AtRisk(Long productId, int stock, double dailyDemand, double daysOfCover, LocalDate stockOutDate) {}
+
+    // baseVersion: the change version the stock was last read at (deltas up to it are included)
+    private record Position(Long productId, int stock, double dailyDemand, long baseVersion) {
+        double daysOfCover() {
+            return stock <= 0 ? 0 : stock / dailyDemand;
+        }
+    }
+
+    private static final Comparator<Position> BY_COVER =
+            Comparator.comparingDouble(Position::daysOfCover).thenComparing(Position::productId);
+
+    private final ProductRepository productRepository;
+    private final DemandWindow demandWindow;
+    private final Clock clock;
+
+    // All guarded by "this"
+    private final Map<Long, Position> positions = new HashMap<>();
+    private final TreeSet<Position> byCover = new TreeSet<>(BY_COVER); // only products with demand
+    private Map<Long, Double> forecastDaily = Map.of();
+    private List<Runnable> changesDuringRebuild; // non-null while a rebuild reads the database
+
+    private final Object rebuildLock = new Object(); // one rebuild at a time
+
+    @Autowired
+    public StockRiskIndex(ProductRepository productRepository, DemandWindow demandWindow) {
+        this(productRepository, demandWindow, Clock.systemUTC());
+    }
+
+    StockRiskIndex(ProductRepository productRepository, DemandWindow demandWindow, Clock clock) {
+        this.productRepository = productRepository;
+        this.demandWindow = demandWindow;
+        this.clock = clock;
+    }
+
+    // Until the first forecast is published, demand comes from the demand window alone (seeded just before)
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(DemandWindow.SEED_ORDER + 1)
+    public void seed() {
+        rebuild(Map.of());
+    }
+
+    @EventListener
+    public void onForecastPublished(ForecastPublishedEvent event) {
+        Map<Long, Double> daily = new HashMap<>();
+        for (ForecastDTO row : event.snapshot().rows()) {
+            daily.put(row.productId, row.predictedDemand / 7.0);
+        }
+        rebuild(daily);
+    }
+
+    // Runs after the sale or receipt commits (or immediately when there is none)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStockChanged(ProductStockChangedEvent event) {
+        applyDelta(event.productId(), event.delta(), event.changeVersion());
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(() -> applyDelta(event.productId(), event.delta(), event.changeVersion()));
+        }
+    }
+
+    /**
+     * Sets a product's stock after it was created, edited or imported (call after commit).
+     */
+    public synchronized void put(Product product) {
+        applyStock(product.getId(), product.getQuantity(), product.getChangeVersion());
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(() -> applyStock(product.getId(), product.getQuantity(), product.getChangeVersion()));
+        }
+    }
+
+    public synchronized void remove(Long productId) {
+        applyRemove(productId);
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(() -> applyRemove(productId));
+        }
+    }
+
+    /**
+     * The limit products with the fewest days of cover, optionally only those running out
+     * within withinDays. Products that don't sell never run out and are never listed.
+     */
+    public synchronized List<AtRisk> atRisk(int limit, Double withinDays) {
+        LocalDate today = LocalDate.now(clock);
+        List<AtRisk> result = new ArrayList<>(Math.min(limit, byCover.size()));
+        for (Position position : byCover) {
+            double cover = position.daysOfCover();
+            if (result.size() >= limit || (withinDays != null && cover > withinDays)) {
+                break;
+            }
+            result.add(new AtRisk(position.productId(), position.stock(), position.dailyDemand(), cover,
+                    today.plusDays((long) Math.floor(cover))));
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return positions.size();
+    }
+
+    /**
+     * Re-reads every product's stock and recomputes its demand. Changes that commit while
+     * the stock is being read are applied to the old positions and replayed onto the new ones.
+     */
+    public void rebuild(Map<Long, Double> dailyForecast) {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                changesDuringRebuild = new ArrayList<>();
+            }
+            try {
+                List<ProductRepository.StockLevelView> levels = productRepository.findAllStockLevels();
+                synchronized (this) {
+                    forecastDaily = dailyForecast;
+                    positions.clear();
+                    byCover.clear();
+                    for (ProductRepository.StockLevelView level : levels) {
+                        insert(new Position(level.getId(), level.getQuantity(), dailyDemand(level.getId()), level.getChangeVersion()));
+                    }
+                    for (Runnable change : changesDuringRebuild) {
+                        change.run();
+                    }
+                    log.info("Rebuilt stock-at-risk index: {} products, {} selling", positions.size(), byCover.size());
+                }
+            } finally {
+                synchronized (this) {
+                    changesDuringRebuild = null;
+                }
+            }
+        }
+    }
+
+    private void applyDelta(Long productId, int delta, long changeVersion) {
+        Position position = positions.get(productId);
+        if (position == null || changeVersion <= position.baseVersion()) {
+            return; // unknown product, or already counted in the stock we read
+        }
+        replace(position, new Position(productId, position.stock() + delta, dailyDemand(productId), position.baseVersion()));
+    }
+
+    private void applyStock(Long productId, int stock, long changeVersion) {
+        Position position = positions.get(productId);
+        if (position != null && changeVersion < position.baseVersion()) {
+            return; // older than what we have
+        }
+        replace(position, new Position(productId, stock, dailyDemand(productId), changeVersion));
+    }
+
+    private void applyRemove(Long productId) {
+        Position removed = positions.remove(productId);
+        if (removed != null) {
+            byCover.remove(removed);
+        }
+    }
+
+    private void replace(Position old, Position position) {
+        if (old != null) {
+            byCover.remove(old);
+        }
+        insert(position);
+    }
+
+    private void insert(Position position) {
+        positions.put(position.productId(), position);
+        if (position.dailyDemand() > 0) {
+            byCover.add(position);
+        }
+    }
+
+    // Forecast first; the demand window's average also picks up products sold since the last forecast
+    private double dailyDemand(Long productId) {
+        Double forecast = forecastDaily.get(productId);
+        if (forecast != null) {
+            return forecast;
+        }
+        return demandWindow.totalUnits(productId) / (double) DemandWindow.WINDOW_DAYS;
+    }
+}
@@ -0,0 +1,69 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.model.Role;
+import com.smartshelf.smartshelf.model.TokenRevocation;
+import com.smartshelf.smartshelf.model.User;
+import com.smartshelf.smartshelf.repository.TokenRevocationRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Revocation list for JWTs whose role claim went stale (UserController promote/demote).
+ *
+ * Tokens carry the role, so the filter never reads the users table. When a role changes,
+ * the user's older tokens are revoked instead. The list lives in token_revocations so every
+ * instance sees it; each instance checks a copy in memory (one map lookup per request) and
+ * reloads it every refresh-ms. Entries older than the token lifetime are deleted.
+ */
+@Service
+public class TokenRevocationService {
+
+    private final TokenRevocationRepository revocationRepository;
+    private final Duration tokenLifetime;
+
+    // Replaced as a whole on refresh; revoke() also adds to it right away
+    private volatile Map<String, TokenRevocation> revocations = Map.of();
+
+    public TokenRevocationService(TokenRevocationRepository revocationRepository,
+                                  @Value("${smartshelf.jwt.expiration-ms:86400000}") long expirationMs) {
+        this.revocationRepository = revocationRepository;
+        this.tokenLifetime = Duration.ofMillis(expirationMs);
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${smartshelf.jwt.revocation-refresh-ms:10000}")
+    public synchronized void refresh() {
+        revocationRepository.deleteOlderThan(Instant.now().minus(tokenLifetime));
+        Map<String, TokenRevocation> loaded = new HashMap<>();
+        for (TokenRevocation revocation : revocationRepository.findAll()) {
+            loaded.put(revocation.getEmail(), revocation);
+        }
+        revocations = loaded;
+    }
+
+    /**
+     * Revokes the user's tokens issued up to now, except those already carrying their current role.
+     * Call after the role change is saved.
+     */
+    public synchronized void revoke(User user) {
+        // Token "iat" has whole seconds: round up so a token from this same second is covered too
+        Instant revokedBefore = Instant.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+        TokenRevocation revocation = revocationRepository.save(new TokenRevocation(user.getEmail(), revokedBefore, user.getRole()));
+        Map<String, TokenRevocation> updated = new HashMap<>(revocations);
+        updated.put(revocation.getEmail(), revocation);
+        revocations = updated;
+    }
+
+    public boolean isRevoked(String email, Role role, Instant issuedAt) {
+        TokenRevocation revocation = revocations.get(email);
+        return revocation != null && issuedAt.isBefore(revocation.getRevokedBefore()) && role != revocation.getRole();
+    }
+}
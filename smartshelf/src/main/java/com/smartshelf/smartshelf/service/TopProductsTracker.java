@@ -0,0 +1,162 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.repository.SalesRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Best-selling products by revenue and by units, per time window, updated on every sale.
+ *
+ * Each (window, metric) pair is a SpaceSaving summary with a fixed number of counters, so
+ * memory is bounded and "top N" costs the same whatever the sales history. DAY, WEEK
+ * (ISO, Monday start) and MONTH are calendar windows in UTC that start empty when the
+ * calendar moves on; ALL never resets. Windows are seeded at startup with one grouped
+ * query each and then fed from SaleRecordedEvent.
+ */
+@Component
+public class TopProductsTracker {
+
+    public enum Window { DAY, WEEK, MONTH, ALL }
+
+    public enum Metric { REVENUE, UNITS }
+
+    // value is an upper bound on the true total; value - maxError is a lower bound
+    public record TopEntry(Long productId, double value, double maxError) {}
+
+    private static final Logger log = LoggerFactory.getLogger(TopProductsTracker.class);
+
+    private final SalesRepository salesRepository;
+    private final Clock clock;
+    private final int capacity;
+    private final int maxN;
+    private final Map<Window, WindowState> windows = new EnumMap<>(Window.class);
+
+    // The summaries of one window plus the calendar period they currently cover
+    private final class WindowState {
+        final Window window;
+        final SpaceSaving revenue = new SpaceSaving(capacity);
+        final SpaceSaving units = new SpaceSaving(capacity);
+        LocalDate periodStart;
+
+        WindowState(Window window) {
+            this.window = window;
+        }
+
+        // Starts a fresh period if the calendar has moved past the current one
+        void roll(LocalDate today) {
+            LocalDate current = periodStart(window, today);
+            if (!current.equals(periodStart)) {
+                revenue.clear();
+                units.clear();
+                periodStart = current;
+            }
+        }
+    }
+
+    @Autowired
+    public TopProductsTracker(SalesRepository salesRepository,
+                              @Value("${smartshelf.top-products.capacity:200}") int capacity,
+                              @Value("${smartshelf.top-products.max-n:50}") int maxN) {
+        this(salesRepository, Clock.systemUTC(), capacity, maxN);
+    }
+
+    TopProductsTracker(SalesRepository salesRepository, Clock clock, int capacity, int maxN) {
+        this.salesRepository = salesRepository;
+        this.clock = clock;
+        this.maxN = maxN;
+        this.capacity = Math.max(capacity, maxN);
+        for (Window window : Window.values()) {
+            windows.put(window, new WindowState(window));
+        }
+    }
+
+    /**
+     * (Re)builds every window from the sales table: one GROUP BY product query per window.
+     * At startup this runs on ApplicationReadyEvent, after anything that writes sales while
+     * starting (e.g. the sales journal replay) and before traffic is accepted.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void seed() {
+        LocalDate today = LocalDate.now(clock.withZone(ZoneOffset.UTC));
+        for (WindowState state : windows.values()) {
+            state.periodStart = null;
+            state.roll(today);
+            Instant since = state.periodStart.atStartOfDay(ZoneOffset.UTC).toInstant();
+            for (SalesRepository.ProductRevenueView row : salesRepository.sumRevenueByProductSince(since)) {
+                state.revenue.add(row.getProductId(), row.getRevenue());
+                state.units.add(row.getProductId(), row.getUnits());
+            }
+        }
+        log.info("Seeded top products: {} products tracked for all time", windows.get(Window.ALL).units.size());
+    }
+
+    // Runs after the sale's transaction commits (or immediately when there is none)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaleRecorded(SaleRecordedEvent event) {
+        record(event.productId(), event.quantitySold(), event.quantitySold() * event.unitPrice(), event.saleDate());
+    }
+
+    public synchronized void record(Long productId, int units, double revenue, Instant saleDate) {
+        if (productId == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now(clock.withZone(ZoneOffset.UTC));
+        LocalDate saleDay = LocalDate.ofInstant(saleDate, ZoneOffset.UTC);
+        for (WindowState state : windows.values()) {
+            state.roll(today);
+            // A late sale (e.g. replayed from the journal) only counts towards windows it falls in
+            if (!saleDay.isBefore(state.periodStart)) {
+                state.revenue.add(productId, revenue);
+                state.units.add(productId, units);
+            }
+        }
+    }
+
+    /**
+     * Top n products (n up to max-n) for the window, heaviest first.
+     */
+    public synchronized List<TopEntry> top(Window window, Metric metric, int n) {
+        if (n < 1 || n > maxN) {
+            throw new IllegalArgumentException("Error: Limit must be between 1 and " + maxN + "!");
+        }
+        WindowState state = windows.get(window);
+        state.roll(LocalDate.now(clock.withZone(ZoneOffset.UTC)));
+        SpaceSaving summary = metric == Metric.REVENUE ? state.revenue : state.units;
+
+        List<TopEntry> entries = new ArrayList<>(n);
+        for (SpaceSaving.Counter counter : summary.top(n)) {
+            entries.add(new TopEntry(counter.item(), counter.count(), counter.error()));
+        }
+        return entries;
+    }
+
+    public int getMaxN() {
+        return maxN;
+    }
+
+    static LocalDate periodStart(Window window, LocalDate day) {
+        return switch (window) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+            case ALL -> LocalDate.of(1970, 1, 1);
+        };
+    }
+}
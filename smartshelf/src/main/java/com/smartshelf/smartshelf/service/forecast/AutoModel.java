@@ -0,0 +1,75 @@
+package com.smartshelf.smartshelf.service.forecast;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Picks a model from the shape of the series:
+ * Croston when most days have no sales, Holt-Winters when the last two weeks were
+ * steady, simple exponential smoothing otherwise (short or lumpy history).
+ *
+ * "Steady" means sales on all but at most one day a week, and a standard deviation no
+ * bigger than the mean (coefficient of variation <= 1). A weekly pattern such as busy
+ * weekends stays well under that; a few bulk orders on otherwise quiet days don't.
+ */
+@Component
+public class AutoModel implements ForecastModel {
+
+    static final double MAX_STEADY_VARIATION = 1.0;
+
+    private final CrostonModel croston;
+    private final HoltWintersModel holtWinters;
+    private final SimpleExponentialSmoothingModel ses;
+
+    public AutoModel(CrostonModel croston, HoltWintersModel holtWinters, SimpleExponentialSmoothingModel ses) {
+        this.croston = croston;
+        this.holtWinters = holtWinters;
+        this.ses = ses;
+    }
+
+    @Override
+    public String name() {
+        return "auto";
+    }
+
+    @Override
+    public double forecast(double[] dailySeries, int horizonDays) {
+        int zeroDays = 0;
+        for (double units : dailySeries) {
+            if (units <= 0) {
+                zeroDays++;
+            }
+        }
+        if (zeroDays * 2 > dailySeries.length) {
+            return croston.forecast(dailySeries, horizonDays);
+        }
+        if (isSteady(dailySeries)) {
+            return holtWinters.forecast(dailySeries, horizonDays);
+        }
+        return ses.forecast(dailySeries, horizonDays);
+    }
+
+    // The last two seasons: enough for Holt-Winters, with few empty days and moderate swings
+    static boolean isSteady(double[] dailySeries) {
+        int window = 2 * HoltWintersModel.SEASON;
+        if (dailySeries.length < window) {
+            return false;
+        }
+        int zeroDays = 0;
+        double sum = 0;
+        for (int t = dailySeries.length - window; t < dailySeries.length; t++) {
+            if (dailySeries[t] <= 0) {
+                zeroDays++;
+            }
+            sum += dailySeries[t];
+        }
+        if (zeroDays > 2) {
+            return false;
+        }
+        double mean = sum / window;
+        double squares = 0;
+        for (int t = dailySeries.length - window; t < dailySeries.length; t++) {
+            squares += (dailySeries[t] - mean) * (dailySeries[t] - mean);
+        }
+        return Math.sqrt(squares / window) <= MAX_STEADY_VARIATION * mean;
+    }
+}
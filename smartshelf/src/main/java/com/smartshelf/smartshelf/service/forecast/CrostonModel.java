@@ -0,0 +1,44 @@
+package com.smartshelf.smartshelf.service.forecast;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Croston's method for intermittent demand (many zero days).
+ * Smooths the size of non-zero sales and the gap between them separately;
+ * the daily rate is size / gap.
+ */
+@Component
+public class CrostonModel implements ForecastModel {
+
+    static final double ALPHA = 0.1;
+
+    @Override
+    public String name() {
+        return "croston";
+    }
+
+    @Override
+    public double forecast(double[] dailySeries, int horizonDays) {
+        double size = 0;     // smoothed non-zero demand
+        double interval = 0; // smoothed days between non-zero demands
+        int sinceLast = 1;
+        boolean seen = false;
+
+        for (double units : dailySeries) {
+            if (units > 0) {
+                if (!seen) {
+                    size = units;
+                    interval = sinceLast;
+                    seen = true;
+                } else {
+                    size += ALPHA * (units - size);
+                    interval += ALPHA * (sinceLast - interval);
+                }
+                sinceLast = 1;
+            } else {
+                sinceLast++;
+            }
+        }
+        return seen ? size / interval * horizonDays : 0;
+    }
+}
@@ -0,0 +1,106 @@
+package com.smartshelf.smartshelf.service.forecast;
+
+import com.smartshelf.smartshelf.config.ForecastProperties;
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.service.DemandWindow;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs the per-product forecast models in parallel.
+ *
+ * The product list is split into partitions of partitionSize and forecast on a
+ * dedicated ForkJoinPool (not the common pool, so request handling and parallel
+ * streams elsewhere are unaffected). Each leaf task reuses one double[] buffer
+ * for the daily series of all its products.
+ */
+@Component
+public class ForecastEngine {
+
+    private final DemandWindow demandWindow;
+    private final ForecastModelRegistry registry;
+    private final int partitionSize;
+    private final ForkJoinPool pool;
+
+    public ForecastEngine(DemandWindow demandWindow, ForecastModelRegistry registry, ForecastProperties properties) {
+        this.demandWindow = demandWindow;
+        this.registry = registry;
+        this.partitionSize = Math.max(1, properties.getPartitionSize());
+        int parallelism = properties.getParallelism() > 0
+                ? properties.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    // Where a leaf task gets a product's daily series from (the live demand window, or history in the
+    // backtest tests). index is the product's position in the list being forecast.
+    @FunctionalInterface
+    interface SeriesSource {
+        void copySeries(int index, Product product, double[] out);
+    }
+
+    /**
+     * Returns the predicted demand over horizonDays for each product, in list order.
+     */
+    public double[] predict(List<Product> products, int horizonDays) {
+        return predict(products, horizonDays, (index, product, out) -> demandWindow.copySeries(product.getId(), out), null);
+    }
+
+    /**
+     * Same as predict(products, horizonDays), but reading WINDOW_DAYS-long series from the given
+     * source and, if model is not null, using that model for every product instead of the registry.
+     * Package-private: only the backtest tests replay history through it.
+     */
+    double[] predict(List<Product> products, int horizonDays, SeriesSource source, ForecastModel model) {
+        double[] predictions = new double[products.size()];
+        pool.invoke(new PartitionTask(products, predictions, horizonDays, source, model, 0, products.size()));
+        return predictions;
+    }
+
+    private final class PartitionTask extends RecursiveAction {
+        private final List<Product> products;
+        private final double[] predictions;
+        private final int horizonDays;
+        private final SeriesSource source;
+        private final ForecastModel model;
+        private final int from;
+        private final int to;
+
+        PartitionTask(List<Product> products, double[] predictions, int horizonDays,
+                      SeriesSource source, ForecastModel model, int from, int to) {
+            this.products = products;
+            this.predictions = predictions;
+            this.horizonDays = horizonDays;
+            this.source = source;
+            this.model = model;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= partitionSize) {
+                double[] series = new double[DemandWindow.WINDOW_DAYS];
+                for (int i = from; i < to; i++) {
+                    Product product = products.get(i);
+                    source.copySeries(i, product, series);
+                    ForecastModel chosen = model != null ? model : registry.modelFor(product);
+                    predictions[i] = chosen.forecast(series, horizonDays);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new PartitionTask(products, predictions, horizonDays, source, model, from, mid),
+                    new PartitionTask(products, predictions, horizonDays, source, model, mid, to));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,22 @@
+package com.smartshelf.smartshelf.service.forecast;
+
+/**
+ * A demand forecasting model.
+ *
+ * Implementations are Spring beans and are picked up by ForecastModelRegistry
+ * under their name(), so adding a model is just adding a @Component.
+ * Models must be stateless: one instance is shared by all forecasting threads.
+ */
+public interface ForecastModel {
+
+    // Key used in configuration, e.g. smartshelf.forecast.default-model=holt-winters
+    String name();
+
+    /**
+     * Predicts total demand over the next horizonDays.
+     *
+     * @param dailySeries units sold per day, oldest first (the array is reused by the caller; don't keep it)
+     * @param horizonDays number of future days to sum
+     */
+    double forecast(double[] dailySeries, int horizonDays);
+}
@@ -0,0 +1,52 @@
+package com.smartshelf.smartshelf.service.forecast;
+
+import com.smartshelf.smartshelf.config.ForecastProperties;
+import com.smartshelf.smartshelf.model.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves which ForecastModel to use for a product:
+ * product override, then category override, then the default model.
+ */
+@Component
+public class ForecastModelRegistry {
+
+    private final Map<String, ForecastModel> modelsByName = new HashMap<>();
+    private final ForecastProperties properties;
+    private final ForecastModel defaultModel;
+
+    public ForecastModelRegistry(List<ForecastModel> models, ForecastProperties properties) {
+        for (ForecastModel model : models) {
+            modelsByName.put(model.name(), model);
+        }
+        this.properties = properties;
+        this.defaultModel = require(properties.getDefaultModel());
+        // Fail at startup, not on the first forecast, if a configured name is wrong
+        properties.getCategoryModels().values().forEach(this::require);
+        properties.getProductModels().values().forEach(this::require);
+    }
+
+    public ForecastModel modelFor(Product product) {
+        String name = properties.getProductModels().get(product.getId());
+        if (name == null && product.getCategory() != null) {
+            name = properties.getCategoryModels().get(product.getCategory());
+        }
+        return name == null ? defaultModel : modelsByName.get(name);
+    }
+
+    public ForecastModel get(String name) {
+        return require(name);
+    }
+
+    private ForecastModel require(String name) {
+        ForecastModel model = modelsByName.get(name);
+        if (model == null) {
+            throw new IllegalArgumentException("Unknown forecast model '" + name + "'. Available: " + modelsByName.keySet());
+        }
+        return model;
+    }
+}
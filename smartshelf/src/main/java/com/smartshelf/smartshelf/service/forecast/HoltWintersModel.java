@@ -0,0 +1,62 @@
+package com.smartshelf.smartshelf.service.forecast;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Additive Holt-Winters (level + trend + weekly season).
+ * Needs at least two full weeks of history; with less it falls back to
+ * simple exponential smoothing.
+ */
+@Component
+public class HoltWintersModel implements ForecastModel {
+
+    static final int SEASON = 7;
+    static final double ALPHA = 0.3;  // level
+    static final double BETA = 0.05;  // trend
+    static final double GAMMA = 0.2;  // season
+
+    private final SimpleExponentialSmoothingModel fallback = new SimpleExponentialSmoothingModel();
+
+    @Override
+    public String name() {
+        return "holt-winters";
+    }
+
+    @Override
+    public double forecast(double[] y, int horizonDays) {
+        int n = y.length;
+        if (n < 2 * SEASON) {
+            return fallback.forecast(y, horizonDays);
+        }
+
+        // Initial level/trend from the first two weeks, season from the first week
+        double firstWeek = 0;
+        double secondWeek = 0;
+        for (int i = 0; i < SEASON; i++) {
+            firstWeek += y[i];
+            secondWeek += y[i + SEASON];
+        }
+        firstWeek /= SEASON;
+        secondWeek /= SEASON;
+        double level = firstWeek;
+        double trend = (secondWeek - firstWeek) / SEASON;
+        double[] season = new double[SEASON];
+        for (int i = 0; i < SEASON; i++) {
+            season[i] = y[i] - firstWeek;
+        }
+
+        for (int t = SEASON; t < n; t++) {
+            int s = t % SEASON;
+            double previousLevel = level;
+            level = ALPHA * (y[t] - season[s]) + (1 - ALPHA) * (level + trend);
+            trend = BETA * (level - previousLevel) + (1 - BETA) * trend;
+            season[s] = GAMMA * (y[t] - level) + (1 - GAMMA) * season[s];
+        }
+
+        double total = 0;
+        for (int h = 1; h <= horizonDays; h++) {
+            total += Math.max(0, level + h * trend + season[(n - 1 + h) % SEASON]);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,30 @@
+package com.smartshelf.smartshelf.service.forecast;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Simple exponential smoothing: recent days weigh more than old ones.
+ * Good for steady sellers without trend or weekly pattern.
+ */
+@Component
+public class SimpleExponentialSmoothingModel implements ForecastModel {
+
+    static final double ALPHA = 0.3;
+
+    @Override
+    public String name() {
+        return "ses";
+    }
+
+    @Override
+    public double forecast(double[] dailySeries, int horizonDays) {
+        if (dailySeries.length == 0) {
+            return 0;
+        }
+        double level = dailySeries[0];
+        for (int t = 1; t < dailySeries.length; t++) {
+            level += ALPHA * (dailySeries[t] - level);
+        }
+        return Math.max(0, level) * horizonDays;
+    }
+}
@@ -0,0 +1,27 @@
+package com.smartshelf.smartshelf.service.forecast;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * The original SmartShelf algorithm: average daily demand over the whole series.
+ */
+@Component
+public class SimpleMovingAverageModel implements ForecastModel {
+
+    @Override
+    public String name() {
+        return "sma";
+    }
+
+    @Override
+    public double forecast(double[] dailySeries, int horizonDays) {
+        if (dailySeries.length == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (double units : dailySeries) {
+            sum += units;
+        }
+        return sum / dailySeries.length * horizonDays;
+    }
+}
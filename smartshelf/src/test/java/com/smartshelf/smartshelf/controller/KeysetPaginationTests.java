@@ -0,0 +1,183 @@
+package com.smartshelf.smartshelf.controller;
+
+import com.smartshelf.smartshelf.dto.CursorPage;
+import com.smartshelf.smartshelf.dto.PurchaseOrderSummary;
+import com.smartshelf.smartshelf.dto.SalesResponse;
+import com.smartshelf.smartshelf.model.OrderStatus;
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.model.PurchaseOrder;
+import com.smartshelf.smartshelf.repository.InstantBinder;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class KeysetPaginationTests {
+
+    @Autowired
+    private SalesController salesController;
+    @Autowired
+    private PurchaseOrderController purchaseOrderController;
+    @Autowired
+    private ProductController productController;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private InstantBinder instantBinder;
+
+    // Follows nextCursor until the last page and returns every item in order
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> readAll(Function<String, ResponseEntity<?>> fetch) {
+        List<T> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<T> page = (CursorPage<T>) fetch.apply(cursor).getBody();
+            all.addAll(page.items);
+            cursor = page.nextCursor;
+        } while (cursor != null);
+        return all;
+    }
+
+    @Test
+    void pagesCoverEveryRowExactlyOnceDespiteTimestampTies() {
+        Product product = new Product();
+        product.setProductName("Keyset SKU");
+        product.setCategory("Keyset");
+        product.setQuantity(1);
+        product.setPrice(1.0);
+        Long productId = productRepository.save(product).getId();
+
+        // Three rows share each timestamp, so the id tie-breaker matters
+        Instant base = Instant.parse("2022-06-01T08:00:00Z");
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < 301; i++) {
+            rows.add(i);
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO sales (product_id, quantity_sold, sale_date) VALUES (?, ?, ?)",
+                rows, 500, (ps, i) -> {
+                    ps.setLong(1, productId);
+                    ps.setInt(2, 1);
+                    instantBinder.bind(ps, 3, base.plus(Duration.ofMinutes(i / 3)));
+                });
+        jdbcTemplate.batchUpdate("INSERT INTO purchase_orders (product_id, quantity, status, created_at) VALUES (?, ?, ?, ?)",
+                rows, 500, (ps, i) -> {
+                    ps.setLong(1, productId);
+                    ps.setInt(2, 1);
+                    ps.setString(3, OrderStatus.PENDING.name());
+                    instantBinder.bind(ps, 4, base.plus(Duration.ofMinutes(i / 3)));
+                });
+
+        LocalDate day = LocalDate.of(2022, 6, 1);
+        List<SalesResponse> sales = readAll(cursor -> salesController.getSalesReportPage(day.minusDays(1), day.plusDays(1), 40, cursor));
+        assertEquals(301, sales.size());
+        assertEquals(301, new HashSet<>(sales.stream().map(SalesResponse::getId).toList()).size());
+        for (int i = 1; i < sales.size(); i++) {
+            SalesResponse previous = sales.get(i - 1);
+            SalesResponse current = sales.get(i);
+            int byDate = previous.getSaleDate().compareTo(current.getSaleDate());
+            assertTrue(byDate > 0 || (byDate == 0 && previous.getId() > current.getId()), "out of order at " + i);
+        }
+
+        List<PurchaseOrder> orders = readAll(cursor -> purchaseOrderController.getPurchaseOrderPage(40, cursor));
+        Set<Long> orderIds = new HashSet<>();
+        orders.forEach(po -> orderIds.add(po.getId()));
+        assertEquals(orders.size(), orderIds.size());
+        assertTrue(orders.size() >= 301);
+
+        List<Product> products = readAll(cursor -> productController.getProductPage("Keyset", null, null, 1, cursor));
+        assertEquals(List.of(productId), products.stream().map(Product::getId).toList());
+    }
+
+    @Test
+    void productPagesFollowIdOrder() {
+        for (int i = 0; i < 25; i++) {
+            Product product = new Product();
+            product.setProductName("Paged " + i);
+            product.setCategory("Paged");
+            product.setQuantity(i);
+            product.setPrice(1.0);
+            productRepository.save(product);
+        }
+        List<Product> lowStock = readAll(cursor -> productController.getProductPage("Paged", null, 9, 4, cursor));
+        assertEquals(10, lowStock.size());
+        for (int i = 1; i < lowStock.size(); i++) {
+            assertTrue(lowStock.get(i - 1).getId() < lowStock.get(i).getId());
+        }
+    }
+
+    @Test
+    void purchaseOrderSummariesPageWithinAStatus() {
+        Product product = new Product();
+        product.setProductName("Summary SKU");
+        product.setSupplier("Summary Supplies");
+        product.setQuantity(1);
+        product.setPrice(1.0);
+        Long productId = productRepository.save(product).getId();
+
+        // Every third PO is APPROVED, the rest PENDING, two per timestamp
+        Instant base = Instant.parse("2031-01-01T08:00:00Z");
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < 90; i++) {
+            rows.add(i);
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO purchase_orders (product_id, quantity, status, created_at) VALUES (?, ?, ?, ?)",
+                rows, 500, (ps, i) -> {
+                    ps.setLong(1, productId);
+                    ps.setInt(2, i + 1);
+                    ps.setString(3, (i % 3 == 0 ? OrderStatus.APPROVED : OrderStatus.PENDING).name());
+                    instantBinder.bind(ps, 4, base.plus(Duration.ofMinutes(i / 2)));
+                });
+
+        List<PurchaseOrderSummary> approved = readAll(cursor -> purchaseOrderController.getPurchaseOrderSummaries("approved", 7, cursor));
+        assertEquals(30, approved.size());
+        for (int i = 0; i < approved.size(); i++) {
+            PurchaseOrderSummary po = approved.get(i);
+            assertEquals(OrderStatus.APPROVED, po.status);
+            assertEquals(productId, po.productId);
+            assertEquals("Summary SKU", po.productName);
+            assertEquals("Summary Supplies", po.supplier);
+            if (i > 0) {
+                PurchaseOrderSummary previous = approved.get(i - 1);
+                int byDate = previous.createdAt.compareTo(po.createdAt);
+                assertTrue(byDate > 0 || (byDate == 0 && previous.id > po.id), "out of order at " + i);
+            }
+        }
+        // Newest first: quantity 88 is the last APPROVED one inserted (i = 87)
+        assertEquals(88, approved.get(0).quantity);
+
+        List<PurchaseOrderSummary> all = readAll(cursor -> purchaseOrderController.getPurchaseOrderSummaries(null, 50, cursor));
+        assertTrue(all.size() >= 90);
+        assertEquals(all.size(), new HashSet<>(all.stream().map(po -> po.id).toList()).size());
+
+        assertEquals(400, purchaseOrderController.getPurchaseOrderSummaries("SHIPPED", 10, null).getStatusCode().value());
+    }
+
+    @Test
+    void malformedCursorsAndSizesAreRejected() {
+        assertEquals(400, productController.getProductPage(null, null, null, 10, "not-a-cursor").getStatusCode().value());
+        assertEquals(400, productController.getProductPage(null, null, null, 10, KeysetCursor.encode(Instant.now(), 1)).getStatusCode().value());
+        assertEquals(400, purchaseOrderController.getPurchaseOrderPage(0, null).getStatusCode().value());
+        assertEquals(400, salesController.getSalesReportPage(null, null, KeysetCursor.MAX_SIZE + 1, null).getStatusCode().value());
+
+        // page * size would overflow an int; deep pages are refused rather than wrapped
+        assertEquals(400, productController.searchProducts("tea", Integer.MAX_VALUE, 100).getStatusCode().value());
+        assertEquals(400, productController.searchProducts("tea", 100, 100).getStatusCode().value());
+        assertEquals(200, productController.searchProducts("tea", 99, 100).getStatusCode().value());
+    }
+}
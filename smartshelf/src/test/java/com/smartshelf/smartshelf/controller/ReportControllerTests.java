@@ -0,0 +1,108 @@
+package com.smartshelf.smartshelf.controller;
+
+import com.smartshelf.smartshelf.model.OrderStatus;
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.model.PurchaseOrder;
+import com.smartshelf.smartshelf.model.Sales;
+import com.smartshelf.smartshelf.repository.InstantBinder;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import com.smartshelf.smartshelf.repository.PurchaseOrderRepository;
+import com.smartshelf.smartshelf.repository.SalesRepository;
+import com.smartshelf.smartshelf.service.SalesRollupService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The seeded sales would skew every later test sharing the context, so it is thrown away afterwards
+@SpringBootTest
+@DirtiesContext
+class ReportControllerTests {
+
+    // Raise with -Dsmartshelf.bench.sales-rows=2000000 (and a larger -Xmx) for a bigger table
+    private static final int SALES_ROWS = Integer.getInteger("smartshelf.bench.sales-rows", 50_000);
+
+    @Autowired
+    private ReportController reportController;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private SalesRepository salesRepository;
+    @Autowired
+    private PurchaseOrderRepository poRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private InstantBinder instantBinder;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private SalesRollupService rollupService;
+
+    /**
+     * Checks the rollup-based analytics against the original approach
+     * (load every Sales entity and group with streams) on the same seeded table.
+     */
+    @Test
+    void analyticsProjectionsMatchEntityAggregation() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Product product = new Product();
+            product.setProductName("Product " + i);
+            product.setSupplier(i % 2 == 0 ? "North" : "South");
+            product.setQuantity(100);
+            product.setPrice(1.0 + i);
+            products.add(productRepository.save(product));
+        }
+        PurchaseOrder po = new PurchaseOrder();
+        po.setProduct(products.get(3));
+        po.setQuantity(10);
+        po.setStatus(OrderStatus.RECEIVED);
+        poRepository.save(po);
+
+        Instant base = Instant.parse("2025-01-15T12:00:00Z");
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < SALES_ROWS; i++) {
+            rows.add(i);
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO sales (product_id, quantity_sold, sale_date) VALUES (?, ?, ?)",
+                rows, 5_000, (ps, i) -> {
+                    ps.setLong(1, products.get(i % products.size()).getId());
+                    ps.setInt(2, 1 + i % 3);
+                    instantBinder.bind(ps, 3, base.plus(Duration.ofHours(i % (24 * 200))));
+                });
+
+        rollupService.rebuild(); // the PO above was saved as RECEIVED directly
+
+        // Legacy path: every Sales entity plus its lazy product, grouped in the heap
+        Map<String, Double> legacyRevenue = transactionTemplate.execute(status -> salesRepository.findAll().stream()
+                .collect(Collectors.groupingBy(
+                        sale -> sale.getProduct().getProductName(),
+                        Collectors.summingDouble((Sales sale) -> sale.getProduct().getPrice() * sale.getQuantitySold()))));
+        ReportController.AnalyticsDTO dto = reportController.getAnalyticsData().getBody();
+
+        // Same top product and revenue
+        Map.Entry<String, Double> best = legacyRevenue.entrySet().stream()
+                .max(Map.Entry.comparingByValue()).orElseThrow();
+        assertEquals(best.getKey(), dto.topProductsByRevenue.get(0).get("name"));
+        assertEquals(Math.round(best.getValue() * 100.0) / 100.0, (double) dto.topProductsByRevenue.get(0).get("value"), 0.01);
+        assertEquals(5, dto.topProductsByRevenue.size());
+
+        // Monthly sales revenue adds up to the same grand total
+        double legacyTotal = legacyRevenue.values().stream().mapToDouble(Double::doubleValue).sum();
+        double monthlyTotal = dto.monthlySalesVsPurchases.stream().mapToDouble(m -> (double) m.get("SalesRevenue")).sum();
+        assertEquals(legacyTotal, monthlyTotal, 1.0);
+        assertEquals(40.0, dto.supplierPurchaseCosts.get("South"), 0.001);
+    }
+}
@@ -0,0 +1,126 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.config.RestockProperties;
+import com.smartshelf.smartshelf.model.OrderStatus;
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.model.PurchaseOrder;
+import com.smartshelf.smartshelf.repository.InstantBinder;
+import com.smartshelf.smartshelf.repository.JobLockRepository;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import com.smartshelf.smartshelf.repository.PurchaseOrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "smartshelf.forecast.snapshot.cron=-",
+        "smartshelf.restock.enabled=false",
+        "smartshelf.forecast.default-model=sma"
+})
+class AutoRestockServiceTests {
+
+    @Autowired
+    private AutoRestockService autoRestockService;
+    @Autowired
+    private ForecastSnapshotService forecastSnapshotService;
+    @Autowired
+    private DemandWindow demandWindow;
+    @Autowired
+    private JobLockRepository jobLockRepository;
+    @Autowired
+    private RestockProperties restockProperties;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private InstantBinder instantBinder;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private PurchaseOrderRepository poRepository;
+
+    private Long productSelling(int stock, int unitsPerDay) {
+        Product product = new Product();
+        product.setProductName("Restock SKU " + stock + "/" + unitsPerDay);
+        product.setQuantity(stock);
+        product.setPrice(1.0);
+        Long id = productRepository.save(product).getId();
+        Instant now = Instant.now();
+        for (int day = 0; day < DemandWindow.WINDOW_DAYS; day++) {
+            demandWindow.record(id, unitsPerDay, now.minus(Duration.ofDays(day)));
+        }
+        return id;
+    }
+
+    private List<PurchaseOrder> ordersFor(Long productId) {
+        return poRepository.findAll().stream().filter(po -> po.getProduct().getId().equals(productId)).toList();
+    }
+
+    @Test
+    void ordersUpToTargetOnceAndNeverDoubleOrders() {
+        Long shortId = productSelling(2, 10);      // ~70/week predicted, 2 on hand
+        Long coveredId = productSelling(500, 10);  // plenty on hand
+        forecastSnapshotService.refresh();
+
+        autoRestockService.run();
+
+        List<PurchaseOrder> orders = ordersFor(shortId);
+        assertEquals(1, orders.size());
+        assertEquals(OrderStatus.PENDING, orders.get(0).getStatus());
+        assertEquals(3 * 70 - 2, orders.get(0).getQuantity()); // topped up to 3 weeks
+        assertTrue(ordersFor(coveredId).isEmpty());
+
+        // The open PO already covers the gap, so the next pass adds nothing
+        autoRestockService.run();
+        assertEquals(1, ordersFor(shortId).size());
+
+        // Receiving moves the units from "on order" to "on hand": still covered
+        PurchaseOrder po = orders.get(0);
+        po.setStatus(OrderStatus.APPROVED);
+        inventoryService.receive(poRepository.save(po));
+        assertEquals(210, productRepository.findById(shortId).orElseThrow().getQuantity());
+        autoRestockService.run();
+        assertEquals(1, ordersFor(shortId).size());
+    }
+
+    @Test
+    void concurrentRunsOnTwoInstancesOrderOnce() throws Exception {
+        Long shortId = productSelling(3, 10);
+        forecastSnapshotService.refresh();
+        // A second instance: its own monitor, the same database
+        AutoRestockService other = new AutoRestockService(forecastSnapshotService, productRepository, poRepository,
+                jobLockRepository, restockProperties, jdbcTemplate, instantBinder, transactionManager, new SimpleMeterRegistry());
+
+        CompletableFuture<AutoRestockService.RunResult> first = CompletableFuture.supplyAsync(autoRestockService::run);
+        CompletableFuture<AutoRestockService.RunResult> second = CompletableFuture.supplyAsync(other::run);
+        first.get(30, TimeUnit.SECONDS);
+        second.get(30, TimeUnit.SECONDS);
+
+        assertEquals(1, ordersFor(shortId).size());
+        assertNotNull(jobLockRepository.findById(AutoRestockService.JOB_NAME).orElseThrow().getLastRunAt());
+    }
+
+    @Test
+    void orderQuantityRespectsReorderPointAndMinimum() {
+        // Default thresholds: reorder below 1 week, top up to 3 weeks, at least 10 units
+        assertEquals(0, autoRestockService.orderQuantity(10, 0, 10.0));
+        assertEquals(0, autoRestockService.orderQuantity(4, 6, 10.0));
+        assertEquals(21, autoRestockService.orderQuantity(9, 0, 10.0));
+        assertEquals(10, autoRestockService.orderQuantity(0, 0, 1.0));
+        assertEquals(0, autoRestockService.orderQuantity(0, 0, 0.0));
+    }
+}
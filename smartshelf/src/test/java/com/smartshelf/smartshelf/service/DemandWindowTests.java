@@ -0,0 +1,69 @@
+package com.smartshelf.smartshelf.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DemandWindowTests {
+
+    // A clock the test can move forward
+    private static final class MovableClock extends Clock {
+        private Instant now;
+
+        MovableClock(Instant now) { this.now = now; }
+
+        void advance(Duration duration) { now = now.plus(duration); }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+
+    @Test
+    void sumsSalesInsideTheWindowAndAgesThemOutAcrossDayRollover() {
+        MovableClock clock = new MovableClock(Instant.parse("2025-11-01T12:00:00Z"));
+        DemandWindow window = new DemandWindow(null, clock);
+
+        window.record(1L, 4, clock.instant());
+        window.record(1L, 6, clock.instant().minus(Duration.ofDays(29)));
+        window.record(1L, 100, clock.instant().minus(Duration.ofDays(30))); // already outside
+        window.record(2L, 3, clock.instant());
+        assertEquals(10, window.totalUnits(1L));
+        assertEquals(3, window.totalUnits(2L));
+
+        // Next day: the 29-day-old sale drops out, today's stays
+        clock.advance(Duration.ofDays(1));
+        assertEquals(4, window.totalUnits(1L));
+
+        // A new sale reuses the bucket of a day that has left the window
+        window.record(1L, 2, clock.instant());
+        assertEquals(6, window.totalUnits(1L));
+
+        // Nothing sold for a full window
+        clock.advance(Duration.ofDays(DemandWindow.WINDOW_DAYS));
+        assertEquals(0, window.totalUnits(1L));
+        assertEquals(0, window.totalUnits(99L));
+    }
+
+    @Test
+    void dailySeriesIsOldestFirstWithTodayLast() {
+        MovableClock clock = new MovableClock(Instant.parse("2025-11-30T08:00:00Z"));
+        DemandWindow window = new DemandWindow(null, clock);
+
+        window.record(7L, 5, clock.instant());
+        window.record(7L, 2, clock.instant().minus(Duration.ofDays(1)));
+        window.record(7L, 9, clock.instant().minus(Duration.ofDays(DemandWindow.WINDOW_DAYS - 1)));
+
+        double[] series = window.dailySeries(7L);
+        assertEquals(DemandWindow.WINDOW_DAYS, series.length);
+        assertEquals(9, series[0]);
+        assertEquals(2, series[DemandWindow.WINDOW_DAYS - 2]);
+        assertEquals(5, series[DemandWindow.WINDOW_DAYS - 1]);
+    }
+}
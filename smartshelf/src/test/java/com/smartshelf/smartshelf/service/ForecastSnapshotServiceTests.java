@@ -0,0 +1,121 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.dto.ForecastDTO;
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.repository.ForecastRunRepository;
+import com.smartshelf.smartshelf.repository.ForecastSnapshotRepository;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "smartshelf.forecast.snapshot.cron=-",
+        "smartshelf.forecast.snapshot.retain-runs=2"
+})
+class ForecastSnapshotServiceTests {
+
+    @Autowired
+    private ForecastSnapshotService snapshotService;
+    @Autowired
+    private ForecastService forecastService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ForecastRunRepository runRepository;
+    @Autowired
+    private ForecastSnapshotRepository snapshotRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private DemandWindow demandWindow;
+
+    private Long saveProduct(String name, int quantity) {
+        return saveProduct(name, null, quantity);
+    }
+
+    private Long saveProduct(String name, String category, int quantity) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setCategory(category);
+        product.setQuantity(quantity);
+        product.setPrice(1.0);
+        return productRepository.save(product).getId();
+    }
+
+    @Test
+    void refreshStoresARunAndServesItWithoutRecomputing() {
+        saveProduct("Snapshot A", 5);
+        saveProduct("Snapshot B", 0);
+        long runsTimed = meterRegistry.get("smartshelf.forecast.run.duration").timer().count();
+
+        ForecastSnapshotService.Snapshot snapshot = snapshotService.refresh();
+
+        assertEquals(productRepository.count(), snapshot.rows().size());
+        assertEquals(snapshot.rows().size(), snapshotRepository.countByRunId(snapshot.runId()));
+        // Reads hand back the same materialized list
+        assertSame(snapshot, snapshotService.getLatest());
+        assertSame(snapshot.rows(), snapshotService.getLatest().rows());
+        assertEquals(runsTimed + 1, meterRegistry.get("smartshelf.forecast.run.duration").timer().count());
+
+        // A new instance (as after a restart) loads the stored run instead of recomputing
+        ForecastSnapshotService restarted = new ForecastSnapshotService(forecastService, productRepository, runRepository,
+                snapshotRepository, jdbcTemplate, transactionManager, new SimpleMeterRegistry(), event -> {}, 2);
+        restarted.loadLatest();
+        ForecastSnapshotService.Snapshot reloaded = restarted.getLatest();
+        assertEquals(snapshot.runId(), reloaded.runId());
+        assertEquals(snapshot.rows().size(), reloaded.rows().size());
+        for (int i = 0; i < snapshot.rows().size(); i++) {
+            assertEquals(snapshot.rows().get(i).productId, reloaded.rows().get(i).productId);
+            assertEquals(snapshot.rows().get(i).status, reloaded.rows().get(i).status);
+        }
+    }
+
+    @Test
+    void onlyTheNewestRunsAreKept() {
+        saveProduct("Retention SKU", 3);
+
+        snapshotService.refresh();
+        ForecastSnapshotService.Snapshot second = snapshotService.refresh();
+        ForecastSnapshotService.Snapshot third = snapshotService.refresh();
+
+        assertTrue(third.runId() > second.runId());
+        assertEquals(2, runRepository.count());
+        assertEquals(second.rows().size() + third.rows().size(), snapshotRepository.count());
+        assertEquals(third.runId(), snapshotService.getLatest().runId());
+    }
+
+    @Test
+    void filtersAndSingleProductLookupsAreServedFromTheSnapshot() {
+        Long restockId = saveProduct("Filter restock", "Filters", 0);
+        demandWindow.record(restockId, 5, Instant.now());
+        Long otherId = saveProduct("Filter steady", "Filters", 0);
+
+        ForecastSnapshotService.Snapshot snapshot = snapshotService.refresh();
+
+        List<ForecastDTO> restock = snapshot.filter("RESTOCK NEEDED", "Filters");
+        assertEquals(List.of(restockId), restock.stream().map(row -> row.productId).toList());
+        assertEquals(2, snapshot.filter(null, "Filters").size());
+        assertTrue(snapshot.filter("OVERSTOCKED", "Filters").isEmpty());
+        assertEquals("Filters", snapshotService.forecastFor(otherId).orElseThrow().category);
+
+        // Added after the run: forecast for just that product, without a new run
+        Long lateId = saveProduct("Filter late", "Filters", 3);
+        assertEquals(lateId, snapshotService.forecastFor(lateId).orElseThrow().productId);
+        assertEquals(snapshot.runId(), snapshotService.getLatest().runId());
+        assertTrue(snapshotService.forecastFor(-1L).isEmpty());
+    }
+}
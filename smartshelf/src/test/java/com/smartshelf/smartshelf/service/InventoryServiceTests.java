@@ -0,0 +1,185 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.controller.PurchaseOrderController;
+import com.smartshelf.smartshelf.model.OrderStatus;
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.model.PurchaseOrder;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import com.smartshelf.smartshelf.repository.PurchaseOrderRepository;
+import com.smartshelf.smartshelf.repository.SalesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class InventoryServiceTests {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryServiceTests.class);
+
+    @Autowired
+    private SalesService salesService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private SalesRepository salesRepository;
+    @Autowired
+    private ProductCache productCache;
+    @Autowired
+    private PurchaseOrderRepository poRepository;
+    @Autowired
+    private PurchaseOrderController purchaseOrderController;
+
+    @BeforeEach
+    void cleanUp() {
+        salesRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    /**
+     * Many POS threads hammer a few hot SKUs with more demand than stock.
+     * Exactly the available stock must be sold: no oversell, no lost updates.
+     */
+    @Test
+    void concurrentSalesNeverOversellHotSkus() throws Exception {
+        int stockPerSku = 500;
+        int threads = 16;
+        int attemptsPerThread = 200; // 3200 attempts per run vs 1500 units in stock
+        List<Long> skus = hotSkus(stockPerSku);
+
+        Outcome outcome = hammer(skus, threads, attemptsPerThread);
+
+        assertEquals(skus.size() * stockPerSku, outcome.sold());
+        assertEquals(threads * attemptsPerThread - outcome.sold(), outcome.rejected());
+        assertEquals(outcome.sold(), salesRepository.count());
+        for (Long sku : skus) {
+            assertEquals(0, productRepository.findById(sku).orElseThrow().getQuantity());
+            assertEquals(0, productCache.findById(sku).orElseThrow().getQuantity()); // cache kept up with every commit
+        }
+    }
+
+    /**
+     * Sales per second on the hot SKUs, logged rather than asserted.
+     * Opt in with -Dsmartshelf.bench.hot-sku-sales=20000
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "smartshelf.bench.hot-sku-sales", matches = "\\d+")
+    void hotSkuSalesThroughput() throws Exception {
+        int threads = 16;
+        int attemptsPerThread = Integer.getInteger("smartshelf.bench.hot-sku-sales") / threads;
+        List<Long> skus = hotSkus(threads * attemptsPerThread); // enough stock that every sale goes through
+        hammer(skus, threads, 50); // warm-up
+
+        long begin = System.nanoTime();
+        Outcome outcome = hammer(skus, threads, attemptsPerThread);
+        long elapsed = System.nanoTime() - begin;
+
+        log.info("Hot-SKU sales: {} threads on {} SKUs, {} sold, {} rejected, {} sales/s",
+                threads, skus.size(), outcome.sold(), outcome.rejected(), String.format("%.0f", outcome.sold() / (elapsed / 1e9)));
+    }
+
+    private record Outcome(int sold, int rejected) {
+    }
+
+    private List<Long> hotSkus(int stockPerSku) {
+        List<Long> skus = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Product product = new Product();
+            product.setProductName("Hot SKU " + i);
+            product.setQuantity(stockPerSku);
+            product.setPrice(2.0);
+            skus.add(productRepository.save(product).getId());
+        }
+        return skus;
+    }
+
+    // Every thread sells one unit at a time, round-robin over the SKUs, all starting together
+    private Outcome hammer(List<Long> skus, int threads, int attemptsPerThread) throws Exception {
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    Long sku = skus.get((offset + i) % skus.size());
+                    try {
+                        salesService.recordSale(sku, 1);
+                        sold.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+        return new Outcome(sold.get(), rejected.get());
+    }
+
+    /**
+     * Several requests receive the same PO at once: its quantity is added to stock once.
+     */
+    @Test
+    void concurrentReceiptsOfOnePoAddStockOnce() throws Exception {
+        Product product = new Product();
+        product.setProductName("Double delivery");
+        product.setQuantity(5);
+        product.setPrice(2.0);
+        product = productRepository.save(product);
+
+        PurchaseOrder po = new PurchaseOrder();
+        po.setProduct(product);
+        po.setQuantity(40);
+        po.setStatus(OrderStatus.APPROVED);
+        po.setCreatedAt(Instant.now());
+        Long poId = poRepository.save(po).getId();
+
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            statuses.add(pool.submit(() -> {
+                start.await();
+                return purchaseOrderController.receivePurchaseOrder(poId).getStatusCode().value();
+            }));
+        }
+        start.countDown();
+        int ok = 0;
+        try {
+            for (Future<Integer> status : statuses) {
+                int code = status.get(1, TimeUnit.MINUTES);
+                assertTrue(code == 200 || code == 400 || code == 409, "status " + code);
+                if (code == 200) {
+                    ok++;
+                }
+            }
+        } finally {
+            pool.shutdown();
+            poRepository.deleteById(poId);
+        }
+
+        assertEquals(1, ok);
+        assertEquals(45, productRepository.findById(product.getId()).orElseThrow().getQuantity());
+    }
+}
@@ -0,0 +1,115 @@
+package com.smartshelf.smartshelf.service;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtKeyRingTests {
+
+    private static final Duration ROTATION = Duration.ofDays(7);
+    private static final Duration ACTIVATION = Duration.ofMinutes(5);
+    private static final Duration LIFETIME = Duration.ofDays(1);
+
+    @TempDir
+    Path dir;
+
+    // A clock the test can move forward
+    private static final class MovableClock extends Clock {
+        private Instant now;
+
+        MovableClock(Instant now) { this.now = now; }
+
+        void advance(Duration duration) { now = now.plus(duration); }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+
+    @Test
+    void instancesSharingTheFileAcceptEachOthersTokens() {
+        MovableClock clock = new MovableClock(Instant.now());
+        JwtKeyRing first = ring(clock);
+        JwtKeyRing second = ring(clock);
+
+        assertEquals(first.signingKey().kid(), second.signingKey().kid());
+        assertEquals("someone@example.com", second.parse(sign(first, "someone@example.com")).getBody().getSubject());
+
+        // A restart keeps the keys, so nobody is logged out
+        JwtKeyRing restarted = ring(clock);
+        assertEquals(first.signingKey().kid(), restarted.signingKey().kid());
+        assertDoesNotThrow(() -> restarted.parse(sign(second, "someone@example.com")));
+
+        // Wrong password: refuse to start rather than silently make new keys
+        assertThrows(RuntimeException.class,
+                () -> new JwtKeyRing(dir.resolve("jwt-keys.p12"), "wrong", ROTATION, ACTIVATION, LIFETIME, clock).init());
+    }
+
+    @Test
+    void rotatesAddsBeforeSigningAndDropsOnceExpired() {
+        MovableClock clock = new MovableClock(Instant.now());
+        JwtKeyRing first = ring(clock);
+        JwtKeyRing second = ring(clock);
+        String oldKid = first.signingKey().kid();
+        String oldToken = sign(first, "early@example.com");
+
+        // Due: the first instance to notice adds a key, which doesn't sign yet
+        clock.advance(ROTATION.plusHours(1));
+        first.refresh();
+        assertEquals(oldKid, first.signingKey().kid());
+        second.refresh();
+        assertEquals(oldKid, second.signingKey().kid());
+        clock.advance(ACTIVATION.plusSeconds(1));
+        first.refresh();
+        second.refresh();
+        String newKid = first.signingKey().kid();
+        assertNotEquals(oldKid, newKid);
+        assertEquals(newKid, second.signingKey().kid());
+        assertTrue(second.hasKey(oldKid));
+
+        // Both keys verify until the old key's last token has expired
+        String newToken = sign(second, "late@example.com");
+        assertDoesNotThrow(() -> first.parse(oldToken));
+        assertDoesNotThrow(() -> first.parse(newToken));
+
+        clock.advance(LIFETIME.plusMinutes(1));
+        second.refresh();
+        first.refresh();
+        assertFalse(first.hasKey(oldKid));
+        assertFalse(second.hasKey(oldKid));
+        assertThrows(JwtException.class, () -> first.parse(oldToken));
+        assertDoesNotThrow(() -> second.parse(newToken));
+
+        // Nothing more to do until the next rotation is due
+        assertEquals(newKid, ring(clock).signingKey().kid());
+    }
+
+    private JwtKeyRing ring(Clock clock) {
+        JwtKeyRing ring = new JwtKeyRing(dir.resolve("jwt-keys.p12"), "test-password", ROTATION, ACTIVATION, LIFETIME, clock);
+        ring.init();
+        return ring;
+    }
+
+    // Signed now (real time), so the parser's expiry check passes whatever the test clock says
+    private static String sign(JwtKeyRing ring, String subject) {
+        JwtKeyRing.SigningKey key = ring.signingKey();
+        return Jwts.builder()
+                .setHeaderParam("kid", key.kid())
+                .setSubject(subject)
+                .setExpiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(key.key(), SignatureAlgorithm.HS512)
+                .compact();
+    }
+}
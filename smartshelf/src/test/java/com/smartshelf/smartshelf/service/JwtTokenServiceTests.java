@@ -0,0 +1,147 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.controller.UserController;
+import com.smartshelf.smartshelf.model.Role;
+import com.smartshelf.smartshelf.model.User;
+import com.smartshelf.smartshelf.repository.TokenRevocationRepository;
+import com.smartshelf.smartshelf.repository.UserRepository;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.Authentication;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class JwtTokenServiceTests {
+
+    @Autowired
+    private JwtTokenService jwtTokenService;
+    @Autowired
+    private TokenRevocationService revocationService;
+    @Autowired
+    private TokenRevocationRepository revocationRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserController userController;
+    @Autowired
+    private JwtKeyRing keyRing;
+
+    private final List<User> createdUsers = new ArrayList<>();
+
+    @AfterEach
+    void deleteUsers() {
+        for (User user : createdUsers) {
+            revocationRepository.deleteById(user.getEmail());
+        }
+        userRepository.deleteAll(userRepository.findAllById(createdUsers.stream().map(User::getId).toList()));
+        revocationService.refresh();
+    }
+
+    @Test
+    void authenticatesFromTheTokenAlone() {
+        User user = user("jwt-claims@example.com", Role.STORE_MANAGER);
+        String token = jwtTokenService.issue(user);
+
+        // Gone from the database: the token is still enough, so nothing was looked up
+        userRepository.delete(user);
+        createdUsers.remove(user);
+        Authentication authentication = jwtTokenService.authenticate(token);
+        assertNotNull(authentication);
+        assertEquals("jwt-claims@example.com", authentication.getName());
+        assertEquals(List.of("STORE_MANAGER"), authorities(authentication));
+
+        // Cached the second time round, same answer
+        assertEquals(authorities(authentication), authorities(jwtTokenService.authenticate(token)));
+    }
+
+    @Test
+    void roleChangeRevokesOlderTokens() {
+        User user = user("jwt-promoted@example.com", Role.USER);
+        String asUser = jwtTokenService.issue(user);
+        assertEquals(List.of("USER"), authorities(jwtTokenService.authenticate(asUser)));
+
+        userController.promoteToManager(user.getId());
+        assertNull(jwtTokenService.authenticate(asUser));
+
+        // Logging in again (even within the same second) gives a token with the new role
+        User promoted = userRepository.findById(user.getId()).orElseThrow();
+        String asManager = jwtTokenService.issue(promoted);
+        assertEquals(List.of("STORE_MANAGER"), authorities(jwtTokenService.authenticate(asManager)));
+
+        // Another instance would learn about the revocation from the table
+        revocationService.refresh();
+        assertNull(jwtTokenService.authenticate(asUser));
+        assertNotNull(jwtTokenService.authenticate(asManager));
+
+        userController.demoteToUser(user.getId());
+        assertNull(jwtTokenService.authenticate(asManager));
+    }
+
+    @Test
+    void rejectsTamperedExpiredRoleLessAndUnknownKeyTokens() {
+        User user = user("jwt-rejects@example.com", Role.USER);
+        String token = jwtTokenService.issue(user);
+
+        // Changes a character in the middle of the signature (the last one may only carry padding bits)
+        int i = token.lastIndexOf('.') + 10;
+        String tampered = token.substring(0, i) + (token.charAt(i) == 'A' ? 'B' : 'A') + token.substring(i + 1);
+        assertNull(jwtTokenService.authenticate(tampered));
+        assertNull(jwtTokenService.authenticate("not-a-token"));
+
+        JwtKeyRing.SigningKey key = keyRing.signingKey();
+        String noRole = Jwts.builder()
+                .setHeaderParam("kid", key.kid())
+                .setSubject(user.getEmail())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(key.key(), SignatureAlgorithm.HS512)
+                .compact();
+        assertNull(jwtTokenService.authenticate(noRole));
+
+        String expired = Jwts.builder()
+                .setHeaderParam("kid", key.kid())
+                .setSubject(user.getEmail())
+                .claim(JwtTokenService.ROLE_CLAIM, "ADMIN")
+                .setIssuedAt(new Date(System.currentTimeMillis() - 120_000))
+                .setExpiration(new Date(System.currentTimeMillis() - 60_000))
+                .signWith(key.key(), SignatureAlgorithm.HS512)
+                .compact();
+        assertNull(jwtTokenService.authenticate(expired));
+
+        // A kid we know, signed with some other key (another cluster's, or a pre-rotation startup key)
+        String foreign = Jwts.builder()
+                .setHeaderParam("kid", key.kid())
+                .setSubject(user.getEmail())
+                .claim(JwtTokenService.ROLE_CLAIM, "ADMIN")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.secretKeyFor(SignatureAlgorithm.HS512), SignatureAlgorithm.HS512)
+                .compact();
+        assertNull(jwtTokenService.authenticate(foreign));
+    }
+
+    private static List<String> authorities(Authentication authentication) {
+        return authentication.getAuthorities().stream().map(Object::toString).toList();
+    }
+
+    private User user(String email, Role role) {
+        User user = new User();
+        user.setFullName("JWT Test");
+        user.setEmail(email);
+        user.setPassword("not-used");
+        user.setRole(role);
+        User saved = userRepository.save(user);
+        createdUsers.add(saved);
+        return saved;
+    }
+}
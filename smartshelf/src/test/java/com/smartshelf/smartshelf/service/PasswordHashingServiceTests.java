@@ -0,0 +1,113 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.controller.AuthController;
+import com.smartshelf.smartshelf.dto.LoginRequest;
+import com.smartshelf.smartshelf.dto.LoginResponse;
+import com.smartshelf.smartshelf.model.Role;
+import com.smartshelf.smartshelf.model.User;
+import com.smartshelf.smartshelf.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class PasswordHashingServiceTests {
+
+    @Autowired
+    private AuthController authController;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void verifiesAndRehashesWhenTheCostChanged() {
+        PasswordHashingService hashing = new PasswordHashingService(new BCryptPasswordEncoder(4), new SimpleMeterRegistry(), 4, 1, 10);
+        String oldCost = new BCryptPasswordEncoder(5).encode("secret1");
+
+        PasswordHashingService.Verification verification = hashing.verify("secret1", oldCost).join();
+        assertTrue(verification.matches());
+        assertTrue(verification.rehash().startsWith("$2a$04$"));
+
+        // Already at the current cost: nothing to store
+        assertNull(hashing.verify("secret1", verification.rehash()).join().rehash());
+        assertFalse(hashing.verify("wrong", oldCost).join().matches());
+        assertFalse(hashing.verify("secret1", null).join().matches()); // no such user
+        hashing.shutdown();
+    }
+
+    @Test
+    void rejectsStraightAwayWhenTheQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slow = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                if ("slow".contentEquals(rawPassword)) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordHashingService hashing = new PasswordHashingService(slow, registry, 4, 1, 1);
+
+        CompletableFuture<String> running = hashing.encode("slow");
+        CompletableFuture<String> queued = hashing.encode("slow");
+        assertThrows(RejectedExecutionException.class, () -> hashing.verify("secret1", null));
+        assertEquals(1, hashing.queueDepth());
+        assertEquals(1.0, registry.get("smartshelf.auth.password.hash.rejected").counter().count());
+
+        release.countDown();
+        assertNotNull(running.get(5, TimeUnit.SECONDS));
+        assertNotNull(queued.get(5, TimeUnit.SECONDS));
+        assertEquals(2, registry.get("smartshelf.auth.password.hash.duration").tag("operation", "encode").timer().count());
+        hashing.shutdown();
+    }
+
+    @Test
+    void loginRehashesAnOldPasswordTransparently() {
+        User user = new User();
+        user.setFullName("Rehash Test");
+        user.setEmail("rehash@example.com");
+        user.setPassword(new BCryptPasswordEncoder(4).encode("secret1"));
+        user.setRole(Role.USER);
+        user = userRepository.save(user);
+        try {
+            ResponseEntity<?> wrong = authController.authenticateUser(login("rehash@example.com", "nope")).join();
+            assertEquals(401, wrong.getStatusCode().value());
+            ResponseEntity<?> unknown = authController.authenticateUser(login("nobody@example.com", "secret1")).join();
+            assertEquals(401, unknown.getStatusCode().value());
+
+            ResponseEntity<?> ok = authController.authenticateUser(login("rehash@example.com", "secret1")).join();
+            assertEquals(200, ok.getStatusCode().value());
+            assertEquals("USER", ((LoginResponse) ok.getBody()).getRole());
+            String stored = userRepository.findById(user.getId()).orElseThrow().getPassword();
+            assertTrue(stored.startsWith("$2a$10$"), stored);
+
+            // Still the same password
+            assertEquals(200, authController.authenticateUser(login("rehash@example.com", "secret1")).join().getStatusCode().value());
+        } finally {
+            userRepository.deleteById(user.getId());
+        }
+    }
+
+    private static LoginRequest login(String email, String password) {
+        LoginRequest request = new LoginRequest();
+        request.setEmail(email);
+        request.setPassword(password);
+        return request;
+    }
+}
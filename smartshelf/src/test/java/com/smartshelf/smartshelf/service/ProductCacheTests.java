@@ -0,0 +1,163 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ProductCacheTests {
+
+    @Autowired
+    private SalesService salesService;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductCache productCache;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // A clock the test can move forward
+    private static final class MovableClock extends Clock {
+        private Instant now;
+
+        MovableClock(Instant now) { this.now = now; }
+
+        void advance(Duration duration) { now = now.plus(duration); }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+
+    @Test
+    void warmCacheSavesTheProductSelectOnEverySale() {
+        Long id = newProduct(1_000);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        salesService.recordSale(id, 1); // warms the cache
+
+        int sales = 100;
+        statistics.clear();
+        for (int i = 0; i < sales; i++) {
+            assertEquals(1_000 - 2 - i, salesService.recordSale(id, 1).getProduct().getQuantity());
+        }
+        // Change version INSERT, stock UPDATE and sales INSERT: no entity load, no stock read back
+        long cachedStatements = statistics.getPrepareStatementCount();
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        // The same sales with the cache bypassed: every one loads the product first
+        statistics.clear();
+        for (int i = 0; i < sales; i++) {
+            productCache.invalidate(id);
+            assertEquals(1_000 - 2 - sales - i, salesService.recordSale(id, 1).getProduct().getQuantity());
+        }
+        long uncachedStatements = statistics.getPrepareStatementCount();
+        assertEquals(sales, statistics.getEntityLoadCount());
+        assertTrue(cachedStatements < uncachedStatements,
+                "statements for " + sales + " sales: cached " + cachedStatements + ", uncached " + uncachedStatements);
+
+        assertEquals(1_000 - 1 - 2 * sales, productRepository.findById(id).orElseThrow().getQuantity());
+        assertEquals(1_000 - 1 - 2 * sales, productCache.findById(id).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void saleReportsTheStockInTheDatabaseWhenTheCacheIsStale() {
+        Long id = newProduct(40);
+        productCache.findById(id);
+        // Restocked behind the cache's back
+        jdbcTemplate.update("UPDATE products SET quantity = 100 WHERE id = ?", id);
+
+        assertEquals(97, salesService.recordSale(id, 3).getProduct().getQuantity());
+    }
+
+    @Test
+    void stockChangesApplyOnCommitOnlyAndEditsInvalidate() {
+        Long id = newProduct(50);
+        assertEquals(50, productCache.findById(id).orElseThrow().getQuantity());
+
+        // Rolled back: the cached stock must not move
+        transactionTemplate.executeWithoutResult(status -> {
+            inventoryService.takeStock(id, 5);
+            status.setRollbackOnly();
+        });
+        assertEquals(50, productCache.findById(id).orElseThrow().getQuantity());
+
+        // A miss inside the transaction sees the uncommitted stock and must not be cached
+        productCache.invalidate(id);
+        transactionTemplate.executeWithoutResult(status -> {
+            inventoryService.takeStock(id, 5);
+            assertEquals(45, productCache.findById(id).orElseThrow().getQuantity());
+            status.setRollbackOnly();
+        });
+        assertEquals(50, productCache.findById(id).orElseThrow().getQuantity());
+
+        inventoryService.increment(id, 7);
+        assertEquals(57, productCache.findById(id).orElseThrow().getQuantity());
+
+        // Copies are private to the caller
+        productCache.findById(id).orElseThrow().setPrice(999);
+        assertEquals(3.0, productCache.findById(id).orElseThrow().getPrice());
+
+        // An edit outside InventoryService needs an explicit invalidate
+        Product product = productRepository.findById(id).orElseThrow();
+        product.setPrice(4.0);
+        productRepository.save(product);
+        productCache.invalidate(id);
+        assertEquals(4.0, productCache.findById(id).orElseThrow().getPrice());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedAndExpiredEntries() {
+        MovableClock clock = new MovableClock(Instant.parse("2025-11-01T00:00:00Z"));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ProductCache cache = new ProductCache(productRepository, registry, clock, 2, Duration.ofMinutes(5));
+        Long a = newProduct(1);
+        Long b = newProduct(2);
+        Long c = newProduct(3);
+
+        cache.findById(a);
+        cache.findById(b);
+        cache.findById(a); // hit: b is now the least recently used
+        cache.findById(c); // evicts b
+        assertEquals(2, cache.size());
+        cache.findById(a);
+        assertEquals(2.0, registry.get("smartshelf.product.cache.requests").tag("result", "hit").counter().count());
+        cache.findById(b); // miss again
+        assertEquals(4.0, registry.get("smartshelf.product.cache.requests").tag("result", "miss").counter().count());
+        assertEquals(2.0, registry.get("smartshelf.product.cache.evictions").tag("cause", "size").counter().count());
+
+        clock.advance(Duration.ofMinutes(6));
+        cache.findById(a);
+        assertEquals(1.0, registry.get("smartshelf.product.cache.evictions").tag("cause", "expired").counter().count());
+        assertTrue(cache.findById(-1L).isEmpty());
+    }
+
+    private Long newProduct(int quantity) {
+        Product product = new Product();
+        product.setProductName("Cached " + quantity);
+        product.setQuantity(quantity);
+        product.setPrice(3.0);
+        return productRepository.save(product).getId();
+    }
+}
@@ -0,0 +1,146 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.dto.ProductChangesResponse;
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.repository.ChangeAllocationRepository;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import com.smartshelf.smartshelf.repository.ProductTombstoneRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ProductChangeServiceTests {
+
+    @Autowired
+    private ProductChangeService changeService;
+    @Autowired
+    private SalesService salesService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductTombstoneRepository tombstoneRepository;
+    @Autowired
+    private ChangeAllocationRepository allocationRepository;
+
+    @Test
+    void returnsEditsSalesAndDeletesSinceAVersion() {
+        long start = changeService.safeVersion();
+        Product kept = changeService.create(product("Kept", 10));
+        Product removed = changeService.create(product("Removed", 5));
+        Product untouched = changeService.create(product("Untouched", 1));
+        long afterCreate = changeService.changesSince(start, 100).version;
+
+        salesService.recordSale(kept.getId(), 3);
+        changeService.delete(removed.getId());
+
+        ProductChangesResponse changes = changeService.changesSince(afterCreate, 100);
+        assertEquals(List.of(kept.getId()), changes.changed.stream().map(Product::getId).toList());
+        assertEquals(7, changes.changed.get(0).getQuantity());
+        assertEquals(List.of(removed.getId()), changes.deleted);
+        assertFalse(changes.hasMore);
+        assertTrue(changes.version > afterCreate);
+
+        // Nothing new since then
+        ProductChangesResponse none = changeService.changesSince(changes.version, 100);
+        assertTrue(none.changed.isEmpty() && none.deleted.isEmpty());
+        assertEquals(changes.version, none.version);
+
+        // From the start: the untouched product once, the sold one at its latest version
+        ProductChangesResponse all = changeService.changesSince(start, 100);
+        assertEquals(List.of(untouched.getId(), kept.getId()), all.changed.stream().map(Product::getId).toList());
+    }
+
+    @Test
+    void pagesThroughChangesInVersionOrder() {
+        long start = changeService.safeVersion();
+        for (int i = 0; i < 5; i++) {
+            changeService.create(product("Paged " + i, i));
+        }
+        Product gone = changeService.create(product("Paged gone", 1));
+        changeService.delete(gone.getId());
+
+        long since = start;
+        int changed = 0;
+        int deleted = 0;
+        int calls = 0;
+        ProductChangesResponse page;
+        do {
+            page = changeService.changesSince(since, 2);
+            assertTrue(page.changed.size() + page.deleted.size() <= 2);
+            changed += page.changed.size();
+            deleted += page.deleted.size();
+            since = page.version;
+            calls++;
+        } while (page.hasMore);
+        assertEquals(5, changed);
+        assertEquals(1, deleted);
+        assertEquals(3, calls);
+
+        assertThrows(IllegalArgumentException.class, () -> changeService.changesSince(changeService.safeVersion() + 1, 10));
+    }
+
+    @Test
+    void writersDoNotWaitForEachOtherAndReadsWaitForTheSettleDelay() throws Exception {
+        // A second view of the same data that only serves changes at least a minute old
+        ProductChangeService settling = new ProductChangeService(productRepository, tombstoneRepository, allocationRepository, 60_000);
+        Product product = changeService.create(product("Slow edit", 1));
+        CountDownLatch allocated = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // A writer that takes a version and then stalls before committing
+        CompletableFuture<Long> slow = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            long version = changeService.nextVersion();
+            allocated.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return version;
+        }));
+        assertTrue(allocated.await(10, TimeUnit.SECONDS));
+
+        // A later change commits ahead of the open one instead of queueing behind it
+        long laterVersion = changeService.update(product.getId(), product("Slow edit 2", 2)).orElseThrow().getChangeVersion();
+        assertFalse(slow.isDone());
+        // Still too recent to be served: a client can't move past the open version
+        assertTrue(settling.safeVersion() < product.getChangeVersion());
+
+        release.countDown();
+        long slowVersion = slow.get(10, TimeUnit.SECONDS);
+        assertTrue(slowVersion < laterVersion);
+        assertTrue(changeService.safeVersion() >= laterVersion);
+        assertEquals(0, (laterVersion - slowVersion) % ProductChangeService.BLOCK_SIZE);
+    }
+
+    @Test
+    void pruningKeepsTheSafeVersion() {
+        changeService.create(product("Pruned 1", 1));
+        changeService.create(product("Pruned 2", 1));
+        long safe = changeService.safeVersion();
+
+        changeService.prune();
+
+        assertEquals(safe, changeService.safeVersion());
+        assertEquals(1, allocationRepository.count());
+    }
+
+    private static Product product(String name, int quantity) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setQuantity(quantity);
+        product.setPrice(1.5);
+        return product;
+    }
+}
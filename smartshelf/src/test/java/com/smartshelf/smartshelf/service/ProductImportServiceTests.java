@@ -0,0 +1,192 @@
+package com.smartshelf.smartshelf.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartshelf.smartshelf.controller.ProductController;
+import com.smartshelf.smartshelf.dto.ProductImportResult;
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ProductImportServiceTests {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportServiceTests.class);
+    private static final int IMPORT_ROWS = 20_000;
+    private static final int SINGLE_ROWS = 2_000;
+
+    @Autowired
+    private ProductImportService importService;
+    @Autowired
+    private ProductController productController;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductSearchIndex searchIndex;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ProductChangeService changeService;
+    @Autowired
+    private ProductCache productCache;
+    @Autowired
+    private StockRiskIndex stockRiskIndex;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void importsValidCsvRowsAndReportsTheRest() throws IOException {
+        Product existing = productController.createProduct(product("Old Label Tea", 5));
+        String csv = "productName,category,quantity,price,supplier,id\r\n"
+                + "\"Quoted, Biscuits\",Snacks,10,1.25,\"Acme \"\"Best\"\" Foods\",\n"
+                + "Plain Rice,Pantry,20,3.5,Acme,\n"
+                + "\n"
+                + ",Pantry,1,1,Acme,\n"                       // 3: no name
+                + "Bad Qty,Pantry,many,1,Acme,\n"             // 4: not a number
+                + "Renamed Tea,Beverages,7,2.0,Leaf Co," + existing.getId() + "\n"
+                + "Ghost,Pantry,1,1,Acme,999999999\n";        // 6: unknown id
+
+        ProductImportResult result = importService.importProducts(stream(csv), ProductImportService.Format.CSV);
+
+        assertEquals(6, result.rowsRead);
+        assertEquals(2, result.inserted);
+        assertEquals(1, result.updated);
+        assertEquals(3, result.rejected);
+        assertEquals(List.of(3L, 4L, 6L), result.errors.stream().map(ProductImportResult.RowError::row).toList());
+
+        Product renamed = productRepository.findById(existing.getId()).orElseThrow();
+        assertEquals("Renamed Tea", renamed.getProductName());
+        assertEquals(7, renamed.getQuantity());
+        assertTrue(renamed.getChangeVersion() > existing.getChangeVersion());
+
+        // Imported rows are searchable straight away, with their real ids
+        List<Long> found = searchIndex.search("quoted biscuits", 0, 5).hits().stream()
+                .map(ProductSearchIndex.Hit::productId).toList();
+        assertEquals(1, found.size());
+        Product biscuits = productRepository.findById(found.get(0)).orElseThrow();
+        assertEquals("Quoted, Biscuits", biscuits.getProductName());
+        assertEquals("Acme \"Best\" Foods", biscuits.getSupplier());
+        assertEquals(List.of(existing.getId()), searchIndex.search("renamed", 0, 5).hits().stream()
+                .map(ProductSearchIndex.Hit::productId).toList());
+    }
+
+    @Test
+    void importsJsonArraysAndJsonLines() throws IOException {
+        String array = "[{\"productName\":\"Json Apples\",\"quantity\":3,\"price\":0.5},"
+                + "{\"productName\":\"Json Pears\",\"quantity\":\"lots\",\"price\":0.5},"
+                + "{\"productName\":\"Json Plums\",\"quantity\":4,\"price\":0.75,\"unknownField\":true}]";
+        ProductImportResult fromArray = importService.importProducts(stream(array), ProductImportService.Format.JSON);
+        assertEquals(3, fromArray.rowsRead);
+        assertEquals(2, fromArray.inserted);
+        assertEquals(List.of(2L), fromArray.errors.stream().map(ProductImportResult.RowError::row).toList());
+
+        String lines = "{\"productName\":\"Line One\",\"quantity\":1,\"price\":1}\n"
+                + "{\"productName\":\"Line Two\",\"quantity\":-1,\"price\":1}\n"
+                + "{\"productName\":\"Line Three\",\"quantity\":1,\"price\":1}\n"
+                + "{\"productName\":\"Broken\", \n";
+        ProductImportResult fromLines = importService.importProducts(stream(lines), ProductImportService.Format.JSON);
+        assertEquals(2, fromLines.inserted);
+        assertEquals(2, fromLines.rejected); // negative quantity, then the truncated object
+    }
+
+    @Test
+    void aFailedBatchIsReportedAndTheImportGoesOn() throws IOException {
+        ProductImportService smallBatches = new ProductImportService(jdbcTemplate, transactionManager, productRepository,
+                changeService, productCache, searchIndex, stockRiskIndex, objectMapper, 2);
+        String csv = "productName,category,quantity,price\n"
+                + "Batch One A,Pantry,1,1\n"
+                + "Batch One B," + "x".repeat(300) + ",1,1\n"   // too long for the column: batch 1 fails
+                + "Batch Two A,Pantry,1,1\n"
+                + "Batch Two B,Pantry,1,1\n";
+
+        ProductImportResult result = smallBatches.importProducts(stream(csv), ProductImportService.Format.CSV);
+
+        assertEquals(2, result.inserted);
+        assertEquals(2, result.rejected);
+        assertEquals(List.of(1L, 2L), result.errors.stream().map(ProductImportResult.RowError::row).toList());
+        assertTrue(result.errors.get(0).message().startsWith("Not written"), result.errors.get(0).message());
+        assertTrue(searchIndex.search("batch one", 0, 5).hits().isEmpty());
+        assertEquals(2, searchIndex.search("batch two", 0, 5).hits().size());
+    }
+
+    @Test
+    void rejectsCsvWithoutAHeader() {
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importProducts(stream("Rice,Pantry,1,1\n"), ProductImportService.Format.CSV));
+    }
+
+    /**
+     * A large streamed import: every row is written, across many batches.
+     */
+    @Test
+    void importsALargeFileInBatches() throws IOException {
+        ProductImportResult result = importService.importProducts(bulkCsv("Bulk item", IMPORT_ROWS), ProductImportService.Format.CSV);
+
+        assertEquals(IMPORT_ROWS, result.inserted);
+        assertEquals(0, result.rejected);
+        assertEquals(IMPORT_ROWS, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM products WHERE product_name LIKE 'Bulk item %'", Integer.class));
+    }
+
+    /**
+     * Rows per second: streaming import vs. one POST /api/products call per product,
+     * logged rather than asserted. Opt in with -Dsmartshelf.bench.import-rows=200000
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "smartshelf.bench.import-rows", matches = "\\d+")
+    void bulkImportVersusSingleRowCreates() throws IOException {
+        int rows = Integer.getInteger("smartshelf.bench.import-rows");
+        InputStream upload = bulkCsv("Bench item", rows);
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < SINGLE_ROWS; i++) {
+            productController.createProduct(product("Single item " + i, i % 100));
+        }
+        double singlePerSecond = SINGLE_ROWS / ((System.nanoTime() - begin) / 1e9);
+
+        begin = System.nanoTime();
+        ProductImportResult result = importService.importProducts(upload, ProductImportService.Format.CSV);
+        double importPerSecond = rows / ((System.nanoTime() - begin) / 1e9);
+
+        assertEquals(rows, result.inserted);
+        log.info("Product import: {} rows/s streamed in batches ({} rows) vs {} rows/s single-row API ({} rows)",
+                String.format("%.0f", importPerSecond), rows, String.format("%.0f", singlePerSecond), SINGLE_ROWS);
+    }
+
+    private static InputStream bulkCsv(String namePrefix, int rows) {
+        StringBuilder csv = new StringBuilder("productName,category,quantity,price,supplier\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append(namePrefix).append(' ').append(i).append(",Category ").append(i % 20).append(',')
+                    .append(i % 100).append(',').append(1 + i % 50).append(".99,Supplier ").append(i % 40).append('\n');
+        }
+        return stream(csv.toString());
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Product product(String name, int quantity) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setQuantity(quantity);
+        product.setPrice(2.5);
+        return product;
+    }
+}
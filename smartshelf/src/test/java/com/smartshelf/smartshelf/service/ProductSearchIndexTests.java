@@ -0,0 +1,101 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTests {
+
+    // Raise with -Dsmartshelf.bench.search-products=1000000 for a bigger catalogue
+    private static final int BENCH_PRODUCTS = Integer.getInteger("smartshelf.bench.search-products", 100_000);
+
+    @Test
+    void matchesWholeWordsPrefixesAndTyposAndRanksNameFirst() {
+        ProductSearchIndex index = new ProductSearchIndex(null);
+        index.put(product(1L, "Dark Chocolate Bar", "Snacks", "Sweet Co"));
+        index.put(product(2L, "Milk Chocolate", "Snacks", "Dairy Farm"));
+        index.put(product(3L, "Chocolate Milk", "Beverages", "Dairy Farm"));
+        index.put(product(4L, "Oat Biscuits", "Snacks", "Chocolatier Ltd"));
+
+        assertEquals(List.of(3L, 1L, 2L), ids(index.search("chocolate", 0, 10)));   // ties by name
+        assertEquals(List.of(3L, 2L), ids(index.search("milk choc", 0, 10)));       // every term must match
+        assertEquals(List.of(3L, 1L, 2L, 4L), ids(index.search("choc", 0, 10)));    // supplier prefix ranks last
+        assertEquals(List.of(3L, 1L, 2L), ids(index.search("chcolate", 0, 10)));    // deletion
+        assertEquals(List.of(3L, 1L, 2L), ids(index.search("chocloate", 0, 10)));   // swap
+        assertEquals(List.of(3L, 2L), ids(index.search("DAIRY", 0, 10)));
+        assertTrue(index.search("xyz", 0, 10).hits().isEmpty());
+        assertTrue(index.search("  ", 0, 10).hits().isEmpty());
+
+        ProductSearchIndex.Result page = index.search("chocolate", 1, 1);
+        assertEquals(List.of(1L), ids(page));
+        assertEquals(3, page.total());
+    }
+
+    @Test
+    void updatesAndDeletesAreReflectedImmediately() {
+        ProductSearchIndex index = new ProductSearchIndex(null);
+        index.put(product(1L, "Green Tea", "Beverages", "Leaf Co"));
+        index.put(product(2L, "Green Apples", "Produce", "Orchard"));
+
+        index.put(product(1L, "Black Tea", "Beverages", "Leaf Co"));
+        assertEquals(List.of(2L), ids(index.search("green", 0, 10)));
+        assertEquals(List.of(1L), ids(index.search("black", 0, 10)));
+
+        index.remove(2L);
+        assertTrue(index.search("green", 0, 10).hits().isEmpty());
+        assertTrue(index.search("aples", 0, 10).hits().isEmpty()); // typo table cleaned up too
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void editDistanceOfOne() {
+        assertTrue(ProductSearchIndex.withinOneEdit("bread", "bread"));
+        assertTrue(ProductSearchIndex.withinOneEdit("bread", "breed"));
+        assertTrue(ProductSearchIndex.withinOneEdit("bread", "brad"));
+        assertTrue(ProductSearchIndex.withinOneEdit("bread", "breads"));
+        assertTrue(ProductSearchIndex.withinOneEdit("bread", "braed"));
+        assertFalse(ProductSearchIndex.withinOneEdit("bread", "bared"));
+        assertFalse(ProductSearchIndex.withinOneEdit("bread", "brie"));
+    }
+
+    @Test
+    void searchesALargeCatalogue() {
+        String[] adjectives = {"organic", "fresh", "frozen", "smoked", "spicy", "sweet", "salted", "roasted", "premium", "light"};
+        String[] nouns = {"almonds", "butter", "cheddar", "coffee", "granola", "honey", "lentils", "noodles", "salmon", "yogurt",
+                "crackers", "pepper", "spinach", "tomatoes", "walnuts", "oatmeal", "ketchup", "mustard", "pickles", "raisins"};
+        String[] categories = {"Pantry", "Dairy", "Frozen", "Produce", "Snacks", "Beverages"};
+        Random random = new Random(7);
+
+        ProductSearchIndex index = new ProductSearchIndex(null);
+        for (long id = 1; id <= BENCH_PRODUCTS; id++) {
+            String name = adjectives[random.nextInt(adjectives.length)] + " " + nouns[random.nextInt(nouns.length)]
+                    + " " + Long.toString(id, 36);
+            index.put(product(id, name, categories[random.nextInt(categories.length)], "Supplier " + random.nextInt(500)));
+        }
+
+        String[] queries = {"smoked salmon", "walnts", "premium cof", "3f2a", "supplier 42", "chedar dairy"};
+        for (String query : queries) {
+            ProductSearchIndex.Result result = index.search(query, 0, 20);
+            assertFalse(result.hits().isEmpty(), query);
+            assertTrue(result.hits().size() <= 20, query);
+            assertTrue(result.total() >= result.hits().size(), query);
+        }
+    }
+
+    private static List<Long> ids(ProductSearchIndex.Result result) {
+        return result.hits().stream().map(ProductSearchIndex.Hit::productId).toList();
+    }
+
+    private static Product product(Long id, String name, String category, String supplier) {
+        Product product = new Product();
+        product.setId(id);
+        product.setProductName(name);
+        product.setCategory(category);
+        product.setSupplier(supplier);
+        return product;
+    }
+}
@@ -0,0 +1,165 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.controller.PurchaseOrderController;
+import com.smartshelf.smartshelf.dto.BulkPurchaseOrderRequest;
+import com.smartshelf.smartshelf.dto.BulkPurchaseOrderResponse;
+import com.smartshelf.smartshelf.dto.PurchaseOrderRequest;
+import com.smartshelf.smartshelf.model.OrderStatus;
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import com.smartshelf.smartshelf.repository.PurchaseOrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Statistics on, as in ProductCacheTests (so the two share a context)
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PurchaseOrderBulkServiceTests {
+
+    @Autowired
+    private PurchaseOrderBulkService bulkService;
+    @Autowired
+    private PurchaseOrderController purchaseOrderController;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private PurchaseOrderRepository poRepository;
+    @Autowired
+    private ProductCache productCache;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> createdOrders = new ArrayList<>();
+
+    // Other test classes share the database and delete all products in their setup
+    @AfterEach
+    void deleteOrders() {
+        poRepository.deleteAllByIdInBatch(createdOrders);
+    }
+
+    @Test
+    void approvesAndReceivesWithAnOutcomePerId() {
+        Product first = product("Bulk PO first", "Bulk Supplier A", 10);
+        Product second = product("Bulk PO second", "Bulk Supplier A", 0);
+        Long a = order(first, 5);
+        Long b = order(first, 7);
+        Long c = order(second, 20);
+        Long pending = order(second, 3);
+        long firstVersion = productRepository.findById(first.getId()).orElseThrow().getChangeVersion();
+        productCache.findById(first.getId()); // cached before the receipt
+
+        BulkPurchaseOrderResponse approved = bulkService.approveAll(List.of(a, b, c, a, 999_999_999L));
+        assertEquals(3, approved.getProcessed());
+        assertEquals(List.of("OK", "OK", "OK", "DUPLICATE", "NOT_FOUND"), results(approved));
+        assertEquals(OrderStatus.APPROVED, poRepository.findById(c).orElseThrow().getStatus());
+        assertEquals(OrderStatus.PENDING, poRepository.findById(pending).orElseThrow().getStatus());
+
+        // Approving again is an invalid transition, not an error for the whole call
+        assertEquals(List.of("INVALID_STATUS"), results(bulkService.approveAll(List.of(a))));
+
+        BulkPurchaseOrderResponse received = bulkService.receiveAll(List.of(a, b, c, pending));
+        assertEquals(3, received.getProcessed());
+        assertEquals(List.of("OK", "OK", "OK", "INVALID_STATUS"), results(received));
+        assertEquals(OrderStatus.PENDING, received.getResults().get(3).getStatus());
+
+        // Stock, change version, cache and supplier rollup all follow
+        Product firstAfter = productRepository.findById(first.getId()).orElseThrow();
+        assertEquals(22, firstAfter.getQuantity());
+        assertTrue(firstAfter.getChangeVersion() > firstVersion);
+        assertEquals(20, productRepository.findById(second.getId()).orElseThrow().getQuantity());
+        assertEquals(22, productCache.findById(first.getId()).orElseThrow().getQuantity());
+        Long units = jdbcTemplate.queryForObject(
+                "SELECT SUM(units) FROM purchase_supplier_monthly_rollup WHERE supplier = ?", Long.class, "Bulk Supplier A");
+        assertEquals(32L, units);
+
+        // Receiving twice adds nothing
+        assertEquals(0, bulkService.receiveAll(List.of(a, b)).getProcessed());
+        assertEquals(22, productRepository.findById(first.getId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void rejectsEmptyAndOversizedRequests() {
+        BulkPurchaseOrderRequest empty = new BulkPurchaseOrderRequest();
+        assertEquals(400, purchaseOrderController.approvePurchaseOrders(empty).getStatusCode().value());
+
+        BulkPurchaseOrderRequest tooMany = new BulkPurchaseOrderRequest();
+        for (long i = 0; i <= PurchaseOrderBulkService.MAX_IDS; i++) {
+            tooMany.getIds().add(i);
+        }
+        assertEquals(400, purchaseOrderController.receivePurchaseOrders(tooMany).getStatusCode().value());
+    }
+
+    /**
+     * A 300-line delivery: one bulk receive vs. one PUT /receive per line, by statements issued.
+     */
+    @Test
+    void bulkReceiveIssuesAFractionOfTheStatements() {
+        int lines = 300;
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            products.add(product("Truck item " + i, "Truck Supplier", 0));
+        }
+        List<Long> oneByOne = new ArrayList<>();
+        List<Long> together = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            oneByOne.add(order(products.get(i % products.size()), 1));
+            together.add(order(products.get(i % products.size()), 1));
+        }
+        bulkService.approveAll(oneByOne);
+        bulkService.approveAll(together);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        for (Long id : oneByOne) {
+            assertEquals(200, purchaseOrderController.receivePurchaseOrder(id).getStatusCode().value());
+        }
+        long singleStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        BulkPurchaseOrderRequest request = new BulkPurchaseOrderRequest();
+        request.setIds(together);
+        assertEquals(200, purchaseOrderController.receivePurchaseOrders(request).getStatusCode().value());
+        long bulkStatements = statistics.getPrepareStatementCount();
+
+        for (Product product : products) {
+            assertEquals(2 * lines / products.size(), productRepository.findById(product.getId()).orElseThrow().getQuantity());
+        }
+        // Several statements per line one by one; in bulk a handful of batched statements for the whole delivery
+        assertTrue(singleStatements >= lines, "one by one: " + singleStatements);
+        assertTrue(bulkStatements <= 20, "bulk: " + bulkStatements);
+    }
+
+    private static List<String> results(BulkPurchaseOrderResponse response) {
+        return response.getResults().stream().map(BulkPurchaseOrderResponse.Outcome::getResult).toList();
+    }
+
+    private Product product(String name, String supplier, int quantity) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setSupplier(supplier);
+        product.setQuantity(quantity);
+        product.setPrice(2.0);
+        return productRepository.save(product);
+    }
+
+    private Long order(Product product, int quantity) {
+        PurchaseOrderRequest request = new PurchaseOrderRequest();
+        request.productId = product.getId();
+        request.quantity = quantity;
+        Long id = purchaseOrderController.createPurchaseOrder(request).getBody().getId();
+        createdOrders.add(id);
+        return id;
+    }
+}
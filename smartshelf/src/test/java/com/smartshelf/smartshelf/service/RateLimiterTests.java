@@ -0,0 +1,169 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.config.RateLimitProperties;
+import com.smartshelf.smartshelf.model.Role;
+import com.smartshelf.smartshelf.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// The test application.properties has no routes: these two only
+@SpringBootTest(properties = {
+        "smartshelf.rate-limit.routes.login.method=POST",
+        "smartshelf.rate-limit.routes.login.paths=/api/auth/login",
+        "smartshelf.rate-limit.routes.login.capacity=2",
+        "smartshelf.rate-limit.routes.login.refill-per-second=0.01",
+        "smartshelf.rate-limit.routes.sales.method=POST",
+        "smartshelf.rate-limit.routes.sales.paths=/api/sales",
+        "smartshelf.rate-limit.routes.sales.capacity=1",
+        "smartshelf.rate-limit.routes.sales.refill-per-second=0.01"
+})
+@AutoConfigureMockMvc
+class RateLimiterTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtTokenService jwtTokenService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void burstThenRefillThenEviction() {
+        AtomicLong now = new AtomicLong(0);
+        RateLimiter limiter = new RateLimiter(properties(3, 1.0), new SimpleMeterRegistry(), now::get);
+        RateLimiter.Limit limit = limiter.match("POST", "/api/sales");
+        assertNull(limiter.match("GET", "/api/sales"));
+        assertNull(limiter.match("POST", "/api/products"));
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire(limit, "user:a").allowed());
+        }
+        RateLimiter.Decision refused = limiter.tryAcquire(limit, "user:a");
+        assertFalse(refused.allowed());
+        assertEquals(1, refused.retryAfterSeconds());
+        assertTrue(limiter.tryAcquire(limit, "user:b").allowed()); // everyone has their own bucket
+
+        // One token back per second
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertTrue(limiter.tryAcquire(limit, "user:a").allowed());
+        assertFalse(limiter.tryAcquire(limit, "user:a").allowed());
+
+        // Only buckets that have been full for idle-evict-seconds go
+        assertEquals(2, limiter.size());
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        limiter.evictIdle();
+        assertEquals(2, limiter.size());
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        limiter.evictIdle();
+        assertEquals(0, limiter.size());
+    }
+
+    @Test
+    void concurrentCallersNeverGetMoreThanTheBurst() throws Exception {
+        RateLimiter limiter = new RateLimiter(properties(1_000, 0.001), new SimpleMeterRegistry());
+        RateLimiter.Limit limit = limiter.match("POST", "/api/sales");
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = pool.invokeAll(Collections.nCopies(8, () -> {
+                int allowed = 0;
+                for (int i = 0; i < 1_000; i++) {
+                    if (limiter.tryAcquire(limit, "user:shared").allowed()) {
+                        allowed++;
+                    }
+                }
+                return allowed;
+            }));
+            int total = 0;
+            for (Future<Integer> result : results) {
+                total += result.get();
+            }
+            assertEquals(1_000, total);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void filterLimitsLoginByIpAndSalesByUser() throws Exception {
+        assertEquals(401, login("10.0.0.1").getStatus());
+        assertEquals(401, login("10.0.0.1").getStatus());
+        MockHttpServletResponse refused = login("10.0.0.1");
+        assertEquals(429, refused.getStatus());
+        assertNotNull(refused.getHeader("Retry-After"));
+        assertEquals(401, login("10.0.0.2").getStatus());
+
+        // Signed-in callers have a bucket per user, not per address
+        String first = "Bearer " + jwtTokenService.issue(user("ratelimit-a@example.com"));
+        String second = "Bearer " + jwtTokenService.issue(user("ratelimit-b@example.com"));
+        assertEquals(400, sale(first).getStatus()); // unknown product, but let through
+        assertEquals(429, sale(first).getStatus());
+        assertEquals(400, sale(second).getStatus());
+
+        assertEquals(1.0, meterRegistry.get("smartshelf.rate-limit.rejected").tag("route", "login").counter().count());
+        assertEquals(1.0, meterRegistry.get("smartshelf.rate-limit.rejected").tag("route", "sales").counter().count());
+    }
+
+    // Login answers asynchronously (see PasswordHashingService)
+    private MockHttpServletResponse login(String ip) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"ratelimit@example.com\",\"password\":\"wrong\"}")
+                        .with(request -> {
+                            request.setRemoteAddr(ip);
+                            return request;
+                        }))
+                .andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        return result.getResponse();
+    }
+
+    private MockHttpServletResponse sale(String authorization) throws Exception {
+        return mockMvc.perform(post("/api/sales")
+                        .header("Authorization", authorization)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":999999999,\"quantitySold\":1}"))
+                .andReturn()
+                .getResponse();
+    }
+
+    private static RateLimitProperties properties(int capacity, double refillPerSecond) {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setMethod("POST");
+        route.setPaths(List.of("/api/sales", "/api/sales/batch"));
+        route.setCapacity(capacity);
+        route.setRefillPerSecond(refillPerSecond);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setIdleEvictSeconds(100);
+        properties.getRoutes().put("sales", route);
+        return properties;
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setRole(Role.USER);
+        return user;
+    }
+}
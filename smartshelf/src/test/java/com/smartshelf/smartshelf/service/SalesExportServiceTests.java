@@ -0,0 +1,92 @@
+package com.smartshelf.smartshelf.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.repository.InstantBinder;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class SalesExportServiceTests {
+
+    private static final int ROWS = 5_000;
+    private static final Instant BASE = Instant.parse("2023-03-01T00:00:00Z");
+
+    @Autowired
+    private SalesExportService exportService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private InstantBinder instantBinder;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long seed() {
+        Product product = new Product();
+        product.setProductName("Export, \"quoted\" SKU");
+        product.setQuantity(1);
+        product.setPrice(2.5);
+        Long id = productRepository.save(product).getId();
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(i);
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO sales (product_id, quantity_sold, sale_date) VALUES (?, ?, ?)",
+                rows, 1_000, (ps, i) -> {
+                    ps.setLong(1, id);
+                    ps.setInt(2, 1 + i % 5);
+                    instantBinder.bind(ps, 3, BASE.plus(Duration.ofMinutes(i)));
+                });
+        return id;
+    }
+
+    @Test
+    void exportsEveryRowInTheRangeAsCsvAndNdjson() throws Exception {
+        Long productId = seed();
+        Instant start = BASE;
+        Instant end = BASE.plus(Duration.ofMinutes(ROWS - 1));
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        assertEquals(ROWS, exportService.export(start, end, SalesExportService.Format.CSV, csv));
+        String[] lines = csv.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(ROWS + 1, lines.length);
+        assertEquals(SalesExportService.CSV_HEADER, lines[0]);
+        assertTrue(lines[1].contains(",\"Export, \"\"quoted\"\" SKU\",1,2.5," + BASE), lines[1]);
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        assertEquals(ROWS, exportService.export(start, end, SalesExportService.Format.NDJSON, ndjson));
+        String[] objects = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(ROWS, objects.length);
+        JsonNode last = objectMapper.readTree(objects[ROWS - 1]);
+        assertEquals(productId.longValue(), last.get("productId").asLong());
+        assertEquals(1 + (ROWS - 1) % 5, last.get("quantitySold").asInt());
+
+        // Only the first day (1440 minutes) of the seeded range
+        ByteArrayOutputStream firstDay = new ByteArrayOutputStream();
+        assertEquals(1440, exportService.export(start, BASE.plus(Duration.ofDays(1)).minusNanos(1),
+                SalesExportService.Format.NDJSON, firstDay));
+    }
+
+    @Test
+    void csvFieldsAreQuotedOnlyWhenNeeded() {
+        assertEquals("Plain", SalesExportService.csvField("Plain"));
+        assertEquals("\"a,b\"", SalesExportService.csvField("a,b"));
+        assertEquals("\"say \"\"hi\"\"\"", SalesExportService.csvField("say \"hi\""));
+        assertEquals("", SalesExportService.csvField(null));
+    }
+}
@@ -0,0 +1,91 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import com.smartshelf.smartshelf.repository.SalesRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "smartshelf.sales.ingest-mode=journal",
+        "smartshelf.sales.journal.capacity-mb=1",
+        "smartshelf.sales.journal.drain-interval-ms=3600000"
+})
+class SalesJournalServiceTests {
+
+    @TempDir
+    static Path journalDir;
+
+    @DynamicPropertySource
+    static void journalPath(DynamicPropertyRegistry registry) {
+        registry.add("smartshelf.sales.journal.path", () -> journalDir.resolve("sales.journal").toString());
+    }
+
+    @Autowired
+    private SalesJournalService salesJournalService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private SalesRepository salesRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void journaledSalesTakeStockNowAndReachTheSalesTableOnDrain() {
+        Product product = new Product();
+        product.setProductName("Journal SKU");
+        product.setQuantity(10);
+        product.setPrice(3.0);
+        Long id = productRepository.save(product).getId();
+        long salesBefore = salesRepository.count();
+
+        salesJournalService.recordSale(id, 2);
+        salesJournalService.recordSale(id, 3);
+        assertThrows(IllegalArgumentException.class, () -> salesJournalService.recordSale(id, 50));
+
+        assertEquals(5, productRepository.findById(id).orElseThrow().getQuantity());
+        assertEquals(2, salesJournalService.getLag());
+
+        salesJournalService.drain();
+
+        assertEquals(0, salesJournalService.getLag());
+        assertEquals(salesBefore + 2, salesRepository.count());
+    }
+
+    @Test
+    void aSaleRolledBackAfterJournalingIsNeverDrained() {
+        Product product = new Product();
+        product.setProductName("Journal rollback SKU");
+        product.setQuantity(10);
+        product.setPrice(3.0);
+        Long id = productRepository.save(product).getId();
+        long salesBefore = salesRepository.count();
+
+        // The caller's transaction fails after the sale was journaled
+        transactionTemplate.executeWithoutResult(status -> {
+            salesJournalService.recordSale(id, 4);
+            status.setRollbackOnly();
+        });
+        salesJournalService.recordSale(id, 1);
+        salesJournalService.drain();
+
+        assertEquals(0, salesJournalService.getLag());
+        assertEquals(salesBefore + 1, salesRepository.count());
+        assertEquals(9, productRepository.findById(id).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void rejectsACapacityThatDoesNotFitTheMapping() {
+        assertThrows(IllegalArgumentException.class, () -> new SalesJournalService(null, null, null, null, null,
+                null, null, null, journalDir.resolve("unused.journal").toString(), 4096, 1000));
+    }
+}
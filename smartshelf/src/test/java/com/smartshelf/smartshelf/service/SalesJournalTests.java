@@ -0,0 +1,122 @@
+package com.smartshelf.smartshelf.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SalesJournalTests {
+
+    private static final int CAPACITY = SalesJournal.HEADER_SIZE + 10 * SalesJournal.RECORD_SIZE;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysUndrainedEntriesAfterCrash() throws IOException {
+        Path file = dir.resolve("sales.journal");
+        Instant when = Instant.parse("2025-11-20T10:15:30.123456789Z");
+
+        SalesJournal journal = new SalesJournal(file, CAPACITY);
+        journal.append(1L, 2, when);
+        journal.append(2L, 5, when);
+        long last = journal.append(3L, 1, when);
+        journal.awaitDurable(last);
+        journal.markDrained(1);
+        // "Crash": the journal is never closed and nothing else is flushed
+
+        SalesJournal recovered = new SalesJournal(file, CAPACITY);
+        List<SalesJournal.Entry> pending = recovered.peek(100);
+        assertEquals(2, pending.size());
+        assertEquals(new SalesJournal.Entry(2, 2L, 5, when), pending.get(0));
+        assertEquals(new SalesJournal.Entry(3, 3L, 1, when), pending.get(1));
+        assertEquals(2, recovered.getLag());
+        assertEquals(4, recovered.append(4L, 1, when)); // sequence continues after recovery
+    }
+
+    @Test
+    void tornTailRecordIsDropped() throws IOException {
+        Path file = dir.resolve("sales.journal");
+        SalesJournal journal = new SalesJournal(file, CAPACITY);
+        journal.append(1L, 1, Instant.now());
+        journal.append(2L, 1, Instant.now());
+        journal.awaitDurable(2);
+
+        // Flip a byte inside the second record, as a half-written page would
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            int offset = SalesJournal.HEADER_SIZE + SalesJournal.RECORD_SIZE + 20;
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0x7F}), offset);
+        }
+
+        SalesJournal recovered = new SalesJournal(file, CAPACITY);
+        List<SalesJournal.Entry> pending = recovered.peek(100);
+        assertEquals(1, pending.size());
+        assertEquals(1L, pending.get(0).productId());
+        assertEquals(2, recovered.append(9L, 1, Instant.now())); // the torn record's seq is reused
+    }
+
+    @Test
+    void staleRecordsAreNotReplayedAfterRewind() throws IOException {
+        Path file = dir.resolve("sales.journal");
+        SalesJournal journal = new SalesJournal(file, CAPACITY);
+        for (int i = 1; i <= 10; i++) {
+            assertEquals(i, journal.append(i, 1, Instant.now()));
+        }
+        assertEquals(-1, journal.append(11L, 1, Instant.now())); // full
+        journal.markDrained(10); // fully drained: rewinds to the top of the file
+        journal.append(42L, 3, Instant.now());
+        journal.awaitDurable(11);
+
+        SalesJournal recovered = new SalesJournal(file, CAPACITY);
+        List<SalesJournal.Entry> pending = recovered.peek(100);
+        assertEquals(1, pending.size());
+        assertEquals(11, pending.get(0).seq());
+        assertEquals(42L, pending.get(0).productId());
+    }
+
+    @Test
+    void cancelledEntriesKeepTheirPlaceAndTheIdSurvivesReopening() throws IOException {
+        Path file = dir.resolve("sales.journal");
+        Instant when = Instant.now();
+        SalesJournal journal = new SalesJournal(file, CAPACITY);
+        assertNotEquals(0, journal.getJournalId());
+        journal.append(1L, 2, when);
+        journal.append(2L, 5, when);
+        journal.cancel(1);
+        journal.awaitDurable(2);
+
+        SalesJournal recovered = new SalesJournal(file, CAPACITY);
+        assertEquals(journal.getJournalId(), recovered.getJournalId());
+        List<SalesJournal.Entry> pending = recovered.peek(100);
+        assertEquals(2, pending.size());
+        assertEquals(0, pending.get(0).quantity());
+        assertEquals(5, pending.get(1).quantity());
+    }
+
+    @Test
+    void pendingEntriesAreSettledInPlaceAndCancelledAfterACrash() throws IOException {
+        Path file = dir.resolve("sales.journal");
+        Instant when = Instant.now();
+        SalesJournal journal = new SalesJournal(file, CAPACITY);
+        journal.appendPending(1L, 2, when);
+        journal.appendPending(2L, 5, when);
+        journal.appendPending(3L, 1, when);
+        journal.confirm(1);
+        journal.cancel(2);
+        assertEquals(List.of(2, 0, -1), journal.peek(100).stream().map(SalesJournal.Entry::quantity).toList());
+        journal.awaitDurable(3);
+        // "Crash" with the third sale's transaction still open
+
+        SalesJournal recovered = new SalesJournal(file, CAPACITY);
+        assertEquals(1, recovered.cancelPending());
+        assertEquals(List.of(2, 0, 0), recovered.peek(100).stream().map(SalesJournal.Entry::quantity).toList());
+    }
+}
@@ -0,0 +1,164 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.model.OrderStatus;
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.model.PurchaseOrder;
+import com.smartshelf.smartshelf.model.PurchaseSupplierMonthlyRollup;
+import com.smartshelf.smartshelf.model.SalesCategoryMonthlyRollup;
+import com.smartshelf.smartshelf.model.SalesDailyRollup;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import com.smartshelf.smartshelf.repository.PurchaseOrderRepository;
+import com.smartshelf.smartshelf.repository.PurchaseSupplierMonthlyRollupRepository;
+import com.smartshelf.smartshelf.repository.SalesCategoryMonthlyRollupRepository;
+import com.smartshelf.smartshelf.repository.RollupWatermarkRepository;
+import com.smartshelf.smartshelf.repository.SalesDailyRollupRepository;
+import com.smartshelf.smartshelf.repository.SalesRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "smartshelf.rollup.settle-ms=0",
+        "smartshelf.rollup.catch-up-interval-ms=3600000"
+})
+class SalesRollupServiceTests {
+
+    @Autowired
+    private SalesRollupService rollupService;
+    @Autowired
+    private SalesService salesService;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private PurchaseOrderRepository poRepository;
+    @Autowired
+    private SalesDailyRollupRepository dailyRepository;
+    @Autowired
+    private SalesCategoryMonthlyRollupRepository categoryRepository;
+    @Autowired
+    private PurchaseSupplierMonthlyRollupRepository supplierRepository;
+    @Autowired
+    private RollupWatermarkRepository watermarkRepository;
+    @Autowired
+    private SalesRepository salesRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Product saveProduct(String name, String category, String supplier, double price) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setCategory(category);
+        product.setSupplier(supplier);
+        product.setQuantity(100);
+        product.setPrice(price);
+        return productRepository.save(product);
+    }
+
+    // Flattened table contents, so incremental and rebuilt rollups can be compared
+    private Map<String, Double> snapshot() {
+        Map<String, Double> rows = dailyRepository.findAll().stream().collect(Collectors.toMap(
+                (SalesDailyRollup r) -> "day " + r.getProductId() + " " + r.getSaleDay() + " " + r.getUnits(),
+                SalesDailyRollup::getRevenue));
+        rows.putAll(categoryRepository.findAll().stream().collect(Collectors.toMap(
+                (SalesCategoryMonthlyRollup r) -> "category " + r.getCategory() + " " + r.getMonthStart() + " " + r.getUnits(),
+                SalesCategoryMonthlyRollup::getRevenue)));
+        rows.putAll(supplierRepository.findAll().stream().collect(Collectors.toMap(
+                (PurchaseSupplierMonthlyRollup r) -> "supplier " + r.getSupplier() + " " + r.getMonthStart() + " " + r.getUnits(),
+                PurchaseSupplierMonthlyRollup::getCost)));
+        return rows;
+    }
+
+    @Test
+    void incrementalRollupsMatchAFullRebuild() {
+        Product pen = saveProduct("Rollup pen", "Stationery", "Acme", 2.0);
+        Product ink = saveProduct("Rollup ink", null, null, 5.0);
+
+        salesService.recordSale(pen.getId(), 3);
+        salesService.recordSale(pen.getId(), 1);
+        salesService.recordSale(ink.getId(), 2);
+        assertTrue(rollupService.catchUp() > 0);
+        assertEquals(0, rollupService.catchUp()); // nothing new
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        SalesDailyRollup penToday = dailyRepository.findAll().stream()
+                .filter(r -> r.getProductId().equals(pen.getId())).findFirst().orElseThrow();
+        assertEquals(today, penToday.getSaleDay());
+        assertEquals(4, penToday.getUnits());
+        assertEquals(8.0, penToday.getRevenue(), 1e-9);
+        assertTrue(categoryRepository.findAll().stream().anyMatch(r ->
+                r.getCategory().equals("Uncategorized") && r.getMonthStart().equals(today.withDayOfMonth(1)) && r.getUnits() >= 2));
+
+        // A receipt is rolled up in its own transaction, no catch-up needed
+        PurchaseOrder po = new PurchaseOrder();
+        po.setProduct(pen);
+        po.setQuantity(10);
+        po.setStatus(OrderStatus.APPROVED);
+        inventoryService.receive(poRepository.save(po));
+        assertEquals(20.0, supplierRepository.findAll().stream()
+                .filter(r -> r.getSupplier().equals("Acme")).mapToDouble(PurchaseSupplierMonthlyRollup::getCost).sum(), 1e-9);
+
+        salesService.recordSale(ink.getId(), 4);
+        rollupService.catchUp();
+
+        Map<String, Double> incremental = snapshot();
+        rollupService.rebuild();
+        assertEquals(incremental, snapshot());
+    }
+
+    @Test
+    void receiptOutsideATransactionIsRejected() {
+        PurchaseOrder po = new PurchaseOrder();
+        po.setProduct(saveProduct("Rollup loose", null, null, 1.0));
+        po.setQuantity(1);
+        // MANDATORY propagation: receipts may only be rolled up inside the receiving transaction
+        assertThrows(IllegalTransactionStateException.class, () -> rollupService.recordReceipt(po));
+    }
+
+    /**
+     * Another instance is mid catch-up (holding the watermark row) when ours starts:
+     * ours waits for it to commit and then has nothing left to add.
+     */
+    @Test
+    void concurrentCatchUpsDoNotCountSalesTwice() throws Exception {
+        Product pen = saveProduct("Rollup shared pen", null, null, 1.0);
+        rollupService.catchUp();
+        salesService.recordSale(pen.getId(), 5);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> otherInstance = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            var watermark = watermarkRepository.findForUpdate("sales").orElseThrow();
+            locked.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // Pretend it rolled the sale up (we only care that the watermark moved)
+            watermark.setLastSaleId(salesRepository.findMaxIdRecordedBefore(0, 0));
+            watermarkRepository.save(watermark);
+        }));
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+        CompletableFuture<Long> ours = CompletableFuture.supplyAsync(rollupService::catchUp);
+        Thread.sleep(200);
+        assertFalse(ours.isDone()); // blocked on the row lock
+        release.countDown();
+        otherInstance.get(10, TimeUnit.SECONDS);
+        assertEquals(0L, ours.get(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,164 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.controller.SalesController;
+import com.smartshelf.smartshelf.dto.BatchSalesResponse;
+import com.smartshelf.smartshelf.dto.SalesRequest;
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import com.smartshelf.smartshelf.repository.SalesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class SalesServiceTests {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesServiceTests.class);
+    private static final int LINES_PER_BASKET = 8;
+
+    @Autowired
+    private SalesService salesService;
+    @Autowired
+    private SalesController salesController;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private SalesRepository salesRepository;
+
+    @BeforeEach
+    void cleanUp() {
+        salesRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void batchSellsAllLinesAndDecrementsStock() {
+        Product apple = productRepository.save(product("Apple", 10));
+        Product pear = productRepository.save(product("Pear", 5));
+
+        BatchSalesResponse result = salesService.recordBatch(List.of(
+                line(apple.getId(), 3), line(pear.getId(), 5), line(apple.getId(), 2)));
+
+        assertTrue(result.isSuccess());
+        assertEquals(3, result.getLines().size());
+        assertEquals(5, productRepository.findById(apple.getId()).orElseThrow().getQuantity());
+        assertEquals(0, productRepository.findById(pear.getId()).orElseThrow().getQuantity());
+        assertEquals(3, salesRepository.count());
+        salesRepository.findAll().forEach(sale ->
+                assertTrue(Duration.between(sale.getSaleDate(), Instant.now()).abs().toMinutes() < 1));
+    }
+
+    @Test
+    void batchIsAllOrNothing() {
+        Product apple = productRepository.save(product("Apple", 10));
+        Product pear = productRepository.save(product("Pear", 1));
+
+        BatchSalesResponse result = salesService.recordBatch(List.of(
+                line(apple.getId(), 3), line(pear.getId(), 2), line(999_999L, 1)));
+
+        assertFalse(result.isSuccess());
+        assertEquals("OK", result.getLines().get(0).getStatus());
+        assertEquals(10, result.getLines().get(0).getRemainingStock()); // nothing was taken
+        assertEquals("INSUFFICIENT_STOCK", result.getLines().get(1).getStatus());
+        assertEquals("PRODUCT_NOT_FOUND", result.getLines().get(2).getStatus());
+        assertEquals(10, productRepository.findById(apple.getId()).orElseThrow().getQuantity());
+        assertEquals(0, salesRepository.count());
+    }
+
+    /**
+     * The same baskets checked out line-by-line through POST /api/sales and as one
+     * POST /api/sales/batch per basket record the same sales.
+     */
+    @Test
+    void batchAndPerLineCheckoutRecordTheSameSales() {
+        int baskets = 200;
+        List<Long> ids = basketProducts();
+
+        checkOutLineByLine(ids, baskets);
+        assertEquals((long) baskets * LINES_PER_BASKET, salesRepository.count());
+        checkOutInBatches(ids, baskets);
+
+        assertEquals(2L * baskets * LINES_PER_BASKET, salesRepository.count());
+        for (Long id : ids) {
+            assertEquals(1_000_000 - 2 * baskets, productRepository.findById(id).orElseThrow().getQuantity());
+        }
+    }
+
+    /**
+     * Throughput of the two checkouts, logged rather than asserted.
+     * Opt in with -Dsmartshelf.bench.checkout-baskets=2000
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "smartshelf.bench.checkout-baskets", matches = "\\d+")
+    void batchVersusPerLineCheckoutThroughput() {
+        int baskets = Integer.getInteger("smartshelf.bench.checkout-baskets");
+        List<Long> ids = basketProducts();
+        checkOutInBatches(ids, 50); // warm-up
+
+        long start = System.nanoTime();
+        checkOutLineByLine(ids, baskets);
+        long perLineNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        checkOutInBatches(ids, baskets);
+        long batchNanos = System.nanoTime() - start;
+
+        log.info("Checkout of {} baskets x {} lines: per-line {} baskets/s, batch {} baskets/s",
+                baskets, LINES_PER_BASKET,
+                String.format("%.0f", baskets / (perLineNanos / 1e9)), String.format("%.0f", baskets / (batchNanos / 1e9)));
+    }
+
+    private List<Long> basketProducts() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < LINES_PER_BASKET; i++) {
+            ids.add(productRepository.save(product("P" + i, 1_000_000)).getId());
+        }
+        return ids;
+    }
+
+    private void checkOutLineByLine(List<Long> ids, int baskets) {
+        for (int b = 0; b < baskets; b++) {
+            for (Long id : ids) {
+                assertEquals(200, salesController.recordSale(line(id, 1)).getStatusCode().value());
+            }
+        }
+    }
+
+    private void checkOutInBatches(List<Long> ids, int baskets) {
+        for (int b = 0; b < baskets; b++) {
+            List<SalesRequest> cart = new ArrayList<>();
+            for (Long id : ids) {
+                cart.add(line(id, 1));
+            }
+            assertTrue(salesService.recordBatch(cart).isSuccess());
+        }
+    }
+
+    private static Product product(String name, int quantity) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setCategory("Fruit");
+        product.setQuantity(quantity);
+        product.setPrice(1.5);
+        product.setSupplier("Acme");
+        return product;
+    }
+
+    private static SalesRequest line(Long productId, int quantity) {
+        SalesRequest request = new SalesRequest();
+        request.setProductId(productId);
+        request.setQuantitySold(quantity);
+        return request;
+    }
+}
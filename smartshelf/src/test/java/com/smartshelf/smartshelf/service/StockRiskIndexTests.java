@@ -0,0 +1,116 @@
+package com.smartshelf.smartshelf.service;
+
+import com.smartshelf.smartshelf.controller.ProductController;
+import com.smartshelf.smartshelf.dto.ForecastDTO;
+import com.smartshelf.smartshelf.model.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StockRiskIndexTests {
+
+    @Autowired
+    private StockRiskIndex stockRiskIndex;
+    @Autowired
+    private ProductController productController;
+    @Autowired
+    private SalesService salesService;
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Test
+    void ordersByDaysOfCoverAndFollowsSalesReceiptsAndEdits() {
+        Product slow = productController.createProduct(product("Risk slow seller", 100));
+        Product fast = productController.createProduct(product("Risk fast seller", 10));
+        Product idle = productController.createProduct(product("Risk shelf warmer", 50));
+        Set<Long> ours = Set.of(slow.getId(), fast.getId(), idle.getId());
+
+        // 10/day, 2/day and nothing
+        publishForecast(row(slow, 70), row(fast, 14), row(idle, 0));
+        assertEquals(List.of(fast.getId(), slow.getId()), ids(ours));
+        StockRiskIndex.AtRisk first = ours(ours).get(0);
+        assertEquals(5.0, first.daysOfCover(), 1e-9);
+        assertEquals(LocalDate.now(ZoneOffset.UTC).plusDays(5), first.stockOutDate());
+
+        // Sale: 6 left at 2/day
+        salesService.recordSale(fast.getId(), 4);
+        assertEquals(3.0, ours(ours).get(0).daysOfCover(), 1e-9);
+
+        // Receipt: the slow seller now has 20 days
+        inventoryService.increment(slow.getId(), 100);
+        assertEquals(20.0, ours(ours).get(1).daysOfCover(), 1e-9);
+        assertEquals(200, ours(ours).get(1).stock());
+
+        // Edit down to 1 unit: the slow seller is now the most urgent
+        Product edit = product("Risk slow seller", 1);
+        productController.updateProduct(slow.getId(), edit);
+        assertEquals(List.of(slow.getId(), fast.getId()), ids(ours));
+        assertTrue(stockRiskIndex.atRisk(Integer.MAX_VALUE, 0.5).stream().anyMatch(r -> r.productId().equals(slow.getId())));
+        assertTrue(stockRiskIndex.atRisk(Integer.MAX_VALUE, 0.5).stream().noneMatch(r -> r.productId().equals(fast.getId())));
+
+        // Out of stock sorts first, with today as the stock-out date
+        salesService.recordSale(slow.getId(), 1);
+        StockRiskIndex.AtRisk empty = ours(ours).get(0);
+        assertEquals(0, empty.stock());
+        assertEquals(LocalDate.now(ZoneOffset.UTC), empty.stockOutDate());
+
+        // What was maintained incrementally matches a rebuild from the database
+        List<StockRiskIndex.AtRisk> incremental = ours(ours);
+        publishForecast(row(slow, 70), row(fast, 14), row(idle, 0));
+        assertEquals(incremental, ours(ours));
+
+        int size = stockRiskIndex.size();
+        productController.deleteProduct(idle.getId());
+        assertEquals(size - 1, stockRiskIndex.size());
+    }
+
+    @Test
+    void staleChangesAreNotCountedTwice() {
+        Product product = productController.createProduct(product("Risk versioned", 30));
+        publishForecast(row(product, 7));
+        Set<Long> ours = Set.of(product.getId());
+
+        // A delta already included in the stock that was read, then an older absolute state
+        stockRiskIndex.onStockChanged(new ProductStockChangedEvent(product.getId(), -5, product.getChangeVersion()));
+        Product older = product("Risk versioned", 999);
+        older.setId(product.getId());
+        older.setChangeVersion(product.getChangeVersion() - 1);
+        stockRiskIndex.put(older);
+
+        assertEquals(30, ours(ours).get(0).stock());
+    }
+
+    private void publishForecast(ForecastDTO... rows) {
+        stockRiskIndex.onForecastPublished(new ForecastPublishedEvent(
+                new ForecastSnapshotService.Snapshot(0, Instant.now(), 0, List.of(rows))));
+    }
+
+    private List<StockRiskIndex.AtRisk> ours(Set<Long> ids) {
+        return stockRiskIndex.atRisk(Integer.MAX_VALUE, null).stream().filter(r -> ids.contains(r.productId())).toList();
+    }
+
+    private List<Long> ids(Set<Long> ids) {
+        return ours(ids).stream().map(StockRiskIndex.AtRisk::productId).toList();
+    }
+
+    private static ForecastDTO row(Product product, double weeklyDemand) {
+        return new ForecastDTO(product.getId(), product.getProductName(), null, product.getQuantity(), weeklyDemand, "SUFFICIENT");
+    }
+
+    private static Product product(String name, int quantity) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setQuantity(quantity);
+        product.setPrice(1.5);
+        return product;
+    }
+}
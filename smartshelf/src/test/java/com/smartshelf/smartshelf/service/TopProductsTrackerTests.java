@@ -0,0 +1,113 @@
+package com.smartshelf.smartshelf.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.smartshelf.smartshelf.service.TopProductsTracker.Metric.REVENUE;
+import static com.smartshelf.smartshelf.service.TopProductsTracker.Metric.UNITS;
+import static com.smartshelf.smartshelf.service.TopProductsTracker.Window.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopProductsTrackerTests {
+
+    // A clock the test can move forward
+    private static final class MovableClock extends Clock {
+        private Instant now;
+
+        MovableClock(Instant now) { this.now = now; }
+
+        void advance(Duration duration) { now = now.plus(duration); }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+
+    @Test
+    void spaceSavingIsExactWhenEveryItemHasACounter() {
+        SpaceSaving summary = new SpaceSaving(10);
+        for (int i = 0; i < 1000; i++) {
+            summary.add(i % 10, i % 10 + 1);
+        }
+        SpaceSaving.Counter[] top = summary.top(3);
+        assertEquals(3, top.length);
+        assertEquals(9, top[0].item());
+        assertEquals(1000, top[0].count(), 1e-9);
+        assertEquals(0, top[0].error(), 1e-9);
+        assertEquals(8, top[1].item());
+        assertEquals(7, top[2].item());
+        assertEquals(10, summary.top(50).length);
+    }
+
+    @Test
+    void spaceSavingKeepsHeavyHittersUnderEviction() {
+        // 5 heavy products in a long tail of 20,000 light ones, only 50 counters
+        SpaceSaving summary = new SpaceSaving(50);
+        Map<Long, Double> exact = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            long item = random.nextInt(10) == 0 ? random.nextInt(5) : 100 + random.nextInt(20_000);
+            double weight = 1 + random.nextInt(5);
+            summary.add(item, weight);
+            exact.merge(item, weight, Double::sum);
+        }
+
+        SpaceSaving.Counter[] top = summary.top(5);
+        for (SpaceSaving.Counter counter : top) {
+            assertTrue(counter.item() < 5, "light item " + counter.item() + " in the top 5");
+            double truth = exact.get(counter.item());
+            // Never underestimates, and the overestimate stays within the reported error
+            assertTrue(counter.count() >= truth);
+            assertTrue(counter.count() - counter.error() <= truth);
+        }
+    }
+
+    @Test
+    void windowsRankByRevenueOrUnitsAndResetOnRollover() {
+        // Wednesday
+        MovableClock clock = new MovableClock(Instant.parse("2025-10-29T10:00:00Z"));
+        TopProductsTracker tracker = new TopProductsTracker(null, clock, 20, 10);
+
+        tracker.record(1L, 10, 10.0, clock.instant());   // many cheap units
+        tracker.record(2L, 1, 500.0, clock.instant());   // one expensive unit
+        assertEquals(List.of(2L, 1L), ids(tracker.top(DAY, REVENUE, 5)));
+        assertEquals(List.of(1L, 2L), ids(tracker.top(DAY, UNITS, 5)));
+        assertEquals(500.0, tracker.top(DAY, REVENUE, 1).get(0).value(), 1e-9);
+
+        // Next day: DAY starts empty, the other windows keep counting
+        clock.advance(Duration.ofDays(1));
+        tracker.record(3L, 1, 1.0, clock.instant());
+        assertEquals(List.of(3L), ids(tracker.top(DAY, REVENUE, 5)));
+        assertEquals(List.of(2L, 1L, 3L), ids(tracker.top(WEEK, REVENUE, 5)));
+
+        // Saturday 1 Nov: new month, same ISO week
+        clock.advance(Duration.ofDays(2));
+        assertTrue(tracker.top(MONTH, REVENUE, 5).isEmpty());
+        assertEquals(3, tracker.top(WEEK, REVENUE, 5).size());
+
+        // Monday: new week; all-time never resets
+        clock.advance(Duration.ofDays(2));
+        assertTrue(tracker.top(WEEK, REVENUE, 5).isEmpty());
+        assertEquals(List.of(2L, 1L, 3L), ids(tracker.top(ALL, REVENUE, 5)));
+
+        // A late sale from last month only counts towards all-time
+        tracker.record(4L, 1, 1000.0, Instant.parse("2025-10-30T10:00:00Z"));
+        assertTrue(tracker.top(MONTH, REVENUE, 5).isEmpty());
+        assertEquals(4L, tracker.top(ALL, REVENUE, 1).get(0).productId());
+
+        assertThrows(IllegalArgumentException.class, () -> tracker.top(ALL, REVENUE, 11));
+    }
+
+    private static List<Long> ids(List<TopProductsTracker.TopEntry> entries) {
+        return entries.stream().map(TopProductsTracker.TopEntry::productId).toList();
+    }
+}
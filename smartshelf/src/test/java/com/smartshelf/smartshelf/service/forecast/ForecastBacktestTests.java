@@ -0,0 +1,118 @@
+package com.smartshelf.smartshelf.service.forecast;
+
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.repository.InstantBinder;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import com.smartshelf.smartshelf.repository.SalesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the backtest harness offline against the embedded H2 database.
+ * Scale up with -Dsmartshelf.bench.backtest-products=20000 -Dsmartshelf.bench.backtest-years=3
+ */
+@SpringBootTest(properties = "smartshelf.forecast.snapshot.cron=-")
+class ForecastBacktestTests {
+
+    private static final Logger log = LoggerFactory.getLogger(ForecastBacktestTests.class);
+
+    private static final int PRODUCTS = Integer.getInteger("smartshelf.bench.backtest-products", 500);
+    private static final int YEARS = Integer.getInteger("smartshelf.bench.backtest-years", 1);
+
+    @Autowired
+    private ForecastEngine forecastEngine;
+    @Autowired
+    private ForecastModelRegistry registry;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private SalesRepository salesRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private InstantBinder instantBinder;
+
+    private ForecastBacktester backtester;
+
+    @BeforeEach
+    void setUp() {
+        backtester = new ForecastBacktester(forecastEngine, registry, productRepository, salesRepository);
+    }
+
+    @Test
+    void syntheticHistoryReportsAccuracyAndThroughputPerModel() {
+        ForecastBacktester.History history = ForecastBacktester.synthetic(PRODUCTS, YEARS, 42);
+        backtester.run(history, 7, 7); // warm-up (JIT, pool threads)
+
+        List<ForecastBacktester.Report> reports = new ArrayList<>();
+        for (String model : List.of("sma", "ses", "holt-winters", "croston")) {
+            reports.add(backtester.run(history, model, 7, 7));
+        }
+        reports.add(backtester.run(history, 7, 7));
+        reports.forEach(report -> log.info("{}", report));
+
+        for (ForecastBacktester.Report report : reports) {
+            assertEquals(PRODUCTS, report.products());
+            assertEquals((long) report.origins() * PRODUCTS, report.forecasts());
+            assertTrue(report.origins() > 0);
+            assertTrue(Double.isFinite(report.mape()) && Double.isFinite(report.bias()));
+            assertTrue(report.productsPerSecond() > 0);
+        }
+    }
+
+    @Test
+    void replaysTheSalesTable() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Product product = new Product();
+            product.setProductName("Backtest " + i);
+            product.setQuantity(0);
+            product.setPrice(1.0);
+            products.add(productRepository.save(product));
+        }
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        int days = 120;
+        List<int[]> rows = new ArrayList<>(); // {product index, day, units}
+        for (int p = 0; p < products.size(); p++) {
+            for (int d = 0; d < days; d++) {
+                rows.add(new int[]{p, d, 1 + (p + d) % 4});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO sales (product_id, quantity_sold, sale_date) VALUES (?, ?, ?)",
+                rows, 1_000, (ps, row) -> {
+                    ps.setLong(1, products.get(row[0]).getId());
+                    ps.setInt(2, row[2]);
+                    instantBinder.bind(ps, 3, from.plusDays(row[1]).atTime(10, 0).toInstant(ZoneOffset.UTC));
+                });
+
+        ForecastBacktester.History history = backtester.loadFromSales(from, from.plusDays(days));
+
+        assertEquals(days, history.days());
+        long loaded = 0;
+        for (int[] productDays : history.dailyUnits()) {
+            for (int units : productDays) {
+                loaded += units;
+            }
+        }
+        assertEquals(rows.stream().mapToLong(r -> r[2]).sum(), loaded);
+
+        ForecastBacktester.Report report = backtester.run(history, "sma", 7, 7);
+        log.info("{}", report);
+        assertEquals((days - 30 - 7) / 7 + 1, report.origins());
+        // Every product sells 2.5/day on average in a repeating 4-day cycle; a 30-day average is close
+        assertTrue(report.mape() < 10, "MAPE " + report.mape());
+        assertEquals(0.0, report.bias(), 5.0);
+    }
+}
@@ -0,0 +1,212 @@
+package com.smartshelf.smartshelf.service.forecast;
+
+import com.smartshelf.smartshelf.model.Product;
+import com.smartshelf.smartshelf.repository.ProductRepository;
+import com.smartshelf.smartshelf.repository.SalesRepository;
+import com.smartshelf.smartshelf.service.DemandWindow;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Rolling-origin backtest of the forecast engine, for judging model and performance changes on numbers.
+ *
+ * History is a dense products x days matrix of units sold, either aggregated from the
+ * sales table or generated synthetically. For every origin (stepping through history)
+ * each product's last WINDOW_DAYS days before the origin go through ForecastEngine exactly
+ * as the live demand window would, and the prediction is compared with what actually
+ * sold over the following horizon.
+ *
+ * Reported per run:
+ *   MAPE       mean |forecast - actual| / actual, over forecasts whose actual was > 0 (percent)
+ *   bias       (sum forecast - sum actual) / sum actual (percent, positive = over-forecasting)
+ *   stockOuts  forecasts where stocking exactly ceil(forecast) units would have run out
+ *   wall time, products/sec (forecasts per second) and bytes allocated by all threads
+ *
+ * Test-only: built by the backtest tests from the context's engine, registry and repositories.
+ */
+class ForecastBacktester {
+
+    private final ForecastEngine forecastEngine;
+    private final ForecastModelRegistry registry;
+    private final ProductRepository productRepository;
+    private final SalesRepository salesRepository;
+
+    // Units sold per product (row, same order as products) and day (column, firstDay first)
+    public record History(List<Product> products, int[][] dailyUnits, LocalDate firstDay) {
+        public int days() {
+            return dailyUnits.length == 0 ? 0 : dailyUnits[0].length;
+        }
+    }
+
+    public record Report(String model, int products, int origins, long forecasts,
+                         double mape, double bias, long stockOuts,
+                         long wallTimeMs, double productsPerSecond, long allocatedBytes) {
+        @Override
+        public String toString() {
+            return String.format("%-13s %6d products x %4d origins: MAPE %6.1f%%  bias %+6.1f%%  stock-outs %7d  " +
+                            "%6d ms  %,10.0f products/s  %,6d MB allocated",
+                    model, products, origins, mape, bias, stockOuts,
+                    wallTimeMs, productsPerSecond, allocatedBytes >> 20);
+        }
+    }
+
+    ForecastBacktester(ForecastEngine forecastEngine, ForecastModelRegistry registry,
+                       ProductRepository productRepository, SalesRepository salesRepository) {
+        this.forecastEngine = forecastEngine;
+        this.registry = registry;
+        this.productRepository = productRepository;
+        this.salesRepository = salesRepository;
+    }
+
+    /**
+     * Loads [from, to) of the sales table as history, one row per product in the catalogue.
+     */
+    public History loadFromSales(LocalDate from, LocalDate to) {
+        List<Product> products = productRepository.findAll();
+        Map<Long, Integer> rowByProduct = new HashMap<>();
+        for (int i = 0; i < products.size(); i++) {
+            rowByProduct.put(products.get(i).getId(), i);
+        }
+        int days = (int) ChronoUnit.DAYS.between(from, to);
+        int[][] units = new int[products.size()][days];
+
+        Instant since = from.atStartOfDay(ZoneOffset.UTC).toInstant();
+        for (SalesRepository.ProductDayUnitsView bucket : salesRepository.sumUnitsByProductAndDaySince(since)) {
+            Integer row = rowByProduct.get(bucket.getProductId());
+            int day = (int) ChronoUnit.DAYS.between(from, bucket.getDay());
+            if (row != null && day < days) {
+                units[row][day] += bucket.getUnits().intValue();
+            }
+        }
+        return new History(products, units, from);
+    }
+
+    /**
+     * Synthetic history for productCount products over the given number of years.
+     * Products get a base rate, a weekly pattern, a slow trend and noise; every fifth
+     * product is intermittent (sells on roughly one day in six). Same seed, same data.
+     */
+    public static History synthetic(int productCount, int years, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int days = years * 365;
+        List<Product> products = new ArrayList<>(productCount);
+        int[][] units = new int[productCount][days];
+        String[] categories = {"Grocery", "Electronics", "Household", "Apparel"};
+
+        for (int p = 0; p < productCount; p++) {
+            Product product = new Product();
+            product.setId((long) p + 1);
+            product.setProductName("Synthetic " + (p + 1));
+            product.setCategory(categories[p % categories.length]);
+            products.add(product);
+
+            boolean intermittent = p % 5 == 4;
+            double base = intermittent ? 3 + random.nextDouble() * 5 : 2 + random.nextDouble() * 40;
+            double weeklyAmplitude = random.nextDouble() * 0.6;
+            int peakDay = random.nextInt(7);
+            double trendPerDay = (random.nextDouble() - 0.5) * base / days;
+
+            for (int d = 0; d < days; d++) {
+                if (intermittent && random.nextInt(6) != 0) {
+                    continue;
+                }
+                double seasonal = 1 + weeklyAmplitude * Math.cos(2 * Math.PI * (d - peakDay) / 7.0);
+                double mean = Math.max(0, (base + trendPerDay * d) * seasonal);
+                double noisy = mean + random.nextGaussian() * Math.sqrt(mean + 1);
+                units[p][d] = (int) Math.max(0, Math.round(noisy));
+            }
+        }
+        return new History(products, units, LocalDate.of(2020, 1, 1));
+    }
+
+    /**
+     * Backtests with the configured per-product model selection.
+     */
+    public Report run(History history, int horizonDays, int stepDays) {
+        return run(history, null, horizonDays, stepDays);
+    }
+
+    /**
+     * Backtests with one named model for every product (null = the configured selection).
+     */
+    public Report run(History history, String modelName, int horizonDays, int stepDays) {
+        ForecastModel model = modelName == null ? null : registry.get(modelName);
+        int window = DemandWindow.WINDOW_DAYS;
+        int[][] units = history.dailyUnits();
+        List<Product> products = history.products();
+
+        double apeSum = 0;
+        long apeCount = 0;
+        double forecastSum = 0;
+        double actualSum = 0;
+        long stockOuts = 0;
+        int origins = 0;
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = totalAllocated(threads);
+        long start = System.nanoTime();
+
+        for (int origin = window; origin + horizonDays <= history.days(); origin += stepDays) {
+            int first = origin - window;
+            double[] predictions = forecastEngine.predict(products, horizonDays, (index, product, out) -> {
+                int[] row = units[index];
+                for (int d = 0; d < window; d++) {
+                    out[d] = row[first + d];
+                }
+            }, model);
+
+            for (int p = 0; p < products.size(); p++) {
+                int actual = 0;
+                for (int d = origin; d < origin + horizonDays; d++) {
+                    actual += units[p][d];
+                }
+                double forecast = predictions[p];
+                forecastSum += forecast;
+                actualSum += actual;
+                if (actual > 0) {
+                    apeSum += Math.abs(forecast - actual) / actual;
+                    apeCount++;
+                }
+                if (actual > Math.ceil(forecast)) {
+                    stockOuts++;
+                }
+            }
+            origins++;
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        long allocated = totalAllocated(threads) - allocatedBefore;
+        long forecasts = (long) origins * products.size();
+        return new Report(
+                modelName == null ? "configured" : modelName,
+                products.size(),
+                origins,
+                forecasts,
+                apeCount == 0 ? 0 : 100.0 * apeSum / apeCount,
+                actualSum == 0 ? 0 : 100.0 * (forecastSum - actualSum) / actualSum,
+                stockOuts,
+                elapsedNanos / 1_000_000,
+                elapsedNanos == 0 ? 0 : forecasts / (elapsedNanos / 1e9),
+                allocated);
+    }
+
+    // Forecasting runs on pool threads, so count every live thread, not just this one
+    private static long totalAllocated(com.sun.management.ThreadMXBean threads) {
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+}
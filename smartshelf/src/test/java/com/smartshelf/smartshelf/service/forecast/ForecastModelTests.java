@@ -0,0 +1,81 @@
+package com.smartshelf.smartshelf.service.forecast;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForecastModelTests {
+
+    private final SimpleMovingAverageModel sma = new SimpleMovingAverageModel();
+    private final SimpleExponentialSmoothingModel ses = new SimpleExponentialSmoothingModel();
+    private final HoltWintersModel holtWinters = new HoltWintersModel();
+    private final CrostonModel croston = new CrostonModel();
+    private final AutoModel auto = new AutoModel(croston, holtWinters, ses);
+
+    @Test
+    void flatDemandIsForecastFlatByEveryModel() {
+        double[] series = new double[30];
+        Arrays.fill(series, 4);
+        for (ForecastModel model : new ForecastModel[]{sma, ses, holtWinters, croston, auto}) {
+            assertEquals(28, model.forecast(series, 7), 0.5, model.name());
+        }
+    }
+
+    @Test
+    void holtWintersFollowsTheWeeklyPattern() {
+        // Weekends sell 10, weekdays 2; five full weeks, so the history ends on a Sunday
+        double[] series = new double[35];
+        for (int t = 0; t < series.length; t++) {
+            series[t] = t % 7 >= 5 ? 10 : 2;
+        }
+        double monday = holtWinters.forecast(series, 1);
+        double saturday = holtWinters.forecast(series, 6) - holtWinters.forecast(series, 5);
+        assertEquals(2, monday, 1.0);
+        assertEquals(10, saturday, 1.5);
+        assertEquals(30, holtWinters.forecast(series, 7), 1.0); // 5 x 2 + 2 x 10
+        assertEquals(30, sma.forecast(series, 7), 1.0);
+    }
+
+    @Test
+    void autoUsesHoltWintersOnlyForSteadySeries() {
+        double[] weekly = new double[35];
+        for (int t = 0; t < weekly.length; t++) {
+            weekly[t] = t % 7 >= 5 ? 10 : 2;
+        }
+        assertTrue(AutoModel.isSteady(weekly));
+        assertEquals(holtWinters.forecast(weekly, 7), auto.forecast(weekly, 7), 1e-9);
+
+        // Mostly 1 a day with the odd bulk order of 40: too lumpy for a seasonal fit
+        double[] lumpy = new double[35];
+        Arrays.fill(lumpy, 1);
+        lumpy[24] = 40;
+        lumpy[31] = 40;
+        assertFalse(AutoModel.isSteady(lumpy));
+        assertEquals(ses.forecast(lumpy, 7), auto.forecast(lumpy, 7), 1e-9);
+
+        // Less than two weeks of history
+        double[] young = {3, 4, 3, 5, 4};
+        assertEquals(ses.forecast(young, 7), auto.forecast(young, 7), 1e-9);
+    }
+
+    @Test
+    void crostonEstimatesTheRateOfIntermittentDemand() {
+        // 6 units every 3rd day = 2 units/day on average
+        double[] series = new double[30];
+        for (int t = 2; t < series.length; t += 3) {
+            series[t] = 6;
+        }
+        assertEquals(14, croston.forecast(series, 7), 0.5);
+        assertEquals(croston.forecast(series, 7), auto.forecast(series, 7), 1e-9);
+        assertEquals(0, croston.forecast(new double[30], 7));
+    }
+
+    @Test
+    void exponentialSmoothingWeighsRecentDaysMore() {
+        double[] series = new double[30];
+        Arrays.fill(series, 20, 30, 10); // demand started ten days ago
+        assertTrue(ses.forecast(series, 7) > sma.forecast(series, 7));
+    }
+}